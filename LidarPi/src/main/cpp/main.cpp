@@ -1,4 +1,8 @@
+#include <algorithm>
+#include <atomic>
 #include <chrono>
+#include <csignal>
+#include <cstring>
 #include <thread>
 #include <vector>
 #include <fmt/format.h>
@@ -6,57 +10,193 @@
 #include <networktables/NetworkTable.h>
 #include <networktables/DoubleTopic.h>
 #include <networktables/IntegerTopic.h>
+#include <networktables/IntegerArrayTopic.h>
+#include <networktables/RawTopic.h>
+#include <networktables/StructTopic.h>
+#include <wpi/struct/Struct.h>
 
 #include "HPS3DUser_IF.h"
 
 using namespace std;
 
+// Depth of the points in one region, in millimeters
+struct RegionStats {
+  int64_t frame = 0;        // Lidar frame counter
+  double captureTime = 0;   // Robot NetworkTables time the frame arrived, in seconds
+  int32_t validCount = 0;   // Points in the region with a measured depth
+  double min = 0;
+  double median = 0;
+  double mean = 0;
+  double percentile = 0;    // Depth at regionPercentile
+};
+
+template <>
+struct wpi::Struct<RegionStats> {
+  static constexpr std::string_view GetTypeName() { return "LidarRegionStats"; }
+  static constexpr size_t GetSize() { return 8 + 8 + 4 + (4 * 8); }
+  static constexpr std::string_view GetSchema() {
+    return "int64 frame;double captureTime;int32 validCount;double min;double median;double mean;"
+           "double percentile";
+  }
+
+  static RegionStats Unpack(std::span<const uint8_t> data) {
+    RegionStats stats;
+    stats.frame = wpi::UnpackStruct<int64_t, 0>(data);
+    stats.captureTime = wpi::UnpackStruct<double, 8>(data);
+    stats.validCount = wpi::UnpackStruct<int32_t, 16>(data);
+    stats.min = wpi::UnpackStruct<double, 20>(data);
+    stats.median = wpi::UnpackStruct<double, 28>(data);
+    stats.mean = wpi::UnpackStruct<double, 36>(data);
+    stats.percentile = wpi::UnpackStruct<double, 44>(data);
+    return stats;
+  }
+
+  static void Pack(std::span<uint8_t> data, const RegionStats& value) {
+    wpi::PackStruct<0>(data, value.frame);
+    wpi::PackStruct<8>(data, value.captureTime);
+    wpi::PackStruct<16>(data, value.validCount);
+    wpi::PackStruct<20>(data, value.min);
+    wpi::PackStruct<28>(data, value.median);
+    wpi::PackStruct<36>(data, value.mean);
+    wpi::PackStruct<44>(data, value.percentile);
+  }
+};
+
+// Published once per lidar frame, so the robot can tell a slow lidar from a dead one
+struct FrameInfo {
+  int64_t sequence = 0;     // Frames received from the lidar since this program started
+  int64_t lidarFrame = 0;   // The lidar's own frame counter, which skips frames it dropped
+  double captureTime = 0;   // Robot NetworkTables time the frame arrived, in seconds
+  double processTime = 0;   // Seconds spent measuring and publishing the frame
+};
+
+template <>
+struct wpi::Struct<FrameInfo> {
+  static constexpr std::string_view GetTypeName() { return "LidarFrameInfo"; }
+  static constexpr size_t GetSize() { return 4 * 8; }
+  static constexpr std::string_view GetSchema() {
+    return "int64 sequence;int64 lidarFrame;double captureTime;double processTime";
+  }
+
+  static FrameInfo Unpack(std::span<const uint8_t> data) {
+    FrameInfo info;
+    info.sequence = wpi::UnpackStruct<int64_t, 0>(data);
+    info.lidarFrame = wpi::UnpackStruct<int64_t, 8>(data);
+    info.captureTime = wpi::UnpackStruct<double, 16>(data);
+    info.processTime = wpi::UnpackStruct<double, 24>(data);
+    return info;
+  }
+
+  static void Pack(std::span<uint8_t> data, const FrameInfo& value) {
+    wpi::PackStruct<0>(data, value.sequence);
+    wpi::PackStruct<8>(data, value.lidarFrame);
+    wpi::PackStruct<16>(data, value.captureTime);
+    wpi::PackStruct<24>(data, value.processTime);
+  }
+};
+
+const int LIDAR_WIDTH = 160;
+const int LIDAR_HEIGHT = 60;
+
+// Depths at or above this are status codes (low amplitude, saturated, ...), not distances
+const int MAX_VALID_DISTANCE = 65000;
+
+// The median and percentile come from a histogram, so each point is only read once.
+// Depths past the last bin are counted in it.
+const int HISTOGRAM_BIN_MM = 10;
+const int HISTOGRAM_BINS = 1201;
+
+const int MAX_REGIONS = 8;
+
+// A region being measured, with its running totals for this frame
+struct RegionTotals {
+  int xStart;
+  int xEnd;
+  int yStart;
+  int yEnd;
+  int count;
+  int min;
+  int64_t sum;
+  int histogram[HISTOGRAM_BINS];
+};
+
+static RegionTotals g_regionTotals[MAX_REGIONS];
+static RegionStats g_regionStats[MAX_REGIONS];
+
+// Depth frame streaming, for debugging. Layout (little endian):
+//   uint32 frame, double captureTime, uint16 width, uint16 height, uint8 step, uint8 encoding
+//   then width * height depths in rows, encoded as below.
+// DEPTH_RAW: uint16 per point.
+// DEPTH_DELTA_RLE: each point is a change from the one before it (the first from 0), as
+//   0x80 | (n - 1)  the previous depth n more times (n = 1 to 128)
+//   0x01 to 0x7F    a change of (byte - 64), from -63 to +63
+//   0x00, int16     any other change
+const int DEPTH_RAW = 0;
+const int DEPTH_DELTA_RLE = 1;
+const int DEPTH_HEADER_SIZE = 4 + 8 + 2 + 2 + 1 + 1;
+static uint8_t g_depthFrame[DEPTH_HEADER_SIZE + (LIDAR_WIDTH * LIDAR_HEIGHT * 3)];
+static int64_t g_depthFrameCount = 0;
+
 int g_handle = -1;
 static HPS3D_MeasureData_t g_measureData;
 
+// The counter is a heartbeat from this program, separate from the lidar frames
+const int HEARTBEAT_MS = 100;
 long counter = 1;
+static std::atomic<bool> g_isRunning{true};
+static FrameInfo g_frameInfo;
 
 int currentPoint = 0;
 
 nt::NetworkTableInstance inst;
 std::shared_ptr<nt::NetworkTable> table;
-nt::DoublePublisher xPub;
-nt::DoubleSubscriber xSub;
 
-nt::DoubleSubscriber regionXStart;
-nt::DoubleSubscriber regionYStart;
-nt::DoubleSubscriber regionXEnd;
-nt::DoubleSubscriber regionYEnd;
-nt::DoublePublisher zPub;
+nt::IntegerArraySubscriber regions; // xStart, xEnd, yStart, yEnd for each region
+nt::DoubleSubscriber regionPercentile;
+nt::StructArrayPublisher<RegionStats> regionStatsPub;
 
-nt::IntegerPublisher counterPub;
+nt::IntegerSubscriber depthFrameInterval; // Send every Nth frame, 0 for none
+nt::IntegerSubscriber depthFrameStep;     // Send every Nth point across and down
+nt::IntegerSubscriber depthFrameEncoding;
+nt::RawPublisher depthFramePub;
 
-int xStart;
-int xEnd;
-int yStart;
-int yEnd;
+nt::IntegerPublisher counterPub;
+nt::StructPublisher<FrameInfo> frameInfoPub;
 
 static void EventCallBackFunc(int handle, int eventType, uint8_t *data,
   int dataLen, void *userPara);
+static int CalcRegionStats(const uint16_t *distance, int64_t frame, double captureTime);
+static void FinishRegionStats(const RegionTotals &totals, double percentile, RegionStats &stats);
+static int EncodeDepthFrame(const uint16_t *distance, uint32_t frame, double captureTime);
+
+static void StopRunning(int signal) {
+  g_isRunning = false;
+}
 
 int main() {
+  std::signal(SIGINT, StopRunning);
+  std::signal(SIGTERM, StopRunning);
+
   inst = nt::NetworkTableInstance::GetDefault();
   inst.StartClient4("Test Client");
   //inst.SetServer("localhost");
   inst.SetServerTeam(7103);
 
   table = inst.GetTable("lidar");
-  xPub = table->GetDoubleTopic("average").Publish();
-  xSub = table->GetDoubleTopic("average").Subscribe(-1.0);
 
-  regionXStart = table->GetDoubleTopic("regionXStart").Subscribe(0.0);
-  regionYStart = table->GetDoubleTopic("regionYStart").Subscribe(0.0);
-  regionXEnd = table->GetDoubleTopic("regionXEnd").Subscribe(0.0);
-  regionYEnd = table->GetDoubleTopic("regionYEnd").Subscribe(0.0);
+  regions = table->GetIntegerArrayTopic("regions").Subscribe({});
+  regionPercentile = table->GetDoubleTopic("regionPercentile").Subscribe(10.0);
+
+  regionStatsPub = table->GetStructArrayTopic<RegionStats>("regionStats").Publish();
 
-  zPub = table->GetDoubleTopic("z").Publish();
+  depthFrameInterval = table->GetIntegerTopic("depthFrameInterval").Subscribe(0);
+  depthFrameStep = table->GetIntegerTopic("depthFrameStep").Subscribe(1);
+  depthFrameEncoding = table->GetIntegerTopic("depthFrameEncoding").Subscribe(DEPTH_DELTA_RLE);
+  depthFramePub = table->GetRawTopic("depthFrame").Publish("lidardepth");
 
   counterPub = table->GetIntegerTopic("counter").Publish();
+  // Every frame is queued, so the robot sees each sequence number even when it reads less often
+  frameInfoPub = table->GetStructTopic<FrameInfo>("frameInfo").Publish({.sendAll = true});
 
   fmt::print("HPS3D160 Demo\n"); printf("SDK Ver:%s\n", 
   HPS3D_GetSDKVersion()); while (true) {
@@ -98,10 +238,11 @@ int main() {
     break;
   }
 
-  for (int i=0; i < 100; i++) {
+  // Frames are handled by the callback. Keep beating until stopped.
+  while (g_isRunning) {
     counterPub.Set(counter);
     counter += 1;
-    this_thread::sleep_for(chrono::milliseconds(100));
+    this_thread::sleep_for(chrono::milliseconds(HEARTBEAT_MS));
   }
 
   fmt::print("Closing.\n");
@@ -123,36 +264,31 @@ static void EventCallBackFunc(int handle, int eventTypeInt, uint8_t *data,
   HPS3D_EventType_t eventType = (HPS3D_EventType_t)eventTypeInt;
 
   switch (eventType) {
-    case HPS3D_FULL_DEPTH_EVEN:
+    case HPS3D_FULL_DEPTH_EVEN: {
+      // Robot time, so the robot can tell how old the frame is
+      int64_t now = nt::Now() + inst.GetServerTimeOffset().value_or(0);
+
       HPS3D_ConvertToMeasureData(data, &g_measureData, eventType);
-      //printf("Got data. Average = %d\n",
-             //g_measureData.full_depth_data.distance_average);
-      printf("Point 0 Y Value = %f\n",
-             g_measureData.full_depth_data.point_cloud_data.point_data[0].y);
-      printf("Point 0 X Value = %f\n",
-             g_measureData.full_depth_data.point_cloud_data.point_data[0].x);
-      printf("Point 0 Z Value = %f\n",
-             g_measureData.full_depth_data.point_cloud_data.point_data[0].z);
-
-      currentPoint = regionXStart.Get() + (regionYStart.Get() * 160);
-
-      xStart = regionXStart.Get();
-      xEnd = regionXEnd.Get();
-      yStart = regionYStart.Get();
-      yEnd = regionYEnd.Get();
-
-      for(int y=yStart;y <= yEnd;y++) {
-        for (int x=xStart; x <= xEnd;x++) {
-          printf("Current Array point: %f\n", (double)currentPoint);
-          currentPoint += 1;
-        }
-        currentPoint += 160 - (xEnd - xStart) - 1;
+      int regionCount = CalcRegionStats(g_measureData.full_depth_data.distance,
+                                        g_measureData.full_depth_data.frame_cnt, now / 1000000.0);
+
+      regionStatsPub.Set(std::span<const RegionStats>(g_regionStats, regionCount), now);
+
+      int64_t interval = depthFrameInterval.Get();
+      if (interval > 0 && (g_depthFrameCount++ % interval) == 0) {
+        int length = EncodeDepthFrame(g_measureData.full_depth_data.distance,
+                                      g_measureData.full_depth_data.frame_cnt, now / 1000000.0);
+        depthFramePub.Set(std::span<const uint8_t>(g_depthFrame, length), now);
       }
 
-      xPub.Set(g_measureData.full_depth_data.distance_average);
-      zPub.Set(g_measureData.full_depth_data.distance_average);
+      g_frameInfo.sequence++;
+      g_frameInfo.lidarFrame = g_measureData.full_depth_data.frame_cnt;
+      g_frameInfo.captureTime = now / 1000000.0;
+      g_frameInfo.processTime = (nt::Now() + inst.GetServerTimeOffset().value_or(0) - now) / 1000000.0;
+      frameInfoPub.Set(g_frameInfo, now);
       inst.Flush();
       break;
+    }
 
     case HPS3D_SYS_EXCEPTION_EVEN:
       printf("Exception Event\n");
@@ -175,3 +311,161 @@ static void EventCallBackFunc(int handle, int eventTypeInt, uint8_t *data,
   }
 
 }
+
+// Measure every region the robot asked for in one pass over the frame. Each point is added
+// to every region that contains it. Region corners outside the lidar's view are clamped.
+// Returns the number of regions in g_regionStats.
+static int CalcRegionStats(const uint16_t *distance, int64_t frame, double captureTime)
+{
+  std::vector<int64_t> corners = regions.Get();
+  int regionCount = std::min((int)corners.size() / 4, MAX_REGIONS);
+  double percentile = std::clamp(regionPercentile.Get(), 0.0, 100.0);
+
+  for (int r = 0; r < regionCount; r++) {
+    RegionTotals &totals = g_regionTotals[r];
+    totals.xStart = std::clamp((int)corners[(r * 4)], 0, LIDAR_WIDTH - 1);
+    totals.xEnd = std::clamp((int)corners[(r * 4) + 1], totals.xStart, LIDAR_WIDTH - 1);
+    totals.yStart = std::clamp((int)corners[(r * 4) + 2], 0, LIDAR_HEIGHT - 1);
+    totals.yEnd = std::clamp((int)corners[(r * 4) + 3], totals.yStart, LIDAR_HEIGHT - 1);
+    totals.count = 0;
+    totals.min = MAX_VALID_DISTANCE;
+    totals.sum = 0;
+    std::fill(totals.histogram, totals.histogram + HISTOGRAM_BINS, 0);
+  }
+
+  for (int y = 0; y < LIDAR_HEIGHT; y++) {
+    int rowRegions[MAX_REGIONS];
+    int rowRegionCount = 0;
+    for (int r = 0; r < regionCount; r++) {
+      if (y >= g_regionTotals[r].yStart && y <= g_regionTotals[r].yEnd) {
+        rowRegions[rowRegionCount++] = r;
+      }
+    }
+    if (rowRegionCount == 0) {
+      continue;
+    }
+
+    const uint16_t *row = distance + (y * LIDAR_WIDTH);
+    for (int x = 0; x < LIDAR_WIDTH; x++) {
+      int depth = row[x];
+      if (depth == 0 || depth >= MAX_VALID_DISTANCE) {
+        continue;
+      }
+      int bin = std::min(depth / HISTOGRAM_BIN_MM, HISTOGRAM_BINS - 1);
+      for (int i = 0; i < rowRegionCount; i++) {
+        RegionTotals &totals = g_regionTotals[rowRegions[i]];
+        if (x < totals.xStart || x > totals.xEnd) {
+          continue;
+        }
+        totals.count++;
+        totals.sum += depth;
+        totals.min = std::min(totals.min, depth);
+        totals.histogram[bin]++;
+      }
+    }
+  }
+
+  for (int r = 0; r < regionCount; r++) {
+    g_regionStats[r].frame = frame;
+    g_regionStats[r].captureTime = captureTime;
+    FinishRegionStats(g_regionTotals[r], percentile, g_regionStats[r]);
+  }
+  return regionCount;
+}
+
+// Min, mean, median and percentile from a region's totals
+static void FinishRegionStats(const RegionTotals &totals, double percentile, RegionStats &stats)
+{
+  int count = totals.count;
+  stats.validCount = count;
+  if (count == 0) {
+    stats.min = 0;
+    stats.median = 0;
+    stats.mean = 0;
+    stats.percentile = 0;
+    return;
+  }
+  stats.min = totals.min;
+  stats.mean = (double)totals.sum / count;
+
+  // Walk the histogram once for both ranks. Each result is the middle of its bin.
+  int medianRank = (count + 1) / 2;
+  int percentileRank = std::max(1, (int)((percentile / 100.0) * count + 0.5));
+  int seen = 0;
+  bool isMedianFound = false;
+  bool isPercentileFound = false;
+  for (int bin = 0; bin < HISTOGRAM_BINS && !(isMedianFound && isPercentileFound); bin++) {
+    seen += totals.histogram[bin];
+    double binDepth = (bin * HISTOGRAM_BIN_MM) + (HISTOGRAM_BIN_MM / 2.0);
+    if (!isMedianFound && seen >= medianRank) {
+      stats.median = binDepth;
+      isMedianFound = true;
+    }
+    if (!isPercentileFound && seen >= percentileRank) {
+      stats.percentile = binDepth;
+      isPercentileFound = true;
+    }
+  }
+}
+
+static int PutUint16(int index, uint16_t value)
+{
+  g_depthFrame[index] = value & 0xFF;
+  g_depthFrame[index + 1] = value >> 8;
+  return index + 2;
+}
+
+// Write the frame into g_depthFrame and return its length. Nothing is allocated.
+static int EncodeDepthFrame(const uint16_t *distance, uint32_t frame, double captureTime)
+{
+  int step = std::clamp((int)depthFrameStep.Get(), 1, LIDAR_HEIGHT);
+  int encoding = depthFrameEncoding.Get() == DEPTH_RAW ? DEPTH_RAW : DEPTH_DELTA_RLE;
+  int width = (LIDAR_WIDTH + step - 1) / step;
+  int height = (LIDAR_HEIGHT + step - 1) / step;
+
+  int index = 0;
+  for (int i = 0; i < 4; i++) {
+    g_depthFrame[index++] = (frame >> (i * 8)) & 0xFF;
+  }
+  uint64_t timeBits;
+  memcpy(&timeBits, &captureTime, sizeof(timeBits));
+  for (int i = 0; i < 8; i++) {
+    g_depthFrame[index++] = (timeBits >> (i * 8)) & 0xFF;
+  }
+  index = PutUint16(index, width);
+  index = PutUint16(index, height);
+  g_depthFrame[index++] = step;
+  g_depthFrame[index++] = encoding;
+
+  uint16_t previous = 0;
+  int runIndex = -1; // Where the current run's byte is, or -1 if not in a run
+  for (int y = 0; y < LIDAR_HEIGHT; y += step) {
+    const uint16_t *row = distance + (y * LIDAR_WIDTH);
+    for (int x = 0; x < LIDAR_WIDTH; x += step) {
+      uint16_t depth = row[x];
+      if (encoding == DEPTH_RAW) {
+        index = PutUint16(index, depth);
+        continue;
+      }
+      int16_t change = (int16_t)(depth - previous);
+      previous = depth;
+      if (change == 0) {
+        if (runIndex >= 0 && g_depthFrame[runIndex] < 0xFF) {
+          g_depthFrame[runIndex]++;
+        } else {
+          runIndex = index;
+          g_depthFrame[index++] = 0x80;
+        }
+        continue;
+      }
+      runIndex = -1;
+      if (change >= -63 && change <= 63) {
+        g_depthFrame[index++] = change + 64;
+      } else {
+        g_depthFrame[index++] = 0x00;
+        index = PutUint16(index, (uint16_t)change);
+      }
+    }
+  }
+  return index;
+}
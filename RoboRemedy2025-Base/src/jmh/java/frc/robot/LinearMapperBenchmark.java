@@ -0,0 +1,74 @@
+// LinearMapperBenchmark.java - Compares LinearMapper with the ArrayList based LegacyLinearMapper
+package frc.robot;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LinearMapperBenchmark {
+    // Swerve drive velocity table from Electronics (inches per second to percent output)
+    private static final double[] VELOCITIES = { 0.8, 3.7, 13.6, 20.8, 25.2, 62.6, 83.8, 93.9, 167.9, 187.7, 195.9 };
+    private static final double[] PERCENTS = { 0.027, 0.035, 0.067, 0.1, 0.119, 0.3, 0.399, 0.45, 0.8, 0.9, 0.94 };
+    private static final int HISTORY_SIZE = 80;
+
+    private LinearMapper velocityMapper = new LinearMapper();
+    private LegacyLinearMapper legacyVelocityMapper = new LegacyLinearMapper();
+    private LinearMapper historyMapper = new LinearMapper(HISTORY_SIZE);
+    private LegacyLinearMapper legacyHistoryMapper = new LegacyLinearMapper(HISTORY_SIZE);
+
+    // Four swerve modules asking for slightly different speeds, like a real loop
+    private double[] velocities = { 41.3, 42.0, 40.7, 44.9 };
+    private double time = 0;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < VELOCITIES.length; i++) {
+            velocityMapper.add(VELOCITIES[i], PERCENTS[i]);
+            legacyVelocityMapper.add(VELOCITIES[i], PERCENTS[i]);
+        }
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            addHistory();
+        }
+    }
+
+    private void addHistory() {
+        time += 0.02;
+        historyMapper.add(time, time * 30.0);
+        legacyHistoryMapper.add(time, time * 30.0);
+    }
+
+    @Benchmark
+    public double velocityLookup() {
+        double total = 0;
+        for (double v : velocities) {
+            total += velocityMapper.calculate(v);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double velocityLookupLegacy() {
+        double total = 0;
+        for (double v : velocities) {
+            total += legacyVelocityMapper.calculate(v);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double historyAddAndLookup() {
+        time += 0.02;
+        historyMapper.add(time, time * 30.0);
+        return historyMapper.calculate(time - 0.035);
+    }
+
+    @Benchmark
+    public double historyAddAndLookupLegacy() {
+        time += 0.02;
+        legacyHistoryMapper.add(time, time * 30.0);
+        return legacyHistoryMapper.calculate(time - 0.035);
+    }
+}
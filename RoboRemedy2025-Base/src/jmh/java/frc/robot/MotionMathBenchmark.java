@@ -0,0 +1,60 @@
+// MotionMathBenchmark.java - Speed, unit and position math used by actions every loop
+package frc.robot;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import frc.robot.MeasureConvert.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MotionMathBenchmark {
+    private static final double MAX_ACCEL = 140.0; // Same as AutoRobot
+
+    private Position position = new Position("benchmark position", 0, 0, 0);
+    private double distanceToGo = 100;
+    private double currentSpeed = 0;
+    private double value = 1;
+    private VelocityProfiler profiler = new VelocityProfiler();
+
+    @Setup
+    public void setup() {
+        // Same limits Action uses for driving a distance in AutoRobot
+        profiler.maxAcceleration = MAX_ACCEL;
+        profiler.maxDeceleration = RobotState.MAX_ROBOT_DECELERATION;
+        profiler.maxJerk = MAX_ACCEL / 0.1;
+        profiler.minVelocity = 5;
+    }
+
+    @Benchmark
+    public double profileToDistance() {
+        distanceToGo -= 0.5;
+        if (distanceToGo < 0) {
+            distanceToGo = 100;
+        }
+        currentSpeed = profiler.calculate(currentSpeed, 120, distanceToGo, 0, 0.02);
+        return currentSpeed;
+    }
+
+    @Benchmark
+    public double profileToSpeed() {
+        currentSpeed = profiler.calculate(currentSpeed, currentSpeed < 100 ? 120 : 0, Double.POSITIVE_INFINITY,
+            0, 0.02);
+        return currentSpeed;
+    }
+
+    @Benchmark
+    public double convertMeasurement() {
+        value += 0.25;
+        return MeasureConvert.convertMeasurement(value, Unit.Meter, Unit.Inch);
+    }
+
+    @Benchmark
+    public double positionUpdate() {
+        position.addToPosition(0.5, -0.25);
+        position.setYaw(position.getYaw() + 7.0);
+        return position.getX();
+    }
+}
@@ -0,0 +1,45 @@
+// PoseEstimatorBenchmark.java - Robot position update done by RobotState.calcDeadReckoning every loop
+package frc.robot;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PoseEstimatorBenchmark {
+    private static final double LOOP_SECONDS = 0.02;
+    private static final double CAMERA_LATENCY_SECONDS = 0.035;
+
+    private PoseEstimator estimator = new PoseEstimator();
+    private double time = 0;
+    private double gyroAngle = 0;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < 100; i++) {
+            moveOneLoop();
+        }
+    }
+
+    private void moveOneLoop() {
+        time += LOOP_SECONDS;
+        gyroAngle += 0.5;
+        estimator.addMeasuredMotion(time, 0.8, 1.2, 1.44, gyroAngle);
+    }
+
+    @Benchmark
+    public double measuredMotion() {
+        moveOneLoop();
+        return estimator.robotPosition.getX();
+    }
+
+    @Benchmark
+    public double measuredMotionWithVision() {
+        moveOneLoop();
+        estimator.addVisionPosition(time - CAMERA_LATENCY_SECONDS, estimator.robotPosition.getX() + 1.0,
+            estimator.robotPosition.getY() - 1.0, 3.0);
+        return estimator.robotPosition.getX();
+    }
+}
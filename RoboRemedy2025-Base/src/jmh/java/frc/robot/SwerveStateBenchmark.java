@@ -0,0 +1,57 @@
+// SwerveStateBenchmark.java - Swerve module calculations done every loop
+package frc.robot;
+
+import java.awt.geom.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SwerveStateBenchmark {
+    // Module locations of the 2025 robot, from Electronics
+    private SwerveState state = new SwerveState(new Point2D.Double[] {
+        new Point2D.Double(-10.875, 6.0), new Point2D.Double(10.875, 6.0),
+        new Point2D.Double(10.875, -10.25), new Point2D.Double(-10.875, -10.25) });
+    private double[] moduleAngles = new double[4];
+    private double[] moduleSpeeds = new double[4];
+    private double travelAngle = 0;
+
+    @Setup
+    public void setup() {
+        state.assignSwerveModules(30, 80, 45, 200);
+        for (int i = 0; i < 4; i++) {
+            moduleAngles[i] = state.getAngle(i);
+            moduleSpeeds[i] = state.getMagnitude(i);
+        }
+    }
+
+    @Benchmark
+    public double assignSwerveModules() {
+        travelAngle += 1.0;
+        state.assignSwerveModules(travelAngle, 80, 45, 200);
+        return state.getMagnitude(0);
+    }
+
+    @Benchmark
+    public double assignSwerveModulesField() {
+        travelAngle += 1.0;
+        state.assignSwerveModulesField(travelAngle, 80, 45, 12.5, 200);
+        return state.getMagnitude(0);
+    }
+
+    @Benchmark
+    public double assignSwerveModulesSecondOrder() {
+        travelAngle += 1.0;
+        state.assignSwerveModulesSecondOrder(travelAngle, 80, 45, travelAngle + 90, 100, 30, 0.02, 200);
+        return state.getTurnDegreesPerSecond(0);
+    }
+
+    @Benchmark
+    public double calcChassisMotion() {
+        moduleAngles[0] += 0.01;
+        state.calcChassisMotion(moduleAngles, moduleSpeeds);
+        return state.getChassisX();
+    }
+}
@@ -0,0 +1,56 @@
+// TrajectoryBenchmark.java - Trajectory following done by Action.followTrajectory every loop
+package frc.robot;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import frc.robot.RobotEnums.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TrajectoryBenchmark {
+    private static final double LOOP_SECONDS = 0.02;
+
+    private Trajectory trajectory;
+    private Trajectory.Sample sample = new Trajectory.Sample();
+    private TrajectoryFollower follower = new TrajectoryFollower(new HeadingController());
+    private double time = 0;
+
+    @Setup
+    public void setup() {
+        trajectory = buildTrajectory();
+        follower.start(trajectory, 0, 0, 0);
+    }
+
+    // The Simulation Path, generated the same way as for the trajectory cache file
+    private static Trajectory buildTrajectory() {
+        return AutoPaths.generate(AutoProgram.SimulationPath, AutoStartPosition.values()[0], false);
+    }
+
+    private double nextTime() {
+        time += LOOP_SECONDS;
+        if (time > trajectory.getTotalTime()) {
+            time = 0;
+        }
+        return time;
+    }
+
+    @Benchmark
+    public double sample() {
+        trajectory.sample(nextTime(), sample);
+        return sample.x;
+    }
+
+    @Benchmark
+    public double followerUpdate() {
+        follower.update(nextTime(), 1.0, 20.0, 5.0);
+        return follower.travelInchesPerSecond;
+    }
+
+    @Benchmark
+    public Trajectory generate() {
+        return buildTrajectory();
+    }
+}
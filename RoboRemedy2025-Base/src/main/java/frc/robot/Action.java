@@ -10,15 +10,19 @@ public class Action {
     private OI oi;
 
     private static final double ROBOT_MIN_SPEED = 5;
+    private static final double ACCELERATION_RAMP_TIME = 0.1; // Seconds to go from no acceleration to full
 
     private double[] driveEncoderZeros;
-    private Timer actionTimer = new Timer();
-    private Timer logTimer = new Timer();
+    private double actionStartTime = 0;
+    private double logStartTime = 0;
     private double calcDistTraveled = 0;
     private double extraDriveDistance = 0;
     private boolean lastDriverStationAttached = false;
     private boolean isPrinted = false;
     private static final double DRIVE_STRAIGHT_TARGET_RANGE = 0.5;
+    private TrajectoryFollower trajectoryFollower;
+    private boolean isTrajectoryStarted = false;
+    private VelocityProfiler velocityProfiler = new VelocityProfiler();
 
     Action(Electronics elec, RoboLog rLog, OI oi, RobotState robotState) {
         this.rLog = rLog;
@@ -39,8 +43,9 @@ public class Action {
             rLog.print("Warning: Action.robotState is null");
         }
 
-        actionTimer.restart();
-        logTimer.restart();
+        trajectoryFollower = new TrajectoryFollower(e != null ? e.headingController : new HeadingController());
+        actionStartTime = RobotTime.getTimestamp();
+        logStartTime = RobotTime.getTimestamp();
     }
 
     /**
@@ -50,17 +55,19 @@ public class Action {
         driveEncoderZeros = e.getAllDriveEncoders();
         calcDistTraveled = 0;
         extraDriveDistance = 0;
-        actionTimer.restart();
+        actionStartTime = RobotTime.getTimestamp();
         isPrinted = false;
+        isTrajectoryStarted = false;
+        velocityProfiler.reset(robotState.commandedVelocity);
     }
 
     /**
      * Gets the action timer's value and returns it as a double.
      * 
-     * @return The current time on actionTimer
+     * @return Seconds since the action started
      */
     public double getActTime() {
-        return actionTimer.get();
+        return RobotTime.getTimestamp() - actionStartTime;
     }
 
     /**
@@ -110,7 +117,7 @@ public class Action {
      */
     public boolean driveStraightWithFacing(double travelAngle, double travelInchesPerSecond, double facingAngle,
             double maxTravelAcceleration, double distance, double endingInchesPerSecond) {
-        calcDistTraveled += robotState.distanceMoved;
+        calcDistTraveled += robotState.measuredDistanceMoved;
         double distYetToGo = distance - calcDistTraveled + extraDriveDistance;
         if (calcDistTraveled > distance + extraDriveDistance - DRIVE_STRAIGHT_TARGET_RANGE) {
             e.assignRobotMotionAndHeadingField(travelAngle, endingInchesPerSecond, facingAngle);
@@ -156,18 +163,21 @@ public class Action {
                 distance, endingInchesPerSecond);
     }
 
+    /**
+     * Speed for driving a distance: speeds up to maxTravelSpeed and slows down to
+     * endingInchesPerSecond at the end, with the acceleration ramping in and out over
+     * ACCELERATION_RAMP_TIME so the wheels do not slip.
+     */
     private double calcInchesPerSec(double maxTravelSpeed, double distanceYetToGo,
             double maxTravelAcceleration, double endingInchesPerSecond) {
-         // Limit the acceleration at the beginning
-        double upInPerSec = limitAccel(maxTravelSpeed, maxTravelAcceleration);
-        // Ramp down at the end based on distance to target. Adjusting the decelaration will affect how
-        // fast or slow it ramps down. A larger value is more agressive. Reduce it if it overshoots.
-        double deceleration = Math.min(maxTravelAcceleration, RobotState.MAX_ROBOT_DECELERATION);
-        double dwnInPerSec = Math.sqrt((endingInchesPerSecond * endingInchesPerSecond) + (2 * deceleration * distanceYetToGo));
+        // Adjusting the deceleration will affect how fast or slow it ramps down. A larger value
+        // is more agressive. Reduce it if it overshoots.
+        setProfilerLimits(maxTravelAcceleration, Math.min(maxTravelAcceleration, RobotState.MAX_ROBOT_DECELERATION));
         // Also, don't go slower than ROBOT_MIN_SPEED. This contstant should be set to the maximum speed
         // that the robot can travel and still stop immediately.
-        double calcInPerSec = Math.max(Math.min(upInPerSec, dwnInPerSec), ROBOT_MIN_SPEED);
-        return calcInPerSec;
+        velocityProfiler.minVelocity = ROBOT_MIN_SPEED;
+        return velocityProfiler.calculate(robotState.commandedVelocity, maxTravelSpeed, distanceYetToGo,
+            endingInchesPerSecond, robotState.commandElapsedTime);
     }
 
     /**
@@ -306,6 +316,41 @@ public class Action {
         return false;
     }
 
+    /**
+     * Follow a trajectory from TrajectoryGenerator, starting from wherever the robot is when
+     * this action starts. The trajectory only slows down where its limits make it, so a path
+     * through several waypoints does not stop at each one. It follows the dead reckoning
+     * position, which vision never moves, so the path does not jump out from under the robot
+     * when a tag is seen along the way.
+     * 
+     * @param trajectory    The path to follow, made before the action starts
+     * @param positionRange How close (in inches) to the end of the path is close enough
+     */
+    public boolean followTrajectory(Trajectory trajectory, double positionRange) {
+        double time = RobotTime.getTimestamp();
+        Position position = robotState.deadReckoningPosition;
+        if (!isTrajectoryStarted) {
+            trajectoryFollower.start(trajectory, time, position.getX(), position.getY());
+            isTrajectoryStarted = true;
+        }
+        trajectoryFollower.update(time, position.getX(), position.getY(), robotState.gyroAngle);
+        if (trajectoryFollower.isFinished(time, positionRange)) {
+            rLog.print("Trajectory " + trajectory.name + " Done. Time: "
+                + RobotMath.round2(trajectoryFollower.getElapsedTime(time))
+                + " Error: " + RobotMath.round1(trajectoryFollower.positionError));
+            double endVelocity = trajectory.velocities[trajectory.getSampleCount() - 1];
+            if (endVelocity == 0) {
+                e.stopSwerveMotors();
+            } else {
+                e.assignRobotMotionField(trajectoryFollower.travelAngle, endVelocity, trajectoryFollower.degreesPerSecond);
+            }
+            return true;
+        }
+        e.assignRobotMotionField(trajectoryFollower.travelAngle, trajectoryFollower.travelInchesPerSecond,
+            trajectoryFollower.degreesPerSecond);
+        return false;
+    }
+
     /**
      * Drive straight at a specific speed with no specific ending point
      * 
@@ -470,6 +515,35 @@ public class Action {
         return false;
     }
 
+    /**
+     * Drive straight ahead until the lidar measures a certain distance to whatever is in front of
+     * the robot. The speed ramps down from the measured distance instead of from how far the
+     * wheels have turned, so it can approach at full speed and still stop in the right place.
+     * Backs up if it ends up too close. Stops and waits if the lidar has no distance.
+     *
+     * @param facingAngle           Which way the robot faces, and drives
+     * @param stopDistance          Lidar distance (in inches) to stop at
+     * @param distanceRange         How close to stopDistance is close enough
+     * @param maxTravelSpeed        How fast the robot will move
+     * @param maxTravelAcceleration How fast the robot is allowed to accelerate
+     */
+    public boolean driveToLidarDistance(double facingAngle, double stopDistance, double distanceRange,
+            double maxTravelSpeed, double maxTravelAcceleration) {
+        if (!robotState.isLidarDistanceValid) {
+            e.assignRobotMotionAndHeadingField(facingAngle, 0, facingAngle);
+            return false;
+        }
+        double distYetToGo = robotState.lidarDistance - stopDistance;
+        if (Math.abs(distYetToGo) < distanceRange) {
+            e.assignRobotMotionAndHeadingField(facingAngle, 0, facingAngle);
+            return true;
+        }
+        double travelAngle = distYetToGo > 0 ? facingAngle : facingAngle + 180;
+        double calcInPerSec = calcInchesPerSec(maxTravelSpeed, Math.abs(distYetToGo), maxTravelAcceleration, 0);
+        e.assignRobotMotionAndHeadingField(travelAngle, calcInPerSec, facingAngle);
+        return false;
+    }
+
     /**
      *  Rotates the bot to a desired facing angle
      */ 
@@ -484,20 +558,22 @@ public class Action {
 
     /**
      * Limits the acceleration of the robot based on the travel speed and max travel
-     * acceleration.
+     * acceleration, with the acceleration ramping in and out over ACCELERATION_RAMP_TIME.
      * 
      * @param goalInPerSec
      * @param maxTravelAcceleration
      */
     private double limitAccel(double goalInPerSec, double maxTravelAcceleration) {
-        double calcInPerSec;
-        double maxAcceleration = robotState.commandElapsedTime * maxTravelAcceleration;
-        if (goalInPerSec >= robotState.commandedVelocity) {
-            calcInPerSec = Math.min(goalInPerSec, robotState.commandedVelocity + maxAcceleration);
-        } else {
-            calcInPerSec = Math.max(goalInPerSec, robotState.commandedVelocity - maxAcceleration);
-        }
-        return calcInPerSec;
+        setProfilerLimits(maxTravelAcceleration, maxTravelAcceleration);
+        velocityProfiler.minVelocity = 0;
+        return velocityProfiler.calculate(robotState.commandedVelocity, goalInPerSec, Double.POSITIVE_INFINITY,
+            goalInPerSec, robotState.commandElapsedTime);
+    }
+
+    private void setProfilerLimits(double maxTravelAcceleration, double maxTravelDeceleration) {
+        velocityProfiler.maxAcceleration = maxTravelAcceleration;
+        velocityProfiler.maxDeceleration = maxTravelDeceleration;
+        velocityProfiler.maxJerk = maxTravelAcceleration / ACCELERATION_RAMP_TIME;
     }
 
     public double getDistanceTraveled() {
@@ -520,9 +596,12 @@ public class Action {
     }
 
     public void logChanges() {
-        if (logTimer.get() < 3.0) {
+        if (RobotTime.getTimestamp() - logStartTime < 3.0) {
             return; // Start logging changes after 3 seconds
         }
+        if (e.isHeadless()) {
+            return; // No driver station
+        }
 
         boolean driverStationAttached = DriverStation.isDSAttached();
 
@@ -0,0 +1,39 @@
+// AprilTagLayout.java - Where each AprilTag is on the 2025 field
+package frc.robot;
+
+/**
+ * Tag positions are stored as published in the game manual: inches from the right hand corner of
+ * the blue alliance wall, X down the field and Y to the left of the blue drivers. The getters turn them
+ * into robot field coordinates as seen from our own alliance wall (X to the right, Y down the
+ * field), which is the same mapping Telemetry uses, so a gyro angle of 0 faces the far wall
+ * for either alliance. The field is rotationally symmetric, so red is the same layout turned 180 degrees.
+ */
+public class AprilTagLayout {
+    public static final double FIELD_LENGTH = 690.876;
+    public static final double FIELD_WIDTH = 317.0;
+    public static final int MAX_TAG_ID = 22;
+
+    // Indexed by tag ID. Tag 0 does not exist.
+    private static final double[] TAG_X = {
+        0,
+        657.37, 657.37, 455.15, 365.20, 365.20, 530.49, 546.87, 530.49, 497.77, 481.39, 497.77,
+        33.51, 33.51, 325.68, 325.68, 235.73, 160.39, 144.00, 160.39, 193.10, 209.49, 193.10 };
+    private static final double[] TAG_Y = {
+        0,
+        25.80, 291.20, 317.15, 241.64, 75.39, 130.17, 158.50, 186.83, 186.83, 158.50, 130.17,
+        25.80, 291.20, 241.64, 75.39, -0.15, 130.17, 158.50, 186.83, 186.83, 158.50, 130.17 };
+
+    public static boolean isKnownTag(int id) {
+        return id >= 1 && id <= MAX_TAG_ID;
+    }
+
+    /** Field X of a tag, in inches. The origin is the right hand corner of our alliance wall, so it is negative across the field. */
+    public static double getTagX(int id, boolean isRedAlliance) {
+        return isRedAlliance ? TAG_Y[id] - FIELD_WIDTH : -TAG_Y[id];
+    }
+
+    /** Field Y of a tag, in inches, down the field from our alliance wall */
+    public static double getTagY(int id, boolean isRedAlliance) {
+        return isRedAlliance ? FIELD_LENGTH - TAG_X[id] : TAG_X[id];
+    }
+}
@@ -0,0 +1,59 @@
+// AutoPaths.java - The trajectories driven by each autonomous program
+package frc.robot;
+
+import java.io.*;
+
+import frc.robot.RobotEnums.*;
+
+/**
+ * Every autonomous trajectory is defined here, so they can be generated on the desktop during
+ * the build and saved by TrajectoryCache instead of being generated on the roboRIO. Paths are
+ * relative to where the robot is when the program starts.
+ *
+ * <p>Run with gradlew generateAutoPaths, which writes build/generated/autopaths/autopaths.rrtp.
+ * Deploy does this automatically and sends the file to the deploy directory. On the desktop
+ * there is no file, so AutoRobot generates the trajectories when it starts.
+ */
+public class AutoPaths {
+    public static final double PATH_MAX_VELOCITY = 60.0;
+    public static final double PATH_MAX_ACCEL = 140.0; // Same as AutoRobot
+    public static final double PATH_MAX_CENTRIPETAL_ACCEL = 100.0;
+    public static final double PATH_MAX_ROTATION_RATE = 180.0;
+
+    /**
+     * Generate the trajectory for one program, start position and alliance.
+     *
+     * @return The trajectory, or null if the program does not drive one
+     */
+    public static Trajectory generate(AutoProgram program, AutoStartPosition position, boolean isRedAlliance) {
+        TrajectoryGenerator generator = new TrajectoryGenerator(PATH_MAX_VELOCITY, PATH_MAX_ACCEL,
+            PATH_MAX_CENTRIPETAL_ACCEL, PATH_MAX_ROTATION_RATE);
+        switch (program) {
+            case SimulationPath:
+                // The Simulation Project course in one smooth path, turning to face each new direction on the way
+                generator.addWaypoint(0, 0, 0);
+                generator.addWaypoint(0, 45, 0);
+                generator.addWaypoint(45, 45, 90);
+                generator.addWaypoint(45, 90, 180);
+                return generator.generate("Simulation Path", 0, 0);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Write the trajectory cache file.
+     *
+     * @param args The file to write, build/generated/autopaths/autopaths.rrtp if not given
+     */
+    public static void main(String... args) throws IOException {
+        File file = new File(args.length > 0 ? args[0] : "build/generated/autopaths/" + TrajectoryCache.FILE_NAME);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        TrajectoryCache cache = TrajectoryCache.generate();
+        TrajectoryCache.write(file, cache);
+        System.out.println("Wrote " + cache.getTrajectoryCount() + " trajectories to " + file + " ("
+            + file.length() + " bytes)");
+    }
+}
@@ -1,8 +1,10 @@
 // AutoRobot.java - Code for autonomous programs
 package frc.robot;
 
+import java.io.*;
+
 import edu.wpi.first.math.geometry.*;
-import edu.wpi.first.wpilibj.*;
+import edu.wpi.first.wpilibj.Filesystem;
 import frc.robot.RobotEnums.*;
 
 public class AutoRobot {
@@ -13,13 +15,16 @@ public class AutoRobot {
     private RobotState robotState;
 
     private int stepNumber;
-    private Timer autoTimer = new Timer();
+    private double stepStartTime = 0;
     private boolean isRedAlliance;
     private AutoProgram autoSelection;
     private AutoStartPosition autoPosition;
 
     private static final double MAX_ACCEL = 140.0;
 
+    private TrajectoryCache trajectories;
+    private Trajectory autoTrajectory; // From trajectories for the selected program, or null
+
     public AutoRobot(Electronics e, RoboLog rLog, Action act, RobotState robotState, Dashboard dash) {
         this.e = e;
         this.rLog = rLog;
@@ -42,12 +47,23 @@ public class AutoRobot {
         if (this.dash == null) {
             rLog.print("Warning: AutoRobot.dash is null");
         }
+
+        // Trajectories are generated during the build (AutoPaths) and deployed with the code, so
+        // autonomousInit only has to look one up. Generate them here if the file is missing or old.
+        File trajectoryFile = new File(Filesystem.getDeployDirectory(), TrajectoryCache.FILE_NAME);
+        try {
+            trajectories = TrajectoryCache.load(trajectoryFile);
+        } catch (IOException ex) {
+            rLog.print("Could not load " + trajectoryFile + ": " + ex.getMessage() + ", generating trajectories");
+            trajectories = TrajectoryCache.generate();
+        }
     }
 
     public void autonomousInit(AutoProgram autoSelected) {
         this.isRedAlliance = robotState.isRedAlliance;
         this.autoSelection = autoSelected;
-        this.autoPosition = dash.getAutoStart();
+        this.autoPosition = robotState.autoStartPosition; // Read from the dashboard every loop
+        this.autoTrajectory = trajectories.get(autoSelected, autoPosition, isRedAlliance);
         rLog.print("Start Autonomous Program:" + autoSelected
             + ", Position:" + autoPosition
             + ", Alliance:" + (isRedAlliance ? "Red" : "Blue")
@@ -59,6 +75,7 @@ public class AutoRobot {
         e.stopAllMotors();
         Pose2d pose = getRobotAutoPose(autoSelected, autoPosition);
         e.setGyro(pose.getRotation().getDegrees());
+        robotState.resetPosition(pose.getX(), pose.getY(), pose.getRotation().getDegrees());
     }
 
     public void autonomousPeriodic() {
@@ -68,6 +85,8 @@ public class AutoRobot {
             DriveOut();
         } else if (autoSelection == AutoProgram.SimulationProject) {
             SimulationProject();
+        } else if (autoSelection == AutoProgram.SimulationPath) {
+            SimulationPath();
         } else if (autoSelection == AutoProgram.None) {
             e.stopAllMotors();
         }
@@ -86,7 +105,7 @@ public class AutoRobot {
     void setStepNumber(int number) {
         stepNumber = number;
         act.resetAction();
-        autoTimer.restart();
+        stepStartTime = RobotTime.getTimestamp();
         rLog.print("New Auto Step Number:" + stepNumber + ", Gyro:" + robotState.gyroAngleRounded);
     }
 
@@ -159,4 +178,18 @@ public class AutoRobot {
                 break;
         }
     }
+
+    void SimulationPath() {
+        e.stopPivotMotor();
+        switch (stepNumber) {
+            case 1: // Simulation Path: Forward, right and forward again without stopping
+                if (autoTrajectory == null || act.followTrajectory(autoTrajectory, 1.0)) {
+                    setNextStepNumber();
+                }
+                break;
+            case 2: // Simulation Path: Stop
+                e.stopAllMotors();
+                break;
+        }
+    }
 }
\ No newline at end of file
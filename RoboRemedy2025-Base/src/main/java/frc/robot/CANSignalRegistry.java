@@ -0,0 +1,34 @@
+// CANSignalRegistry.java - Refreshes all registered Phoenix 6 status signals at once
+package frc.robot;
+
+import com.ctre.phoenix6.*;
+
+/**
+ * Motors and encoders register the status signals they read once, when they are created.
+ * refreshAll is called at the start of each loop so every getter returns a value from the
+ * same snapshot without making its own CAN read.
+ */
+public class CANSignalRegistry {
+    private static BaseStatusSignal[] signals = new BaseStatusSignal[0];
+
+    /** Add signals to be refreshed every loop. Only call this during setup. */
+    public static synchronized void register(BaseStatusSignal... newSignals) {
+        BaseStatusSignal[] combined = new BaseStatusSignal[signals.length + newSignals.length];
+        System.arraycopy(signals, 0, combined, 0, signals.length);
+        System.arraycopy(newSignals, 0, combined, signals.length, newSignals.length);
+        signals = combined;
+    }
+
+    /** Refresh every registered signal in one batched call */
+    public static StatusCode refreshAll() {
+        BaseStatusSignal[] current = signals;
+        if (current.length == 0) {
+            return StatusCode.OK;
+        }
+        return BaseStatusSignal.refreshAll(current);
+    }
+
+    public static int getSignalCount() {
+        return signals.length;
+    }
+}
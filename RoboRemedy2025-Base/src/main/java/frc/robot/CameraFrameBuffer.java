@@ -0,0 +1,325 @@
+// CameraFrameBuffer.java - Recent camera frames, indexed by AprilTag ID, shared between two threads
+package frc.robot;
+
+import java.lang.invoke.*;
+
+import frc.robot.PhotonVisionCamera.*;
+import frc.robot.ReplayInputs.*;
+
+/**
+ * A ring of the last FRAME_COUNT camera frames. One thread adds frames with beginFrame, addTarget
+ * and endFrame; the robot loop reads them without blocking and without allocating. Each frame
+ * keeps a table from fiducial ID to target, plus the targets closest to the center by yaw and
+ * by pitch, so every lookup is a single array read.
+ *
+ * <p>Each frame is guarded by its own sequence lock, like SwerveOdometry: the sequence is odd
+ * while the frame is being written, and a reader that sees it change tries again. A reader
+ * only tries MAX_READ_TRIES times, then treats the frame as unavailable, so the robot loop
+ * can not hang if the writing thread stops partway through a frame.
+ */
+public class CameraFrameBuffer {
+    public static final int FRAME_COUNT = 16; // About half a second at 30 frames per second
+    public static final int MAX_TARGETS = 16;
+    public static final int MAX_FIDUCIAL_ID = 31;
+
+    private static final int NONE = -1;
+    private static final int MAX_READ_TRIES = 1000; // Writing a frame takes a few microseconds
+
+    private static class Frame {
+        volatile long sequence = 0;
+        long frameNumber = 0;
+        double timeStamp;
+        int targetCount;
+        int[] ids = new int[MAX_TARGETS];
+        double[] yaws = new double[MAX_TARGETS];
+        double[] pitches = new double[MAX_TARGETS];
+        double[] distances = new double[MAX_TARGETS];
+        double[] ambiguities = new double[MAX_TARGETS];
+        int[] slotByID = new int[MAX_FIDUCIAL_ID + 1];
+        int bestYawSlot;
+        int bestPitchSlot;
+
+        Frame() {
+            for (int i = 0; i < slotByID.length; i++) {
+                slotByID[i] = NONE;
+            }
+        }
+    }
+
+    private Frame[] frames = new Frame[FRAME_COUNT];
+    private volatile long latestFrameNumber = 0; // 0 until the first frame is added
+
+    // Owned by the writing thread
+    private Frame writing;
+    private long writingFrameNumber = 0;
+
+    CameraFrameBuffer() {
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            frames[i] = new Frame();
+        }
+    }
+
+    /** Start writing a frame, replacing the oldest one */
+    public void beginFrame(double timeStamp) {
+        writingFrameNumber++;
+        writing = frames[(int) (writingFrameNumber % FRAME_COUNT)];
+        writing.sequence = writing.sequence + 1;
+        VarHandle.storeStoreFence();
+
+        // Only the IDs of the frame being replaced need to be cleared
+        for (int i = 0; i < writing.targetCount; i++) {
+            int id = writing.ids[i];
+            if (id >= 0 && id <= MAX_FIDUCIAL_ID) {
+                writing.slotByID[id] = NONE;
+            }
+        }
+        writing.frameNumber = writingFrameNumber;
+        writing.timeStamp = timeStamp;
+        writing.targetCount = 0;
+        writing.bestYawSlot = NONE;
+        writing.bestPitchSlot = NONE;
+    }
+
+    /**
+     * Add a target to the frame being written. Targets past MAX_TARGETS are ignored.
+     *
+     * @param distance  Distance to the target along the floor, in inches, or 0 if not measured
+     * @param ambiguity Pose ambiguity from 0 to 1, or -1 if not measured
+     */
+    public void addTarget(int id, double yaw, double pitch, double distance, double ambiguity) {
+        int slot = writing.targetCount;
+        if (slot == MAX_TARGETS) {
+            return;
+        }
+        writing.ids[slot] = id;
+        writing.yaws[slot] = yaw;
+        writing.pitches[slot] = pitch;
+        writing.distances[slot] = distance;
+        writing.ambiguities[slot] = ambiguity;
+        writing.targetCount++;
+
+        // The last target with an ID wins and the first target with the best angle wins,
+        // the same as searching the targets in order
+        if (id >= 0 && id <= MAX_FIDUCIAL_ID) {
+            writing.slotByID[id] = slot;
+        }
+        if (writing.bestYawSlot == NONE || Math.abs(yaw) < Math.abs(writing.yaws[writing.bestYawSlot])) {
+            writing.bestYawSlot = slot;
+        }
+        if (writing.bestPitchSlot == NONE || Math.abs(pitch) < Math.abs(writing.pitches[writing.bestPitchSlot])) {
+            writing.bestPitchSlot = slot;
+        }
+    }
+
+    /** Finish the frame and make it the latest */
+    public void endFrame() {
+        writing.sequence = writing.sequence + 1;
+        latestFrameNumber = writingFrameNumber;
+        writing = null;
+    }
+
+    public boolean hasFrames() {
+        return latestFrameNumber != 0;
+    }
+
+    /** Number of frames added so far. Also the frame number of the latest frame. */
+    public long getFrameCount() {
+        return latestFrameNumber;
+    }
+
+    /**
+     * Look up a tag in the latest frame. When it is not found, info is cleared the same way
+     * PhotonVisionCamera.findSpecificAprilTag clears it.
+     */
+    public void findTag(int targetID, TargetInfo info) {
+        for (int tryCount = 0; tryCount < MAX_READ_TRIES; tryCount++) {
+            long frameNumber = latestFrameNumber;
+            if (frameNumber == 0) {
+                clearTag(info);
+                return;
+            }
+            if (readTag(frameNumber, targetID, info)) {
+                if (!info.isFound) {
+                    info.timeStamp = Double.MAX_VALUE;
+                }
+                return;
+            }
+        }
+        clearTag(info);
+    }
+
+    /**
+     * Look up a tag in the oldest kept frame newer than afterTimeStamp, so every frame that
+     * arrived since the last loop can be used with its own time stamp. info.timeStamp is set to
+     * the frame's time stamp even when the tag is not in it; pass it back in to get the next frame.
+     *
+     * @return false if there is no newer frame
+     */
+    public boolean findNextTag(int targetID, double afterTimeStamp, TargetInfo info) {
+        long latest = latestFrameNumber;
+        long oldest = Math.max(1, latest - FRAME_COUNT + 2); // The frame after the oldest may be being written
+        for (long frameNumber = oldest; frameNumber <= latest; frameNumber++) {
+            if (readTag(frameNumber, targetID, info) && info.timeStamp > afterTimeStamp) {
+                return true;
+            }
+        }
+        clearTag(info);
+        return false;
+    }
+
+    /** The target closest to the center left to right, in the latest frame */
+    public void findBestByYaw(TargetInfo info) {
+        findBest(true, info);
+    }
+
+    /** The target closest to the center up and down, in the latest frame */
+    public void findBestByPitch(TargetInfo info) {
+        findBest(false, info);
+    }
+
+    /** Copy every target in the latest frame, up to the size of the arrays in targets */
+    public void getLatestTargets(CameraInputs targets) {
+        for (int tryCount = 0; tryCount < MAX_READ_TRIES; tryCount++) {
+            long frameNumber = latestFrameNumber;
+            if (frameNumber == 0) {
+                targets.timeStamp = 0;
+                targets.targetCount = 0;
+                return;
+            }
+            if (copyTargets(frameNumber, targets)) {
+                return;
+            }
+        }
+        targets.timeStamp = 0;
+        targets.targetCount = 0;
+    }
+
+    /**
+     * Copy the oldest kept frame newer than afterTimeStamp. Pass targets.timeStamp back in to
+     * get the frame after it.
+     *
+     * @return false if there is no newer frame
+     */
+    public boolean getNextTargets(double afterTimeStamp, CameraInputs targets) {
+        long latest = latestFrameNumber;
+        long oldest = Math.max(1, latest - FRAME_COUNT + 2);
+        for (long frameNumber = oldest; frameNumber <= latest; frameNumber++) {
+            if (copyTargets(frameNumber, targets) && targets.timeStamp > afterTimeStamp) {
+                return true;
+            }
+        }
+        targets.timeStamp = 0;
+        targets.targetCount = 0;
+        return false;
+    }
+
+    /**
+     * Copy every target in one frame, up to the size of the arrays in targets.
+     *
+     * @return false if the frame was replaced by a newer one, or is still being written
+     */
+    private boolean copyTargets(long frameNumber, CameraInputs targets) {
+        Frame frame = frames[(int) (frameNumber % FRAME_COUNT)];
+        for (int tryCount = 0; tryCount < MAX_READ_TRIES; tryCount++) {
+            long startSequence = frame.sequence;
+            if ((startSequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (frame.frameNumber != frameNumber) {
+                return false;
+            }
+            int count = Math.min(frame.targetCount, targets.ids.length);
+            for (int i = 0; i < count; i++) {
+                targets.ids[i] = frame.ids[i];
+                targets.yaws[i] = frame.yaws[i];
+                targets.pitches[i] = frame.pitches[i];
+                targets.distances[i] = frame.distances[i];
+                targets.ambiguities[i] = frame.ambiguities[i];
+            }
+            targets.targetCount = count;
+            targets.timeStamp = frame.timeStamp;
+            VarHandle.loadLoadFence();
+            if (frame.sequence == startSequence) {
+                return true;
+            }
+        }
+        return false; // Still being written
+    }
+
+    /**
+     * Fill in info from one frame. The time stamp is the frame's, even when the tag is not found.
+     *
+     * @return false if the frame was replaced by a newer one, or is still being written
+     */
+    private boolean readTag(long frameNumber, int targetID, TargetInfo info) {
+        Frame frame = frames[(int) (frameNumber % FRAME_COUNT)];
+        for (int tryCount = 0; tryCount < MAX_READ_TRIES; tryCount++) {
+            long startSequence = frame.sequence;
+            if ((startSequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (frame.frameNumber != frameNumber) {
+                return false;
+            }
+            int slot = (targetID >= 0 && targetID <= MAX_FIDUCIAL_ID) ? frame.slotByID[targetID] : NONE;
+            if (slot == NONE) {
+                clearTag(info);
+            } else {
+                info.isFound = true;
+                info.id = targetID;
+                info.yaw = frame.yaws[slot];
+                info.pitch = frame.pitches[slot];
+            }
+            info.timeStamp = frame.timeStamp;
+            VarHandle.loadLoadFence();
+            if (frame.sequence == startSequence) {
+                return true;
+            }
+        }
+        return false; // Still being written
+    }
+
+    // Like the camera's own searches, the time stamp is left alone when no shape is found
+    private void findBest(boolean isByYaw, TargetInfo info) {
+        info.isFound = false;
+        info.yaw = Double.MAX_VALUE;
+        info.pitch = Double.MAX_VALUE;
+        long frameNumber = latestFrameNumber;
+        if (frameNumber == 0) {
+            return;
+        }
+        Frame frame = frames[(int) (frameNumber % FRAME_COUNT)];
+        for (int tryCount = 0; tryCount < MAX_READ_TRIES; tryCount++) {
+            long startSequence = frame.sequence;
+            if ((startSequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int slot = isByYaw ? frame.bestYawSlot : frame.bestPitchSlot;
+            boolean isFound = slot != NONE;
+            double yaw = isFound ? frame.yaws[slot] : Double.MAX_VALUE;
+            double pitch = isFound ? frame.pitches[slot] : Double.MAX_VALUE;
+            double timeStamp = frame.timeStamp;
+            VarHandle.loadLoadFence();
+            if (frame.sequence == startSequence) {
+                if (isFound) {
+                    info.isFound = true;
+                    info.yaw = yaw;
+                    info.pitch = pitch;
+                    info.timeStamp = timeStamp;
+                }
+                return;
+            }
+        }
+    }
+
+    private void clearTag(TargetInfo info) {
+        info.isFound = false;
+        info.id = 0;
+        info.timeStamp = Double.MAX_VALUE;
+        info.yaw = Double.MAX_VALUE;
+        info.pitch = Double.MAX_VALUE;
+    }
+}
@@ -0,0 +1,43 @@
+// CameraIO.java - Vision camera operations used by the rest of the robot code
+package frc.robot;
+
+import frc.robot.PhotonVisionCamera.*;
+import frc.robot.ReplayInputs.*;
+
+/**
+ * Implemented by PhotonVisionCamera for real cameras and by SimCameraIO for running
+ * without hardware. Results are copied into a TargetInfo owned by the caller.
+ */
+public interface CameraIO {
+    boolean isConnected();
+
+    void setDriverMode(boolean driveMode);
+
+    void takeNoteSnapshot();
+
+    void findSpecificAprilTag(int targetID, TargetInfo info);
+
+    /**
+     * Look for a tag in the oldest result newer than afterTimeStamp. info.timeStamp is the
+     * result's time stamp even when the tag is not in it, so passing it back in walks through
+     * every result received since then.
+     *
+     * @return false if there is no newer result
+     */
+    boolean findNextAprilTag(int targetID, double afterTimeStamp, TargetInfo info);
+
+    void getBestShapeByYaw(TargetInfo info);
+
+    void getBestShapeByPitch(TargetInfo info);
+
+    /** Copy every target in the latest result, for recording */
+    void getLatestTargets(CameraInputs targets);
+
+    /**
+     * Copy every target in the oldest result newer than afterTimeStamp. Passing targets.timeStamp
+     * back in walks through every result received since then.
+     *
+     * @return false if there is no newer result
+     */
+    boolean getNextTargets(double afterTimeStamp, CameraInputs targets);
+}
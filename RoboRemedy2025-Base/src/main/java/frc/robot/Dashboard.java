@@ -5,6 +5,7 @@ import edu.wpi.first.wpilibj.*;
 import edu.wpi.first.wpilibj.shuffleboard.*;
 import edu.wpi.first.wpilibj.smartdashboard.*;
 import edu.wpi.first.networktables.*;
+import frc.robot.DashboardEntry.*;
 import frc.robot.RobotEnums.*;
 
 import java.util.Map;
@@ -15,68 +16,78 @@ public class Dashboard {
     private RobotState robotState;
     private Action act;
     private OI oi;
+    private long loopCount = 0;
+    private Telemetry telemetry;
 
     // Teleop Tab
-    private GenericEntry isBothJoystick;
-    private GenericEntry driverStick;
-    private GenericEntry operatorStick;
-    private GenericEntry robotOK;
+    private DashboardEntry isBothJoystick;
+    private DashboardEntry driverStick;
+    private DashboardEntry operatorStick;
+    private DashboardEntry robotOK;
 
     // Test Tab
     private SendableChooser<TestMode> testChooser;
-    private GenericEntry testInstructions;
-    private GenericEntry testString;
-    private GenericEntry deadReckoningX;
-    private GenericEntry deadReckoningY;
-    private GenericEntry lidarDistance;
-    private GenericEntry pivotAngleTest;
+    private DashboardEntry testInstructions;
+    private DashboardEntry testString;
+    private DashboardEntry deadReckoningX;
+    private DashboardEntry deadReckoningY;
+    private DashboardEntry lidarDistance;
+    private DashboardEntry pivotAngleTest;
 
     // Autonomous Tab
     private SendableChooser<AutoProgram> autoProgram;
     private SendableChooser<AutoStartPosition> autoStartingPosition;
 
     // PreGame Tab
-    private GenericEntry frontLeftDrive;
-    private GenericEntry frontLeftTurn;
-    private GenericEntry frontLeftCancoder;
-    private GenericEntry frontRightDrive;
-    private GenericEntry frontRightTurn;
-    private GenericEntry frontRightCancoder;
-    private GenericEntry backLeftDrive;
-    private GenericEntry backLeftTurn;
-    private GenericEntry backLeftCancoder;
-    private GenericEntry backRightDrive;
-    private GenericEntry backRightTurn;
-    private GenericEntry backRightCancoder;
-    private GenericEntry doSwerveEncodersMatch;
-    private GenericEntry isSampleMotorGood;
-    private GenericEntry isPivotMotorGood;
-    private GenericEntry isPivotCancoderGood;
-    private GenericEntry isMainAprilTagCameraAttached;
-    private GenericEntry isGamePieceCameraAttached;
-    private GenericEntry isBattery;
+    private DashboardEntry frontLeftDrive;
+    private DashboardEntry frontLeftTurn;
+    private DashboardEntry frontLeftCancoder;
+    private DashboardEntry frontRightDrive;
+    private DashboardEntry frontRightTurn;
+    private DashboardEntry frontRightCancoder;
+    private DashboardEntry backLeftDrive;
+    private DashboardEntry backLeftTurn;
+    private DashboardEntry backLeftCancoder;
+    private DashboardEntry backRightDrive;
+    private DashboardEntry backRightTurn;
+    private DashboardEntry backRightCancoder;
+    private DashboardEntry doSwerveEncodersMatch;
+    private DashboardEntry isSampleMotorGood;
+    private DashboardEntry isPivotMotorGood;
+    private DashboardEntry isPivotCancoderGood;
+    private DashboardEntry isMainAprilTagCameraAttached;
+    private DashboardEntry isGamePieceCameraAttached;
+    private DashboardEntry isBattery;
+    private DashboardEntry isLidarConnected;
+    private DashboardEntry isLidarGood;
+    private DashboardEntry lidarFrameRate;
+    private DashboardEntry lidarDroppedFrames;
+    private DashboardEntry isOdometryGood;
+    private DashboardEntry odometryErrors;
+    private DashboardEntry lidarLatency;
+    private DashboardEntry lidarJitter;
 
     // Joystick Tab
-    private GenericEntry zeroJoystickName;
-    private GenericEntry zeroJoystickType;
-    private GenericEntry zeroJoystickStatus;
-    private GenericEntry oneJoystickName;
-    private GenericEntry oneJoystickType;
-    private GenericEntry oneJoystickStatus;
-    private GenericEntry twoJoystickName;
-    private GenericEntry twoJoystickType;
-    private GenericEntry twoJoystickStatus;
-    private GenericEntry threeJoystickName;
-    private GenericEntry threeJoystickType;
-    private GenericEntry threeJoystickStatus;
-    private GenericEntry fourJoystickName;
-    private GenericEntry fourJoystickType;
-    private GenericEntry fourJoystickStatus;
-    private GenericEntry fiveJoystickName;
-    private GenericEntry fiveJoystickType;
-    private GenericEntry fiveJoystickStatus;
-    private GenericEntry driverTestButton;
-    private GenericEntry operatorTestButton;
+    private DashboardEntry zeroJoystickName;
+    private DashboardEntry zeroJoystickType;
+    private DashboardEntry zeroJoystickStatus;
+    private DashboardEntry oneJoystickName;
+    private DashboardEntry oneJoystickType;
+    private DashboardEntry oneJoystickStatus;
+    private DashboardEntry twoJoystickName;
+    private DashboardEntry twoJoystickType;
+    private DashboardEntry twoJoystickStatus;
+    private DashboardEntry threeJoystickName;
+    private DashboardEntry threeJoystickType;
+    private DashboardEntry threeJoystickStatus;
+    private DashboardEntry fourJoystickName;
+    private DashboardEntry fourJoystickType;
+    private DashboardEntry fourJoystickStatus;
+    private DashboardEntry fiveJoystickName;
+    private DashboardEntry fiveJoystickType;
+    private DashboardEntry fiveJoystickStatus;
+    private DashboardEntry driverTestButton;
+    private DashboardEntry operatorTestButton;
     private GenericEntry driverName;
     private GenericEntry operatorName;
 
@@ -103,6 +114,8 @@ public class Dashboard {
             rLog.print("Warning: Dashboard.robotState is null");
         }
     
+        telemetry = new Telemetry(e, robotState, rLog);
+
         InitTelopTab();
         InitTestTab();
         InitAutonomousTab();
@@ -128,35 +141,35 @@ public class Dashboard {
                 .withPosition(7, 0)
                 .withSize(2, 2);
 
-        driverStick = Shuffleboard.getTab("Teleop")
+        driverStick = new DashboardEntry(Shuffleboard.getTab("Teleop")
                 .add("Driver Joystick", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "white"))
                 .withPosition(3, 1)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        operatorStick = Shuffleboard.getTab("Teleop")
+        operatorStick = new DashboardEntry(Shuffleboard.getTab("Teleop")
                 .add("Operator Joystick", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "white"))
                 .withPosition(4, 1)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        robotOK = Shuffleboard.getTab("Teleop")
+        robotOK = new DashboardEntry(Shuffleboard.getTab("Teleop")
                 .add("Robot Ok", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(5, 2)
-                .getEntry();
+                .getEntry());
 
-        isBothJoystick = Shuffleboard.getTab("Teleop")
+        isBothJoystick = new DashboardEntry(Shuffleboard.getTab("Teleop")
                 .add("Both Joystick", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(2, 1)
-                .getEntry();
+                .getEntry());
     }
 
     public void InitTestTab() {
@@ -189,6 +202,13 @@ public class Dashboard {
                 .withPosition(7, 0)
                 .withSize(2, 2);
 
+        // Used for turning to a heading and for trajectories. Change the gains here while the
+        // robot runs, then copy them into HeadingController
+        Shuffleboard.getTab("Test")
+                .add("Heading Controller", e.headingController)
+                .withPosition(3, 1)
+                .withSize(2, 3);
+
         Shuffleboard.getTab("Test")
                 .add("Robot Name", e.getRobotName())
                 .withWidget(BuiltInWidgets.kTextView)
@@ -196,47 +216,47 @@ public class Dashboard {
                 .withSize(1, 1)
                 .getEntry();
 
-        testInstructions = Shuffleboard.getTab("Test")
+        testInstructions = new DashboardEntry(Shuffleboard.getTab("Test")
                 .add("Test Instructions", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(0, 1)
                 .withSize(3, 1)
-                .getEntry();
+                .getEntry());
 
-        testString = Shuffleboard.getTab("Test")
+        testString = new DashboardEntry(Shuffleboard.getTab("Test")
                 .add("Test String", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(0, 2)
                 .withSize(3, 1)
-                .getEntry();
+                .getEntry());
 
-        deadReckoningX = Shuffleboard.getTab("Test")
-                .add("Dead Reckoning X", "")
+        deadReckoningX = new DashboardEntry(Shuffleboard.getTab("Test")
+                .add("Dead Reckoning X", 0.0)
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(2, 0)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        deadReckoningY = Shuffleboard.getTab("Test")
-                .add("Dead Reckoning Y", "")
+        deadReckoningY = new DashboardEntry(Shuffleboard.getTab("Test")
+                .add("Dead Reckoning Y", 0.0)
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(3, 0)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        lidarDistance = Shuffleboard.getTab("Test")
-                .add("Lidar Distance", "")
+        lidarDistance = new DashboardEntry(Shuffleboard.getTab("Test")
+                .add("Lidar Distance", 0.0)
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(5, 1)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        pivotAngleTest = Shuffleboard.getTab("Test")
-                .add("Pivot Angle", "")
+        pivotAngleTest = new DashboardEntry(Shuffleboard.getTab("Test")
+                .add("Pivot Angle", 0.0)
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(5, 2)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
     }
 
     public void InitAutonomousTab() {
@@ -245,6 +265,7 @@ public class Dashboard {
         autoProgram.addOption("Just Align", AutoProgram.JustAlign);
         autoProgram.addOption("Drive Out", AutoProgram.DriveOut);
         autoProgram.addOption("Simulation Project", AutoProgram.SimulationProject);
+        autoProgram.addOption("Simulation Path", AutoProgram.SimulationPath);
 
         autoStartingPosition = new SendableChooser<AutoStartPosition>();
         autoStartingPosition.setDefaultOption("Left", AutoStartPosition.Left);
@@ -277,100 +298,100 @@ public class Dashboard {
     }
 
     public void InitPreGameTab() {
-        frontLeftDrive = Shuffleboard.getTab("PreGame")
+        frontLeftDrive = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("fL Drive", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(0, 0)
-                .getEntry();
+                .getEntry());
 
-        frontLeftTurn = Shuffleboard.getTab("PreGame")
+        frontLeftTurn = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("fL Turn", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(0, 1)
-                .getEntry();
+                .getEntry());
 
-        frontRightDrive = Shuffleboard.getTab("PreGame")
+        frontRightDrive = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("fR Drive", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(1, 0)
-                .getEntry();
+                .getEntry());
 
-        frontRightTurn = Shuffleboard.getTab("PreGame")
+        frontRightTurn = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("fR Turn", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(1, 1)
-                .getEntry();
+                .getEntry());
 
-        backLeftDrive = Shuffleboard.getTab("PreGame")
+        backLeftDrive = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("bL Drive", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(2, 0)
-                .getEntry();
+                .getEntry());
 
-        backLeftTurn = Shuffleboard.getTab("PreGame")
+        backLeftTurn = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("bL Turn", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(2, 1)
-                .getEntry();
+                .getEntry());
 
-        backRightDrive = Shuffleboard.getTab("PreGame")
+        backRightDrive = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("bR Drive", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(3, 0)
-                .getEntry();
+                .getEntry());
 
-        backRightTurn = Shuffleboard.getTab("PreGame")
+        backRightTurn = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("bR Turn", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(3, 1)
-                .getEntry();
+                .getEntry());
 
-        frontLeftCancoder = Shuffleboard.getTab("PreGame")
+        frontLeftCancoder = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("fL Cancoder", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(0, 2)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        frontRightCancoder = Shuffleboard.getTab("PreGame")
+        frontRightCancoder = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("fR Cancoder", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(1, 2)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        backLeftCancoder = Shuffleboard.getTab("PreGame")
+        backLeftCancoder = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("bL Cancoder", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(2, 2)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        backRightCancoder = Shuffleboard.getTab("PreGame")
+        backRightCancoder = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("bR Cancoder", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(3, 2)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        doSwerveEncodersMatch = Shuffleboard.getTab("PreGame")
+        doSwerveEncodersMatch = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("Swerve Encoders", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(7, 2)
-                .getEntry();
+                .getEntry());
 
         Shuffleboard.getTab("PreGame")
                 .add("Robot Name", e.getRobotName())
@@ -384,194 +405,255 @@ public class Dashboard {
                 .withWidget(BuiltInWidgets.kGyro)// kDial
                 .withSize(2, 2);
 
-        isBattery = Shuffleboard.getTab("PreGame")
+        isBattery = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("Battery OK", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(6, 2)
-                .getEntry();
+                .getEntry());
 
-        isMainAprilTagCameraAttached = Shuffleboard.getTab("PreGame")
+        isMainAprilTagCameraAttached = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("AprilTagCam", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(4, 2)
-                .getEntry();
+                .getEntry());
 
-        isGamePieceCameraAttached = Shuffleboard.getTab("PreGame")
+        isGamePieceCameraAttached = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("GamePieceCam", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(5, 2)
-                .getEntry();
+                .getEntry());
 
-        isSampleMotorGood = Shuffleboard.getTab("PreGame")
+        isSampleMotorGood = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("Sample Motor", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(4, 0)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        isPivotMotorGood = Shuffleboard.getTab("PreGame")
+        isPivotMotorGood = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("Pivot Motor", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(5, 0)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        isPivotCancoderGood = Shuffleboard.getTab("PreGame")
+        isPivotCancoderGood = new DashboardEntry(Shuffleboard.getTab("PreGame")
                 .add("Pivot Cancoder", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(6, 1)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
+
+        // Lidar health, so a slow lidar can be told apart from a dead one
+        isLidarConnected = new DashboardEntry(Shuffleboard.getTab("PreGame")
+                .add("LidarPi", false)
+                .withWidget(BuiltInWidgets.kBooleanBox)
+                .withProperties(Map.of("color when true", "green", "color when false", "red"))
+                .withPosition(0, 3)
+                .withSize(1, 1)
+                .getEntry());
+
+        isLidarGood = new DashboardEntry(Shuffleboard.getTab("PreGame")
+                .add("Lidar", false)
+                .withWidget(BuiltInWidgets.kBooleanBox)
+                .withProperties(Map.of("color when true", "green", "color when false", "red"))
+                .withPosition(1, 3)
+                .withSize(1, 1)
+                .getEntry());
+
+        lidarFrameRate = new DashboardEntry(Shuffleboard.getTab("PreGame")
+                .add("Lidar FPS", 0.0)
+                .withWidget(BuiltInWidgets.kTextView)
+                .withPosition(2, 3)
+                .withSize(1, 1)
+                .getEntry());
+
+        lidarDroppedFrames = new DashboardEntry(Shuffleboard.getTab("PreGame")
+                .add("Lidar Dropped", 0)
+                .withWidget(BuiltInWidgets.kTextView)
+                .withPosition(3, 3)
+                .withSize(1, 1)
+                .getEntry());
+
+        lidarLatency = new DashboardEntry(Shuffleboard.getTab("PreGame")
+                .add("Lidar Latency ms", 0.0)
+                .withWidget(BuiltInWidgets.kTextView)
+                .withPosition(4, 3)
+                .withSize(1, 1)
+                .getEntry());
+
+        lidarJitter = new DashboardEntry(Shuffleboard.getTab("PreGame")
+                .add("Lidar Jitter ms", 0.0)
+                .withWidget(BuiltInWidgets.kTextView)
+                .withPosition(5, 3)
+                .withSize(1, 1)
+                .getEntry());
+
+        // Odometry thread health, so a stalled thread does not go unnoticed
+        isOdometryGood = new DashboardEntry(Shuffleboard.getTab("PreGame")
+                .add("Odometry", false)
+                .withWidget(BuiltInWidgets.kBooleanBox)
+                .withProperties(Map.of("color when true", "green", "color when false", "red"))
+                .withPosition(6, 3)
+                .withSize(1, 1)
+                .getEntry());
+
+        odometryErrors = new DashboardEntry(Shuffleboard.getTab("PreGame")
+                .add("Odometry Errors", 0)
+                .withWidget(BuiltInWidgets.kTextView)
+                .withPosition(7, 3)
+                .withSize(1, 1)
+                .getEntry());
     }
 
     public void InitJoystickTab() {
-        zeroJoystickName = Shuffleboard.getTab("Joystick")
+        zeroJoystickName = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 0 Name", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(0, 0)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        zeroJoystickStatus = Shuffleboard.getTab("Joystick")
+        zeroJoystickStatus = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 0 Status", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(1, 0)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        zeroJoystickType = Shuffleboard.getTab("Joystick")
+        zeroJoystickType = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 0 Type", 0)
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(2, 0)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        oneJoystickName = Shuffleboard.getTab("Joystick")
+        oneJoystickName = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 1 Name", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(0, 1)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        oneJoystickStatus = Shuffleboard.getTab("Joystick")
+        oneJoystickStatus = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 1 Status", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(1, 1)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        oneJoystickType = Shuffleboard.getTab("Joystick")
+        oneJoystickType = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 1 Type", 0)
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(2, 1)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        twoJoystickName = Shuffleboard.getTab("Joystick")
+        twoJoystickName = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 2 Name", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(0, 2)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        twoJoystickStatus = Shuffleboard.getTab("Joystick")
+        twoJoystickStatus = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 2 Status", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(1, 2)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        twoJoystickType = Shuffleboard.getTab("Joystick")
+        twoJoystickType = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 2 Type", 0)
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(2, 2)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        threeJoystickName = Shuffleboard.getTab("Joystick")
+        threeJoystickName = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 3 Name", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(4, 0)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        threeJoystickStatus = Shuffleboard.getTab("Joystick")
+        threeJoystickStatus = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 3 Status", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(5, 0)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        threeJoystickType = Shuffleboard.getTab("Joystick")
+        threeJoystickType = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 3 Type", 0)
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(6, 0)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        fourJoystickName = Shuffleboard.getTab("Joystick")
+        fourJoystickName = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 4 Name", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(4, 1)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        fourJoystickStatus = Shuffleboard.getTab("Joystick")
+        fourJoystickStatus = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 4 Status", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(5, 1)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        fourJoystickType = Shuffleboard.getTab("Joystick")
+        fourJoystickType = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 4 Type", 0)
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(6, 1)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        fiveJoystickName = Shuffleboard.getTab("Joystick")
+        fiveJoystickName = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 5 Name", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(4, 2)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        fiveJoystickStatus = Shuffleboard.getTab("Joystick")
+        fiveJoystickStatus = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 5 Status", "")
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(5, 2)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        fiveJoystickType = Shuffleboard.getTab("Joystick")
+        fiveJoystickType = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Joystick 5 Type", 0)
                 .withWidget(BuiltInWidgets.kTextView)
                 .withPosition(6, 2)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        driverTestButton = Shuffleboard.getTab("Joystick")
+        driverTestButton = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Driver Test", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(8, 0)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
-        operatorTestButton = Shuffleboard.getTab("Joystick")
+        operatorTestButton = new DashboardEntry(Shuffleboard.getTab("Joystick")
                 .add("Operator Test", false)
                 .withWidget(BuiltInWidgets.kBooleanBox)
                 .withProperties(Map.of("color when true", "green", "color when false", "red"))
                 .withPosition(9, 0)
                 .withSize(1, 1)
-                .getEntry();
+                .getEntry());
 
         driverName = Shuffleboard.getTab("Joystick")
                 .add("Driver Name", "Controller (Xbox One For Windows)")
@@ -588,31 +670,46 @@ public class Dashboard {
                 .getEntry();
     }
 
+    /**
+     * Entries are grouped by how often they need to be updated (see DashboardEntry.Rate),
+     * and each entry is only sent when its value changes.
+     */
     public void dashboardPeriodic() {
-        //
-        // Entries for Teleop Tab
-        //
-        displayBoolean(isBothJoystick, DriverStation.isJoystickConnected(1) && DriverStation.isJoystickConnected(0)
-                && DriverStation.getJoystickIsXbox(0) && DriverStation.getJoystickIsXbox(1));
-        displayBoolean(driverStick, oi.isJoystickButtonPressed(0, 1));
-        displayBoolean(operatorStick, oi.isJoystickButtonPressed(1, 1));
-        displayBoolean(robotOK, robotState.isRobotOk);
+        loopCount++;
+        if (Rate.Pose.isDue(loopCount)) {
+            publishPose();
+        }
+        if (Rate.Health.isDue(loopCount)) {
+            publishHealth();
+        }
+        if (Rate.Identity.isDue(loopCount)) {
+            publishIdentity();
+        }
+    }
 
-        //
-        // Entries for Test Tab
-        //
+    // Values that change while the robot moves
+    private void publishPose() {
+        telemetry.publish();
         displayDoubleRound3(deadReckoningX, robotState.robotPosition.getX());
         displayDoubleRound3(deadReckoningY, robotState.robotPosition.getY());
         if (e.isLidarCameraConnected()) {
             displayDoubleRound2(lidarDistance, e.getLidarDistance());
         } else {
-            displayString(lidarDistance, "");
+            lidarDistance.setDouble(Double.NaN);
         }
         displayDoubleRound2(pivotAngleTest, robotState.pivotAngle);
+    }
 
+    // Pre-game checks and button tests
+    private void publishHealth() {
         //
-        // Entries for Autonomous Tab
+        // Entries for Teleop Tab
         //
+        displayBoolean(isBothJoystick, DriverStation.isJoystickConnected(1) && DriverStation.isJoystickConnected(0)
+                && DriverStation.getJoystickIsXbox(0) && DriverStation.getJoystickIsXbox(1));
+        displayBoolean(driverStick, oi.isJoystickButtonPressed(0, 1));
+        displayBoolean(operatorStick, oi.isJoystickButtonPressed(1, 1));
+        displayBoolean(robotOK, robotState.isRobotOk);
 
         //
         // Entries for Pre-Game Tab
@@ -638,10 +735,24 @@ public class Dashboard {
         displayBoolean(isMainAprilTagCameraAttached, robotState.isMainAprilTagCameraAttached);
         displayBoolean(isGamePieceCameraAttached, robotState.isGamePieceCameraAttached);
         displayBoolean(isBattery, robotState.isBatteryGood);
+        displayBoolean(isLidarConnected, robotState.isLidarConnected);
+        displayBoolean(isLidarGood, robotState.isLidarGood);
+        displayDoubleRound1(lidarFrameRate, robotState.lidarFrameRate);
+        displayInteger(lidarDroppedFrames, robotState.lidarDroppedFrames);
+        displayBoolean(isOdometryGood, robotState.isOdometryGood);
+        displayInteger(odometryErrors, (int) Math.min(robotState.odometryErrorCount, Integer.MAX_VALUE));
+        displayDoubleRound1(lidarLatency, robotState.lidarLatency * 1000);
+        displayDoubleRound1(lidarJitter, robotState.lidarJitter * 1000);
 
         //
         // Entries for Joystick Tab
         //
+        displayBoolean(driverTestButton, oi.isDriverTestButtonPressed());
+        displayBoolean(operatorTestButton, oi.isOperatorTestButtonPressed());
+    }
+
+    // Joystick names and types only change when a joystick is plugged in
+    private void publishIdentity() {
         displayString(zeroJoystickName, oi.Joysticks[0].getJoystickName());
         displayString(zeroJoystickStatus, oi.Joysticks[0].getJoystickStatus());
         displayInteger(zeroJoystickType, oi.Joysticks[0].getJoystickType());
@@ -660,8 +771,6 @@ public class Dashboard {
         displayString(fiveJoystickName, oi.Joysticks[5].getJoystickName());
         displayString(fiveJoystickStatus, oi.Joysticks[5].getJoystickStatus());
         displayInteger(fiveJoystickType, oi.Joysticks[5].getJoystickType());
-        displayBoolean(driverTestButton, oi.isDriverTestButtonPressed());
-        displayBoolean(operatorTestButton, oi.isOperatorTestButtonPressed());
         oi.changePreferredDriverName(driverName.getString("Controller (Xbox One For Windows)"));
         oi.changePreferredOperatorName(operatorName.getString("Controller (Xbox360 Controller for Windows"));
     }
@@ -697,34 +806,34 @@ public class Dashboard {
             testString.setString(string);
     }
 
-    private void displayBoolean(GenericEntry entry, boolean value) {
+    private void displayBoolean(DashboardEntry entry, boolean value) {
         entry.setBoolean(value);
     }
 
-    private void displayString(GenericEntry entry, String value) {
+    private void displayString(DashboardEntry entry, String value) {
         entry.setString(value);
     }
 
-    private void displayInteger(GenericEntry entry, int value) {
+    private void displayInteger(DashboardEntry entry, int value) {
         entry.setInteger(value);
     }
 
+    // Rounding keeps small changes from being sent every loop
     @SuppressWarnings("unused")
-    private void displayDoubleRound0(GenericEntry entry, double value) {
-        entry.setString(String.valueOf(RobotMath.round0(value)));
+    private void displayDoubleRound0(DashboardEntry entry, double value) {
+        entry.setDouble(RobotMath.round0(value));
     }
 
-    @SuppressWarnings("unused")
-    private void displayDoubleRound1(GenericEntry entry, double value) {
-        entry.setString(String.valueOf(RobotMath.round1(value)));
+    private void displayDoubleRound1(DashboardEntry entry, double value) {
+        entry.setDouble(RobotMath.round1(value));
     }
 
-    private void displayDoubleRound2(GenericEntry entry, double value) {
-        entry.setString(String.valueOf(RobotMath.round2(value)));
+    private void displayDoubleRound2(DashboardEntry entry, double value) {
+        entry.setDouble(RobotMath.round2(value));
     }
 
-    private void displayDoubleRound3(GenericEntry entry, double value) {
-        entry.setString(String.valueOf(RobotMath.round3(value)));
+    private void displayDoubleRound3(DashboardEntry entry, double value) {
+        entry.setDouble(RobotMath.round3(value));
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+// DashboardEntry.java - A dashboard value that is only sent to NetworkTables when it changes
+package frc.robot;
+
+import edu.wpi.first.networktables.*;
+
+/**
+ * Remembers the last value sent, so setting the same value again costs a compare instead of
+ * a NetworkTables update. Dashboard decides how often each entry is set using Rate.
+ */
+public class DashboardEntry {
+
+    /** How often a group of entries is updated, in 20 ms loops. The offsets keep the groups on different loops. */
+    public enum Rate {
+        Pose(1, 0), // 50 Hz
+        Health(10, 3), // 5 Hz
+        Identity(50, 7); // 1 Hz
+
+        private final int loops;
+        private final int offset;
+
+        Rate(int loops, int offset) {
+            this.loops = loops;
+            this.offset = offset;
+        }
+
+        public boolean isDue(long loopCount) {
+            return loopCount % loops == offset;
+        }
+    }
+
+    private GenericEntry entry;
+    private boolean hasValue = false;
+    private boolean lastBoolean;
+    private double lastDouble;
+    private long lastInteger;
+    private String lastString;
+
+    DashboardEntry(GenericEntry entry) {
+        this.entry = entry;
+    }
+
+    public void setBoolean(boolean value) {
+        if (!hasValue || value != lastBoolean) {
+            entry.setBoolean(value);
+            lastBoolean = value;
+            hasValue = true;
+        }
+    }
+
+    /** Compares the bits, so NaN is sent once like any other value */
+    public void setDouble(double value) {
+        if (!hasValue || Double.doubleToLongBits(value) != Double.doubleToLongBits(lastDouble)) {
+            entry.setDouble(value);
+            lastDouble = value;
+            hasValue = true;
+        }
+    }
+
+    public void setInteger(long value) {
+        if (!hasValue || value != lastInteger) {
+            entry.setInteger(value);
+            lastInteger = value;
+            hasValue = true;
+        }
+    }
+
+    public void setString(String value) {
+        if (!hasValue || !value.equals(lastString)) {
+            entry.setString(value);
+            lastString = value;
+            hasValue = true;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+// DataLogDecoder.java - Desktop tool that converts DataLogger files to CSV
+package frc.robot;
+
+import java.io.*;
+import java.nio.charset.*;
+
+/**
+ * Converts binary files written by DataLogger into CSV files for post-match analysis.
+ *
+ * <p>Usage: gradlew decodeDataLog -PlogFiles=data_1.rrdl,data_2.rrdl
+ * Each input file is written next to itself with a .csv extension.
+ */
+public class DataLogDecoder {
+
+    public static void main(String... args) {
+        if (args.length == 0) {
+            System.out.println("Usage: DataLogDecoder <file.rrdl> [more files...]");
+            return;
+        }
+        for (String arg : args) {
+            for (String fileName : arg.split(",")) {
+                try {
+                    int count = decode(new File(fileName.trim()));
+                    System.out.println(fileName.trim() + ": " + count + " records");
+                } catch (IOException e) {
+                    System.out.println(fileName.trim() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert one data log file to CSV.
+     *
+     * @param inputFile The .rrdl file to read
+     * @return Number of records written
+     */
+    public static int decode(File inputFile) throws IOException {
+        String csvName = inputFile.getPath().replaceAll("\\" + DataLogger.FILE_EXTENSION + "$", "") + ".csv";
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(inputFile)));
+                PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(csvName)))) {
+            if (in.readInt() != DataLogger.MAGIC) {
+                throw new IOException("Not a data log file");
+            }
+            short version = in.readShort();
+            if (version != DataLogger.VERSION) {
+                throw new IOException("Unsupported data log version " + version);
+            }
+            int fieldCount = in.readShort();
+            long micros = in.readLong();
+
+            out.print("time");
+            for (int i = 0; i < fieldCount; i++) {
+                byte[] nameBytes = new byte[in.readShort()];
+                in.readFully(nameBytes);
+                out.print(",");
+                out.print(new String(nameBytes, StandardCharsets.UTF_8));
+            }
+            out.println();
+
+            while (true) {
+                short marker;
+                try {
+                    marker = in.readShort();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (marker != DataLogger.RECORD_MARKER) {
+                    break; // Reached the unused part of the segment
+                }
+                micros += in.readInt();
+                out.print(micros / 1.0e6);
+                for (int i = 0; i < fieldCount; i++) {
+                    out.print(",");
+                    out.print(in.readFloat());
+                }
+                out.println();
+                count++;
+            }
+        } catch (EOFException e) {
+            // A record was cut off at the end of the file. Keep what was decoded.
+        }
+        return count;
+    }
+}
@@ -0,0 +1,144 @@
+// DataLogger.java - Records high-rate robot signals to a compact binary file
+package frc.robot;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * Writes one fixed-width record per control loop into a memory-mapped file segment.
+ * Writing a record is only a handful of memory stores, so it can run every loop.
+ * Use DataLogDecoder on a desktop computer to convert the files to CSV.
+ *
+ * <p>File layout (big endian):
+ * <pre>
+ * int   MAGIC
+ * short VERSION
+ * short field count
+ * long  start time, in microseconds
+ * field count times: short name length, UTF-8 name bytes
+ * records: short RECORD_MARKER, int microseconds since previous record, float per field
+ * </pre>
+ * The rest of the segment is zero filled, so the first record without a marker is the end of the file.
+ * The oldest files are deleted to keep them all under MAX_TOTAL_BYTES.
+ */
+public class DataLogger {
+    public static final int MAGIC = 0x5252444C; // "RRDL"
+    public static final short VERSION = 1;
+    public static final short RECORD_MARKER = 0x5A5A;
+    public static final String FILE_PREFIX = "data_";
+    public static final String FILE_EXTENSION = ".rrdl";
+
+    private static final int SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final long MAX_TOTAL_BYTES = 16L * SEGMENT_SIZE;
+
+    private RoboLog rLog;
+    private String directory;
+    private String[] fieldNames;
+    private float[] values;
+    private int recordSize;
+    private MappedByteBuffer buffer;
+    private long lastRecordMicros;
+    private long fileNumber = 0;
+    private boolean isEnabled = true;
+
+    DataLogger(String directory, String[] fieldNames, RoboLog rLog) {
+        this.directory = directory;
+        this.fieldNames = fieldNames;
+        this.rLog = rLog;
+        values = new float[fieldNames.length];
+        recordSize = 2 + 4 + (4 * fieldNames.length);
+
+        if (this.rLog == null) {
+            System.out.println("Warning: DataLogger.rLog is null");
+        }
+    }
+
+    /** Set one value of the next record. Index is the position in the field names array. */
+    public void setValue(int index, double value) {
+        values[index] = (float) value;
+    }
+
+    /**
+     * Write a record with the values that have been set.
+     *
+     * @param timeSeconds Time of this record, in seconds
+     */
+    public void writeRecord(double timeSeconds) {
+        if (!isEnabled) {
+            return;
+        }
+        long micros = (long) (timeSeconds * 1.0e6);
+        if (buffer == null || buffer.remaining() < recordSize) {
+            if (!openSegment(micros)) {
+                return;
+            }
+        }
+        long delta = micros - lastRecordMicros;
+        if (delta > Integer.MAX_VALUE || delta < 0) {
+            // Time jumped too far to store as a delta, so start a new segment
+            if (!openSegment(micros)) {
+                return;
+            }
+            delta = 0;
+        }
+        buffer.putShort(RECORD_MARKER);
+        buffer.putInt((int) delta);
+        for (int i = 0; i < values.length; i++) {
+            buffer.putFloat(values[i]);
+        }
+        lastRecordMicros = micros;
+    }
+
+    /** Ask the operating system to write the mapped data to storage now. Not for use every loop. */
+    public void flush() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    private boolean openSegment(long startMicros) {
+        flush();
+        buffer = null;
+        try {
+            File dir = new File(directory);
+            dir.mkdirs();
+            int deletedCount = LogFiles.deleteOldest(dir, FILE_PREFIX, FILE_EXTENSION, SEGMENT_SIZE, MAX_TOTAL_BYTES);
+            if (deletedCount > 0) {
+                rLog.print("Deleted " + deletedCount + " old data log files");
+            }
+            fileNumber = Math.max(fileNumber, LogFiles.getHighestNumber(dir, FILE_PREFIX, FILE_EXTENSION));
+            File file;
+            do {
+                fileNumber++;
+                file = new File(dir, FILE_PREFIX + fileNumber + FILE_EXTENSION);
+            } while (file.exists());
+
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // The mapping stays valid after the channel is closed
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+            }
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putShort(VERSION);
+            buffer.putShort((short) fieldNames.length);
+            buffer.putLong(startMicros);
+            for (String name : fieldNames) {
+                byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+                buffer.putShort((short) nameBytes.length);
+                buffer.put(nameBytes);
+            }
+            lastRecordMicros = startMicros;
+            rLog.print("Data log file: " + file.getPath());
+            return true;
+        } catch (Exception e) {
+            rLog.print("Data logging disabled, could not open file in " + directory + ": " + e.getMessage());
+            isEnabled = false;
+            buffer = null;
+            return false;
+        }
+    }
+}
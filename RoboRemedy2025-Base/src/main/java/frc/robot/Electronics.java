@@ -2,7 +2,6 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.*;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.DriverStation.*;
 import edu.wpi.first.wpilibj.util.*;
 import frc.robot.LEDCountdown.*;
@@ -22,11 +21,13 @@ public class Electronics {
 
     private boolean allConfigsSet = false;
     private boolean[] configsSet = new boolean[14]; //Number of motors on bot
-    private RobotMotor[] motorArray;
+    private MotorIO[] motorArray;
 
     private RoboLog rLog;
+    private IOFactory io;
+    private ReplayInputs replayInputs = null; // Battery and alliance come from here during log replay
 
-    private Timer batteryTimer = new Timer();
+    private double batteryReadTime = 0;
     private double batteryVoltage = 0;
     public double lastMotorInitTime = 0;
 
@@ -41,44 +42,61 @@ public class Electronics {
     private SwerveModule[] swerveDrives;
     private SwerveState currentState;
     private SwerveState centerPivotState;
+    private OdometryIO swerveOdometry;
 
     // Motors and Cancoders
-    private RobotMotor sampleMotor;
-    private RobotMotor pivotMotor;
-    private RobotCANcoder pivotCancoder;
+    private MotorIO sampleMotor;
+    private MotorIO pivotMotor;
+    private EncoderIO pivotCancoder;
 
     // Buttons
     private DigitalInput yellowButton;
 
     // LEDs
-    public LEDString ledString = new LEDString(9, 300);
+    public LEDIO ledString;
     private LEDCountdown timerStrip = new LEDCountdown();
 
     // Cameras
-    private PhotonVisionCamera gamePieceCamera;
-    private PhotonVisionCamera mainAprilTagCamera;
-    private LidarCamera lidarCamera;
+    private CameraIO gamePieceCamera;
+    private CameraIO mainAprilTagCamera;
+    private LidarIO lidarCamera;
+    private int lidarCenterRegion = -1;
+    private LidarHealth noLidarHealth = new LidarHealth(); // Never capturing
 
     // Others
-    public RobotGyro gyro = new RobotGyro(); // public for the dashboard
+    public GyroIO gyro; // public for the dashboard
+    public HeadingController headingController = new HeadingController(); // public for the dashboard
+    // Feed the change in speed and rotation from the last command forward to the swerve modules,
+    // so they steer with the robot while it turns and speeds up instead of lagging behind
+    public boolean isSecondOrderSwerve = false;
     private PowerDistribution pdp;
 
     // Last Values
     private double lastTravelVelocity = 0;
     private double lastTravelAngleDegrees = 0;
     private double lastTravelRotationDegreesPerSecond = 0;
+    private double lastTravelTime = 0;
     private double lastSamplePercent = 0;
     private double lastPivotPercent = 0;
     private double lastPivotAngle = 0;
     private double lastAssignedPivotAngle = 0;
 
-    Electronics(boolean fullSwerve, RoboLog rLog) {
+    /**
+     * @param fullSwerve Use all four swerve modules
+     * @param io         Creates the motors, encoders, gyro, cameras and LEDs (real or simulated)
+     * @param rLog       Log
+     */
+    Electronics(boolean fullSwerve, IOFactory io, RoboLog rLog) {
         this.rLog = rLog;
+        this.io = io;
 
         if (this.rLog == null) {
             System.out.println("Warning: Electronics.rLog is null");
         }
 
+        ledString = io.createLEDs(9, 300);
+        gyro = io.createGyro();
+
         File jr = new File("/home/lvuser/jr.txt");
         File botchendo = new File("/home/lvuser/botchendo.txt");
 
@@ -98,17 +116,19 @@ public class Electronics {
 
             currentState = centerPivotState;
 
-            frontLeft = new SwerveModule(41, 51, 1, 0, rLog, 
+            frontLeft = new SwerveModule(io, 41, 51, 1, 0, rLog, 
                     RobotMotorType.TalonFX, RobotMotorType.SparkMax, RobotEncoderType.Cancoder, 
                     3.77, 8.308, 20);
-            frontRight = new SwerveModule(42, 52, 2, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.SparkMax, 
+            frontRight = new SwerveModule(io, 42, 52, 2, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.SparkMax, 
                     RobotEncoderType.Cancoder, 3.77, 8.308, 20);
-            backRight = new SwerveModule(43, 53, 3, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.SparkMax,
+            backRight = new SwerveModule(io, 43, 53, 3, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.SparkMax,
                     RobotEncoderType.Cancoder, 3.77, 8.308, 20);
-            backLeft = new SwerveModule(44, 54, 4, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.SparkMax,
+            backLeft = new SwerveModule(io, 44, 54, 4, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.SparkMax,
                     RobotEncoderType.Cancoder, 3.77, 8.308, 20);
 
-            pdp = new PowerDistribution();
+            if (!io.isHeadless()) {
+                pdp = new PowerDistribution();
+            }
             yellowButton = null;
 
             sampleMotor = null;
@@ -138,13 +158,13 @@ public class Electronics {
             swerveVelocityMapper.add(195.9, 0.94);
 
             // Swerves
-            frontLeft = new SwerveModule(41, 51, 1, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
+            frontLeft = new SwerveModule(io, 41, 51, 1, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
                     RobotEncoderType.Cancoder, 3.91, 6.12, 28.14);
-            frontRight = new SwerveModule(42, 52, 2, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
+            frontRight = new SwerveModule(io, 42, 52, 2, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
                     RobotEncoderType.Cancoder, 3.91, 6.12, 28.14);
-            backRight = new SwerveModule(43, 53, 3, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
+            backRight = new SwerveModule(io, 43, 53, 3, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
                     RobotEncoderType.Cancoder, 3.91, 6.12, 28.14);
-            backLeft = new SwerveModule(44, 54, 4, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
+            backLeft = new SwerveModule(io, 44, 54, 4, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
                     RobotEncoderType.Cancoder, 3.91, 6.12, 28.14);
 
             frontLeft.setVelocityMapper(swerveVelocityMapper);
@@ -152,17 +172,19 @@ public class Electronics {
             backRight.setVelocityMapper(swerveVelocityMapper);
             backLeft.setVelocityMapper(swerveVelocityMapper);
             
-            pdp = new PowerDistribution();
-            pdp.setSwitchableChannel(true);
-            yellowButton = new DigitalInput(3);
+            if (!io.isHeadless()) {
+                pdp = new PowerDistribution();
+                pdp.setSwitchableChannel(true);
+                yellowButton = new DigitalInput(3);
+            }
 
-            sampleMotor = new RobotMotor(RobotMotor.RobotMotorType.TalonFX, 9, true, false, rLog, //isCoast was true
+            sampleMotor = io.createMotor(RobotMotor.RobotMotorType.TalonFX, 9, true, false, rLog, //isCoast was true
                 /* 50:1 ratio, 1.5 inch diameter */ (1.5 * Math.PI / 16.0),
                 0, 0, RobotEncoderType.Internal, 0, false);
-            pivotMotor = new RobotMotor(RobotMotor.RobotMotorType.TalonFX, 8, false, false, rLog, 
+            pivotMotor = io.createMotor(RobotMotor.RobotMotorType.TalonFX, 8, false, false, rLog, 
                 /* 300:1 ratio, 360 degrees per revolution */ (360.0 / 300.0),
                 11, 40, RobotEncoderType.Internal, 0, false);//isCoast was true
-            pivotCancoder = new RobotCANcoder(6, true, rLog);
+            pivotCancoder = io.createCANcoder(6, true, rLog);
 
             sampleMotor.setPID(1.5, 0.0000004, 0.01, 30, true);
         } else {
@@ -189,13 +211,13 @@ public class Electronics {
             swerveVelocityMapper.add(195.9, 0.94);
 
             // Swerves
-            frontLeft = new SwerveModule(41, 51, 1, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
+            frontLeft = new SwerveModule(io, 41, 51, 1, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
                     RobotEncoderType.Cancoder, 3.91, 6.12, 28.14);
-            frontRight = new SwerveModule(42, 52, 2, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
+            frontRight = new SwerveModule(io, 42, 52, 2, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
                     RobotEncoderType.Cancoder, 3.91, 6.12, 28.14);
-            backRight = new SwerveModule(43, 53, 3, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
+            backRight = new SwerveModule(io, 43, 53, 3, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
                     RobotEncoderType.Cancoder, 3.91, 6.12, 28.14);
-            backLeft = new SwerveModule(44, 54, 4, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
+            backLeft = new SwerveModule(io, 44, 54, 4, 0, rLog, RobotMotorType.TalonFX, RobotMotorType.TalonFX,
                     RobotEncoderType.Cancoder, 3.91, 6.12, 28.14);
 
             frontLeft.setVelocityMapper(swerveVelocityMapper);
@@ -203,24 +225,27 @@ public class Electronics {
             backRight.setVelocityMapper(swerveVelocityMapper);
             backLeft.setVelocityMapper(swerveVelocityMapper);
             
-            pdp = new PowerDistribution();
-            pdp.setSwitchableChannel(true);
-            yellowButton = new DigitalInput(3);
+            if (!io.isHeadless()) {
+                pdp = new PowerDistribution();
+                pdp.setSwitchableChannel(true);
+                yellowButton = new DigitalInput(3);
+            }
 
-            sampleMotor = new RobotMotor(RobotMotor.RobotMotorType.TalonFX, 9, true, false, rLog, //isCoast was true
+            sampleMotor = io.createMotor(RobotMotor.RobotMotorType.TalonFX, 9, true, false, rLog, //isCoast was true
                 /* 50:1 ratio, 1.5 inch diameter */ (1.5 * Math.PI / 16.0),
                 0, 0, RobotEncoderType.Internal, 0, false);
-            pivotMotor = new RobotMotor(RobotMotor.RobotMotorType.TalonFX, 8, false, false, rLog, 
+            pivotMotor = io.createMotor(RobotMotor.RobotMotorType.TalonFX, 8, false, false, rLog, 
                 /* 300:1 ratio, 360 degrees per revolution */ (360.0 / 300.0),
                 11, 40, RobotEncoderType.Internal, 0, false);//isCoast was true
-            pivotCancoder = new RobotCANcoder(6, true, rLog);
+            pivotCancoder = io.createCANcoder(6, true, rLog);
 
             sampleMotor.setPID(1.5, 0.0000004, 0.01, 30, true);
         }
 
-        lidarCamera = new LidarCamera("lidar");
-
-        lidarCamera.setRegion(0, 159, 30);
+        lidarCamera = io.createLidar("lidar");
+        if (lidarCamera != null) {
+            lidarCenterRegion = lidarCamera.addRegion("center", 0, 159, 30, 30);
+        }
 
         if (fullSwerve) {
             swerveDrives = new SwerveModule[] { frontLeft, frontRight, backRight, backLeft };
@@ -228,8 +253,13 @@ public class Electronics {
             swerveDrives = new SwerveModule[] { backLeft };
         }
 
-        gamePieceCamera = new PhotonVisionCamera("Arducam_OV9782_USB_Camera (1)", rLog);
-        mainAprilTagCamera = new PhotonVisionCamera("Arducam_OV9281_USB_Camera (1)", rLog);
+        swerveOdometry = io.createOdometry(swerveDrives, gyro, createCenterPivotState(), rLog);
+        if (!io.isHeadless() && !RobotBase.isSimulation()) {
+            swerveOdometry.start();
+        }
+
+        gamePieceCamera = io.createCamera("Arducam_OV9782_USB_Camera (1)", rLog);
+        mainAprilTagCamera = io.createCamera("Arducam_OV9281_USB_Camera (1)", rLog);
 
         timerStrip.add(248, 1);
         timerStrip.add(249, 2);
@@ -264,11 +294,13 @@ public class Electronics {
 
         if (pdp != null) {
             batteryVoltage = pdp.getVoltage();
+        } else if (io.isHeadless()) {
+            batteryVoltage = 12.5;
         }
 
-        batteryTimer.restart();
+        batteryReadTime = RobotTime.getTimestamp();
 
-        motorArray = new RobotMotor[] {
+        motorArray = new MotorIO[] {
             sampleMotor,
             pivotMotor,
             frontLeft.getDriveMotor(),
@@ -299,7 +331,7 @@ public class Electronics {
     public void checkConfigsSet(boolean forcingConfig) {
         int loopCounter = 0;
         boolean isSet = true;
-        for (RobotMotor motor : motorArray) {
+        for (MotorIO motor : motorArray) {
             if (motor == null) {//Assumes null motors aren't meant to exist
                 configsSet[loopCounter] = true;
             } else if (!motor.isAttached()) {
@@ -449,6 +481,32 @@ public class Electronics {
         stopPivotMotor();
     }
 
+    /**
+     * Reads the latest values of all motor and encoder status signals in one batch.
+     * Called once at the start of each loop, before any encoder values are used.
+     */
+    public void refreshCANSignals() {
+        CANSignalRegistry.refreshAll();
+    }
+
+    public OdometryIO getSwerveOdometry() {
+        return swerveOdometry;
+    }
+
+    /** A separate copy of the module locations around the center of the robot, for forward kinematics */
+    public SwerveState createCenterPivotState() {
+        return new SwerveState(centerPivotState, 0, 0);
+    }
+
+    /** Module speeds and angles from the last swerve command, for telemetry. Do not change it. */
+    public SwerveState getCommandedSwerveState() {
+        return currentState;
+    }
+
+    public int getSwerveModuleCount() {
+        return swerveDrives.length;
+    }
+
     private SwerveModule getModule(int module) {
         if (module >= swerveDrives.length || module < 0) {
             return null;
@@ -475,7 +533,7 @@ public class Electronics {
         }
     }
 
-    public RobotMotor getSwerveDriveMotor(int moduleNumber) {
+    public MotorIO getSwerveDriveMotor(int moduleNumber) {
         SwerveModule swerveDriveModule = getModule(moduleNumber);
         if (swerveDriveModule == null) {
             rLog.print("Not Valid Wheel");
@@ -485,6 +543,16 @@ public class Electronics {
         }
     }
 
+    public MotorIO getSwerveTurnMotor(int moduleNumber) {
+        SwerveModule swerveDriveModule = getModule(moduleNumber);
+        if (swerveDriveModule == null) {
+            rLog.print("Not Valid Wheel");
+            return null;
+        } else {
+            return swerveDriveModule.getTurnMotor();
+        }
+    }
+
     public void setTurnPercent(int moduleNumber, double power) {
         SwerveModule swerveDriveModule = getModule(moduleNumber);
         if (swerveDriveModule == null) {
@@ -523,6 +591,7 @@ public class Electronics {
      * for all swerve modules.
      */
     public void assignAllSwerveEncoderValues() {
+        refreshCANSignals();
         for (int i = 0; i < 4; i++) {
             setTurnEncoder(i, getAbsoluteTurnEncoderPosition(i));
         }
@@ -577,6 +646,16 @@ public class Electronics {
         return positions;
     }
 
+    public double getDriveEncoderPosition(int moduleNumber) {
+        SwerveModule swerveDriveModule = getModule(moduleNumber);
+        if (swerveDriveModule == null) {
+            rLog.print("Not Valid Wheel");
+            return 0;
+        } else {
+            return swerveDriveModule.getDriveEncoderPosition();
+        }
+    }
+
     public double getDriveVelocity(int moduleNumber) {
         SwerveModule swerveDriveModule = getModule(moduleNumber);
         if (swerveDriveModule == null) {
@@ -627,6 +706,10 @@ public class Electronics {
     }
 
     public void assignRobotMotionField(double travelAngle, double travelInchesPerSecond, double degreesPerSecond) {
+        if (isSecondOrderSwerve) {
+            assignSecondOrderMotionField(travelAngle, travelInchesPerSecond, degreesPerSecond);
+            return;
+        }
         lastTravelVelocity = travelInchesPerSecond;
         lastTravelAngleDegrees = travelAngle;
         lastTravelRotationDegreesPerSecond = degreesPerSecond;
@@ -637,6 +720,37 @@ public class Electronics {
         }
     }
 
+    // The acceleration is the change from the last command, over the time since it. After a gap
+    // (like the first command after being disabled) the last command is stale, so there is none.
+    private void assignSecondOrderMotionField(double travelAngle, double travelInchesPerSecond, double degreesPerSecond) {
+        double now = RobotTime.getTimestamp();
+        double loopTime = now - lastTravelTime;
+        double accelX = 0;
+        double accelY = 0;
+        double degreesPerSecondSquared = 0;
+        if (loopTime > 0 && loopTime <= 0.1) {
+            accelX = ((travelInchesPerSecond * Math.sin(Math.toRadians(travelAngle)))
+                - (lastTravelVelocity * Math.sin(Math.toRadians(lastTravelAngleDegrees)))) / loopTime;
+            accelY = ((travelInchesPerSecond * Math.cos(Math.toRadians(travelAngle)))
+                - (lastTravelVelocity * Math.cos(Math.toRadians(lastTravelAngleDegrees)))) / loopTime;
+            degreesPerSecondSquared = (degreesPerSecond - lastTravelRotationDegreesPerSecond) / loopTime;
+        } else {
+            loopTime = 0.02;
+        }
+        lastTravelTime = now;
+        lastTravelVelocity = travelInchesPerSecond;
+        lastTravelAngleDegrees = travelAngle;
+        lastTravelRotationDegreesPerSecond = degreesPerSecond;
+
+        currentState.assignSwerveModulesFieldSecondOrder(travelAngle, travelInchesPerSecond, degreesPerSecond,
+                Math.toDegrees(Math.atan2(accelX, accelY)), Math.hypot(accelX, accelY), degreesPerSecondSquared,
+                loopTime, getGyro(), swerveDrives[0].getMaxVelocity());
+        for (int i = 0; i < swerveDrives.length; i++) {
+            swerveDrives[i].setSpeedAndHeading(currentState.getMagnitude(i), currentState.getAngle(i),
+                    currentState.getTurnDegreesPerSecond(i));
+        }
+    }
+
     /** Gets the last timestamp reported by the gyro. */
     public double getGyroTimestamp() {
         if (gyro != null)
@@ -657,20 +771,19 @@ public class Electronics {
     }
 
     public void assignRobotMotionAndHeadingField(double travelAngle, double travelInchesPerSecond, double facingAngle) {
-        double degreesPerSecond = 0;
-        double angleDifference = facingAngle - getGyroCenteredOnGoal(facingAngle);
-        double acceptableRange = Math.max(Math.min((0.1042 * travelInchesPerSecond), 0.6), 0.6);
-        if (Math.abs(angleDifference) < acceptableRange) {
-            degreesPerSecond = 0;
-        } else {
-            double calcDPS = angleDifference * 4.0;
-            double rotationSpeed = 180;
-             if (calcDPS < 0) {
-                degreesPerSecond = Math.min(Math.max(-rotationSpeed, calcDPS), -3.5);
-            } else {
-                degreesPerSecond = Math.max(Math.min(rotationSpeed, calcDPS), 3.5);
-            }
-        }
+        assignRobotMotionAndHeadingField(travelAngle, travelInchesPerSecond, facingAngle, 0);
+    }
+
+    /**
+     * Drive while turning to face facingAngle, with the rotation speed from headingController.
+     * 
+     * @param facingRate How fast facingAngle itself is turning, in degrees per second, so the
+     *                   robot can turn with it instead of falling behind
+     */
+    public void assignRobotMotionAndHeadingField(double travelAngle, double travelInchesPerSecond, double facingAngle,
+            double facingRate) {
+        double degreesPerSecond = headingController.calculate(RobotTime.getTimestamp(), getGyro(),
+            lastTravelRotationDegreesPerSecond, facingAngle, facingRate);
         assignRobotMotionField(travelAngle, travelInchesPerSecond, degreesPerSecond);
     }
 
@@ -829,24 +942,42 @@ public class Electronics {
         return name;
     }
 
+    public boolean isHeadless() {
+        return io.isHeadless();
+    }
+
+    /** Used by LogReplay, which has no power distribution panel or driver station */
+    public void setReplayInputs(ReplayInputs inputs) {
+        replayInputs = inputs;
+    }
+
     public boolean isAllianceRed() {
+        if (replayInputs != null) {
+            return replayInputs.isRedAlliance;
+        }
+        if (io.isHeadless()) {
+            return false; // No driver station
+        }
         Optional<Alliance> alliance = DriverStation.getAlliance();
         return (alliance.isPresent() && alliance.get() == Alliance.Red);
     }
 
     public void robotPeriodic() {
-        if (batteryTimer.get() >= 10 && pdp != null) {
+        if (RobotTime.getTimestamp() - batteryReadTime >= 10 && pdp != null) {
             batteryVoltage = pdp.getVoltage();
-            batteryTimer.restart();
+            batteryReadTime = RobotTime.getTimestamp();
         }
     }
 
     public double getBatteryVoltage() {
+        if (replayInputs != null) {
+            return replayInputs.batteryVoltage;
+        }
         return batteryVoltage;
     }
 
     public double getTotalAmps() {
-        return pdp.getTotalCurrent();
+        return pdp != null ? pdp.getTotalCurrent() : 0;
     }
 
     public void setLED(LEDregion region, LEDcolor color) {
@@ -941,11 +1072,11 @@ public class Electronics {
         }
     }
     
-    public PhotonVisionCamera getGamePieceCamera() {
+    public CameraIO getGamePieceCamera() {
         return gamePieceCamera;
     }
 
-    public PhotonVisionCamera getMainAprilTagCamera() {
+    public CameraIO getMainAprilTagCamera() {
         return mainAprilTagCamera;
     }
 
@@ -956,10 +1087,55 @@ public class Electronics {
             return lidarCamera.isConnected();
     }
 
+    /**
+     * Measure the lidar frames that arrived since the last call. Call once per loop.
+     *
+     * @param time Robot time, in seconds
+     */
+    public LidarHealth updateLidarHealth(double time) {
+        if (lidarCamera == null)
+            return noLidarHealth;
+        else
+            return lidarCamera.updateHealth(time);
+    }
+
     public double getLidarDistance() {
+        return getLidarRegionDistance(lidarCenterRegion);
+    }
+
+    /**
+     * Add a region of lidar points to measure. The center row used by getLidarDistance is always measured.
+     *
+     * @return The handle for getLidarRegionDistance, or -1 if there is no lidar or no room for another region
+     */
+    public int addLidarRegion(String name, double xStart, double xEnd, double yStart, double yEnd) {
+        if (lidarCamera == null)
+            return -1;
+        else
+            return lidarCamera.addRegion(name, xStart, xEnd, yStart, yEnd);
+    }
+
+    /** Median depth of a lidar region in millimeters, -1 if no point in it had a depth, or -3 if there is no lidar */
+    public double getLidarRegionDistance(int region) {
         if (lidarCamera == null)
             return -3;
         else
-            return lidarCamera.getRegionZ();
+            return lidarCamera.getRegionZ(region);
+    }
+
+    /** Number of lidar frames measured so far, or 0 if there is no lidar */
+    public long getLidarFrameCount() {
+        if (lidarCamera == null)
+            return 0;
+        else
+            return lidarCamera.getFrameCount();
+    }
+
+    /** When the latest lidar frame was captured, in seconds of robot time, or 0 if there is no lidar */
+    public double getLidarCaptureTime() {
+        if (lidarCamera == null)
+            return 0;
+        else
+            return lidarCamera.getCaptureTime();
     }
 }
@@ -0,0 +1,21 @@
+// EncoderIO.java - Absolute encoder operations used by the rest of the robot code
+package frc.robot;
+
+/**
+ * Implemented by RobotCANcoder for real encoders and by SimEncoderIO for running
+ * without hardware. Angles are in degrees.
+ */
+public interface EncoderIO {
+    double ERROR_ANGLE = -3600;
+
+    /** Absolute angle, or ERROR_ANGLE if the encoder can not be read */
+    double getAbsoluteAngle();
+
+    void setAbsoluteAngle(double angle);
+
+    double getAngle();
+
+    void setAngle(double angle);
+
+    boolean isAttached();
+}
@@ -0,0 +1,25 @@
+// GyroIO.java - Gyro operations used by the rest of the robot code
+package frc.robot;
+
+import edu.wpi.first.util.sendable.*;
+
+/**
+ * Implemented by RobotGyro for the NavX and by SimGyroIO for running without hardware.
+ * Angles are in degrees, clockwise positive.
+ */
+public interface GyroIO extends Sendable {
+    float getYaw();
+
+    /** Tell the gyro which direction the robot is currently facing */
+    void setYaw(double yawAngle);
+
+    /** Used by simulation to set the yaw the gyro reports */
+    void setSimulationYaw(double yawAngle);
+
+    float getPitch();
+
+    float getRoll();
+
+    /** Time of the last sensor update, in milliseconds */
+    long getLastSensorTimestamp();
+}
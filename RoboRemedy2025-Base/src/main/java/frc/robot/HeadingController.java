@@ -0,0 +1,132 @@
+// HeadingController.java - Works out the rotation speed that turns the robot to a facing angle
+package frc.robot;
+
+import edu.wpi.first.util.sendable.*;
+
+/**
+ * Instead of turning at a rate in proportion to how far off the robot is, which starts with a
+ * jump and can overshoot, it moves a target angle toward the facing angle at no more than
+ * maxRotationRate and maxRotationAcceleration, and drives the robot to follow that target:
+ * the target's own rotation rate and acceleration (feedforward), plus kP times how far the robot is from the
+ * target, plus kD times how much slower than the target the gyro is turning. When the facing
+ * angle itself is turning (like along a trajectory), pass its rate to feed that forward too.
+ *
+ * <p>The gains and limits are public and show up on the dashboard's Test tab, where they can
+ * be changed while the robot runs.
+ */
+public class HeadingController implements Sendable {
+    private static final double MAX_ELAPSED_TIME = 0.1; // Seconds, longer gaps start again from the gyro
+    private static final double RATE_TOLERANCE = 0.001; // Degrees per second
+    private static final double GYRO_RATE_FILTER = 0.5; // Part of each new gyro rate used, 1 is no filtering
+
+    public double kP = 4.0; // Degrees per second per degree off the target
+    public double kD = 0.3; // Degrees per second per degree per second slower than the target
+    public double kFF = 1.0; // Part of the target's rotation rate to feed forward
+    public double kA = 0.05; // Seconds of the target's rotation acceleration to feed forward, for how long the drive takes to respond
+    public double maxRotationRate = 180.0; // Degrees per second
+    public double maxRotationAcceleration = 720.0; // Degrees per second squared
+    public double minRotationRate = 3.5; // Degrees per second, the least that actually turns the robot
+    public double tolerance = 0.6; // Degrees, close enough to stop turning
+
+    // From the last calculate
+    public double degreesPerSecond = 0;
+    public double targetAngle = 0; // Where the robot should be facing now, on the way to the facing angle
+    public double targetRate = 0; // Degrees per second
+    public double targetAcceleration = 0; // Degrees per second squared
+    public double gyroRate = 0; // Degrees per second
+    public double error = 0; // Degrees from the target
+
+    private boolean hasLast = false;
+    private double lastTime = 0;
+    private double lastGyroAngle = 0;
+
+    /** Start again from the gyro on the next calculate */
+    public void reset() {
+        hasLast = false;
+        degreesPerSecond = 0;
+    }
+
+    /**
+     * Rotation speed for this loop.
+     *
+     * @param time              Current time, in seconds
+     * @param gyroAngle         Which way the robot is facing, in degrees
+     * @param currentRate       Rotation speed commanded last loop, in degrees per second
+     * @param facingAngle       Which way the robot should face, in degrees
+     * @param facingRate        How fast facingAngle is turning, in degrees per second
+     * @return The rotation speed to command, also in degreesPerSecond
+     */
+    public double calculate(double time, double gyroAngle, double currentRate, double facingAngle,
+            double facingRate) {
+        double dt = time - lastTime;
+        boolean isStarting = !hasLast || dt <= 0 || dt > MAX_ELAPSED_TIME;
+        if (isStarting) {
+            gyroRate = currentRate;
+        } else {
+            gyroRate += GYRO_RATE_FILTER * ((Position.getAngleChange(lastGyroAngle, gyroAngle) / dt) - gyroRate);
+        }
+        if (isStarting || Math.abs(currentRate - degreesPerSecond) > RATE_TOLERANCE) {
+            // Not used last loop, or something else set the rotation since, so the target starts
+            // where the robot is, turning as it was told to
+            targetAngle = gyroAngle;
+            targetRate = currentRate;
+            dt = 0;
+        }
+        hasLast = true;
+        lastTime = time;
+        lastGyroAngle = gyroAngle;
+
+        // Move the target toward the facing angle, closing the gap as fast as it can while still
+        // able to slow down to match the facing angle. After this loop's move of
+        // (closingRate + newClosingRate) / 2 * dt it takes newClosingRate^2 / (2 * maxRotationAcceleration)
+        // to stop, which together must fit in the gap.
+        double gap = Position.getAngleChange(targetAngle, facingAngle);
+        double direction = gap < 0 ? -1 : 1;
+        double closingRate = (targetRate - facingRate) * direction;
+        double rateStep = maxRotationAcceleration * dt;
+        double c = (closingRate * dt / 2) - Math.abs(gap);
+        double stoppingRate = maxRotationAcceleration
+            * ((-dt / 2) + Math.sqrt(Math.max(0, (dt * dt / 4) - (2 * c / maxRotationAcceleration))));
+        double newClosingRate = Math.max(closingRate - rateStep, Math.min(closingRate + rateStep, stoppingRate));
+        double newTargetRate = Math.max(-maxRotationRate,
+            Math.min(maxRotationRate, facingRate + (newClosingRate * direction)));
+        targetAcceleration = dt > 0 ? (newTargetRate - targetRate) / dt : 0;
+        targetAngle += (targetRate + newTargetRate) / 2 * dt;
+        targetRate = newTargetRate;
+        double newGap = Position.getAngleChange(targetAngle, facingAngle);
+        if ((Math.abs(newGap) <= tolerance && Math.abs(targetRate - facingRate) <= rateStep)
+                || (gap != 0 && Math.signum(newGap) != Math.signum(gap) && facingRate == 0)) {
+            targetAngle = facingAngle;
+            targetRate = facingRate;
+            targetAcceleration = 0;
+        }
+
+        error = Position.getAngleChange(gyroAngle, targetAngle);
+        double rate = (kFF * targetRate) + (kA * targetAcceleration) + (kP * error) + (kD * (targetRate - gyroRate));
+        double facingError = Position.getAngleChange(gyroAngle, facingAngle);
+        if (facingRate == 0 && targetRate == 0 && Math.abs(facingError) < tolerance) {
+            rate = 0;
+        } else if (facingRate == 0 && targetRate == 0) {
+            // Near the end, turn at least fast enough to actually move. The direction comes from
+            // the facing angle, as rate is 0 on the first loop after a reset.
+            rate = facingError < 0 ? Math.min(rate, -minRotationRate) : Math.max(rate, minRotationRate);
+        }
+        degreesPerSecond = Math.max(-maxRotationRate, Math.min(maxRotationRate, rate));
+        return degreesPerSecond;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("HeadingController");
+        builder.addDoubleProperty("kP", () -> kP, value -> kP = value);
+        builder.addDoubleProperty("kD", () -> kD, value -> kD = value);
+        builder.addDoubleProperty("kFF", () -> kFF, value -> kFF = value);
+        builder.addDoubleProperty("kA", () -> kA, value -> kA = value);
+        builder.addDoubleProperty("Max Rate", () -> maxRotationRate, value -> maxRotationRate = value);
+        builder.addDoubleProperty("Max Acceleration", () -> maxRotationAcceleration,
+            value -> maxRotationAcceleration = value);
+        builder.addDoubleProperty("Min Rate", () -> minRotationRate, value -> minRotationRate = value);
+        builder.addDoubleProperty("Tolerance", () -> tolerance, value -> tolerance = value);
+        builder.addDoubleProperty("Error", () -> error, null);
+    }
+}
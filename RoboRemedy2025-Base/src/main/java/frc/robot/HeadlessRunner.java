@@ -0,0 +1,50 @@
+// HeadlessRunner.java - Runs the drive control code on a desktop JVM without any robot hardware
+package frc.robot;
+
+/**
+ * Drives a square over and over with simulated motors, a simulated gyro and simulated time,
+ * then prints how many robot loops ran per second of real time.
+ * Example: gradlew runHeadless -PheadlessSeconds=30
+ */
+public class HeadlessRunner {
+    private static final double LOOP_SECONDS = 0.020;
+
+    public static void main(String... args) {
+        double runSeconds = args.length > 0 ? Double.parseDouble(args[0]) : 10.0;
+
+        RobotTime.useSimulatedTime(0);
+        RoboLog rLog = new RoboLog();
+        Electronics e = new Electronics(true, new SimIOFactory(), rLog);
+        RobotState robotState = new RobotState(e, rLog);
+        Action act = new Action(e, rLog, null, robotState);
+
+        int loops = 0;
+        int step = 0;
+        double gyroDegrees = 0;
+        double maxSimulatedTime = 3600.0;
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + (long) (runSeconds * 1e9);
+
+        while (System.nanoTime() < endNanos && RobotTime.getTimestamp() < maxSimulatedTime) {
+            RobotTime.advanceTime(LOOP_SECONDS);
+            gyroDegrees += e.getLastTravelRotationDegreesPerSecond() * LOOP_SECONDS;
+            e.setSimulationGyro(gyroDegrees);
+            robotState.robotStatePeriodic(null, null);
+
+            // Drive 60 inches on each side of a square, facing the direction of travel
+            double travelAngle = (step % 4) * 90.0;
+            if (act.driveStraightWithFacing(travelAngle, 80, travelAngle, 140, 60, 0)) {
+                act.resetAction();
+                step++;
+            }
+            loops++;
+        }
+
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.println("Loops: " + loops + ", sides driven: " + step);
+        System.out.println("Simulated seconds: " + RobotMath.round1(RobotTime.getTimestamp()));
+        System.out.println("Loops per second: " + Math.round(loops / elapsedSeconds));
+        System.out.println("Final position: " + RobotMath.round1(robotState.robotPosition.getX()) + ", "
+            + RobotMath.round1(robotState.robotPosition.getY()));
+    }
+}
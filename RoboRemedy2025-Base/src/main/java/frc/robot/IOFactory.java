@@ -0,0 +1,38 @@
+// IOFactory.java - Creates the hardware objects used by Electronics
+package frc.robot;
+
+import frc.robot.RobotMotor.*;
+
+/**
+ * Chosen once when the robot starts. RealIOFactory creates objects that talk to real (or
+ * WPILib simulated) hardware. SimIOFactory creates objects that only need a plain JVM.
+ */
+public interface IOFactory {
+    MotorIO createMotor(RobotMotorType motorType, int motorID, boolean isInverted, boolean isCoast, RoboLog rLog,
+            double unitsPerRevolution, double maxCurrent, double statorCurrent, RobotEncoderType encoderType,
+            int absoluteEncoderID, boolean isUsingVoltageCompensation);
+
+    EncoderIO createCANcoder(int id, boolean isInverted, RoboLog rLog);
+
+    GyroIO createGyro();
+
+    CameraIO createCamera(String cameraName, RoboLog rLog);
+
+    /** The lidar on the LidarPi, or null if there is none */
+    LidarIO createLidar(String networkTableName);
+
+    LEDIO createLEDs(int port, int ledCount);
+
+    /**
+     * @param modules    Swerve modules, in the same order as the kinematics module locations
+     * @param gyro       Gyro used for the robot heading
+     * @param kinematics Module locations relative to the center of the robot. Only used by the odometry.
+     */
+    OdometryIO createOdometry(SwerveModule[] modules, GyroIO gyro, SwerveState kinematics, RoboLog rLog);
+
+    /**
+     * True when there is no HAL, NetworkTables or driver station. Electronics skips devices
+     * that have no IO interface, such as the power distribution panel.
+     */
+    boolean isHeadless();
+}
@@ -0,0 +1,185 @@
+// InputRecorder.java - Records every hardware input each loop so a match can be replayed later
+package frc.robot;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+import edu.wpi.first.wpilibj.*;
+import frc.robot.RobotEnums.*;
+
+/**
+ * Writes one ReplayInputs record per control loop into a memory-mapped file segment, the same
+ * way DataLogger does. Use LogReplay on a desktop computer to run the robot code on the file.
+ *
+ * <p>File layout (big endian):
+ * <pre>
+ * int   MAGIC
+ * short VERSION
+ * ReplayInputs header (motor IDs, encoder IDs, camera names)
+ * records: short RECORD_MARKER, ReplayInputs record
+ * </pre>
+ * The rest of the segment is zero filled, so the first record without a marker is the end of the file.
+ *
+ * <p>Only loops while the robot is enabled are recorded, unless isRecordingWhenDisabled is set,
+ * so a robot left on in the pits does not make any files. The oldest files are deleted to keep
+ * them all under MAX_TOTAL_BYTES.
+ */
+public class InputRecorder {
+    public static final int MAGIC = 0x5252494E; // "RRIN"
+    public static final short VERSION = 5;
+    public static final short RECORD_MARKER = 0x5A5A;
+    public static final String FILE_PREFIX = "inputs_";
+    public static final String FILE_EXTENSION = ".rrin";
+
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024; // About 1.5 minutes of 20 ms loops
+    private static final long MAX_TOTAL_BYTES = 8L * SEGMENT_SIZE; // About 12 minutes of enabled time, several matches
+
+    public ReplayInputs inputs;
+    public boolean isRecordingWhenDisabled = false;
+
+    private RoboLog rLog;
+    private String directory;
+    private MotorIO[] motors;
+    private EncoderIO[] encoders;
+    private RecordingCameraIO[] cameras;
+    private GyroIO gyro;
+    private int recordSize;
+    private MappedByteBuffer buffer;
+    private long fileNumber = 0;
+    private boolean isEnabled = true;
+
+    /**
+     * @param directory Where to put the files
+     * @param devices   The factory that created the robot's hardware objects
+     * @param rLog      Log
+     */
+    InputRecorder(String directory, RecordingIOFactory devices, RoboLog rLog) {
+        this.directory = directory;
+        this.rLog = rLog;
+        motors = devices.getMotors();
+        encoders = devices.getEncoders();
+        cameras = devices.getCameras();
+        gyro = devices.getGyro();
+        inputs = devices.createInputs();
+        recordSize = 2 + inputs.getRecordSize();
+
+        if (this.rLog == null) {
+            System.out.println("Warning: InputRecorder.rLog is null");
+        }
+    }
+
+    /**
+     * Read the hardware and driver station into inputs. Call right after the CAN signals are
+     * refreshed, so the values are the ones the rest of the loop will read.
+     *
+     * @param time Time of this loop, in seconds
+     */
+    public void capture(double time) {
+        inputs.time = time;
+        if (DriverStation.isDisabled()) {
+            inputs.mode = RobotMode.Disabled;
+        } else if (DriverStation.isAutonomous()) {
+            inputs.mode = RobotMode.Autonomous;
+        } else if (DriverStation.isTest()) {
+            inputs.mode = RobotMode.Test;
+        } else {
+            inputs.mode = RobotMode.Teleop;
+        }
+
+        if (gyro != null) {
+            inputs.gyroYaw = gyro.getYaw();
+            inputs.gyroPitch = gyro.getPitch();
+            inputs.gyroRoll = gyro.getRoll();
+            inputs.gyroTimestamp = gyro.getLastSensorTimestamp();
+        }
+
+        for (int i = 0; i < motors.length; i++) {
+            inputs.motorPositions[i] = motors[i].getEncoderPosition();
+            inputs.motorVelocities[i] = motors[i].getEncoderVelocity();
+            inputs.motorOutputPercents[i] = motors[i].getOutputPercent();
+            inputs.motorStatorCurrents[i] = motors[i].getStatorCurrent();
+            inputs.motorAttached[i] = motors[i].isAttached();
+        }
+        for (int i = 0; i < encoders.length; i++) {
+            inputs.encoderAngles[i] = encoders[i].getAngle();
+            inputs.encoderAbsoluteAngles[i] = encoders[i].getAbsoluteAngle();
+            inputs.encoderAttached[i] = encoders[i].isAttached();
+        }
+        for (int i = 0; i < cameras.length; i++) {
+            cameras[i].getLatestTargets(inputs.cameras[i]);
+            cameras[i].clearFrames(); // Filled in as the robot code reads the results this loop
+        }
+
+        for (int stick = 0; stick < ReplayInputs.JOYSTICK_COUNT; stick++) {
+            boolean isConnected = DriverStation.isJoystickConnected(stick);
+            int axisCount = isConnected ? Math.min(DriverStation.getStickAxisCount(stick), ReplayInputs.MAX_AXES) : 0;
+            inputs.joystickConnected[stick] = isConnected;
+            inputs.joystickAxisCounts[stick] = axisCount;
+            for (int axis = 0; axis < ReplayInputs.MAX_AXES; axis++) {
+                inputs.joystickAxes[stick][axis] = axis < axisCount ? (float) DriverStation.getStickAxis(stick, axis) : 0;
+            }
+            inputs.joystickButtons[stick] = isConnected ? DriverStation.getStickButtons(stick) : 0;
+            inputs.joystickPOVs[stick] = (isConnected && DriverStation.getStickPOVCount(stick) > 0)
+                ? DriverStation.getStickPOV(stick, 0) : -1;
+        }
+    }
+
+    /** Write the captured inputs, after the caller has filled in the values it read itself */
+    public void writeRecord() {
+        if (!isEnabled || (inputs.mode == RobotMode.Disabled && !isRecordingWhenDisabled)) {
+            return;
+        }
+        if (buffer == null || buffer.remaining() < recordSize) {
+            if (!openSegment()) {
+                return;
+            }
+        }
+        buffer.putShort(RECORD_MARKER);
+        inputs.writeRecord(buffer);
+    }
+
+    /** Ask the operating system to write the mapped data to storage now. Not for use every loop. */
+    public void flush() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    private boolean openSegment() {
+        flush();
+        buffer = null;
+        try {
+            File dir = new File(directory);
+            dir.mkdirs();
+            int deletedCount = LogFiles.deleteOldest(dir, FILE_PREFIX, FILE_EXTENSION, SEGMENT_SIZE, MAX_TOTAL_BYTES);
+            if (deletedCount > 0) {
+                rLog.print("Deleted " + deletedCount + " old input log files");
+            }
+            fileNumber = Math.max(fileNumber, LogFiles.getHighestNumber(dir, FILE_PREFIX, FILE_EXTENSION));
+            File file;
+            do {
+                fileNumber++;
+                file = new File(dir, FILE_PREFIX + fileNumber + FILE_EXTENSION);
+            } while (file.exists());
+
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // The mapping stays valid after the channel is closed
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+            }
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putShort(VERSION);
+            inputs.writeHeader(buffer);
+            rLog.print("Input log file: " + file.getPath());
+            return true;
+        } catch (Exception e) {
+            rLog.print("Input recording disabled, could not open file in " + directory + ": " + e.getMessage());
+            isEnabled = false;
+            buffer = null;
+            return false;
+        }
+    }
+}
@@ -4,11 +4,11 @@ package frc.robot;
 public class LEDRegion {
 
     private RoboLog rLog;
-    private LEDString ledString;
+    private LEDIO ledString;
     private int begin;
     private int end;
 
-    LEDRegion(RoboLog rLog, LEDString ledString, int begin, int end) {
+    LEDRegion(RoboLog rLog, LEDIO ledString, int begin, int end) {
         this.rLog = rLog;
         this.ledString = ledString;
         this.begin = begin;
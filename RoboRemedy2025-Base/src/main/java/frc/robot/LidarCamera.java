@@ -1,10 +1,123 @@
 // LidarCamera.java - Controls a lidar camera on a Raspberry Pi
 package frc.robot;
 
+import java.nio.*;
+import java.util.*;
+
 import edu.wpi.first.wpilibj.*;
 import edu.wpi.first.networktables.*;
+import edu.wpi.first.util.struct.*;
+
+/**
+ * Up to MAX_REGIONS named regions can be added. The LidarPi measures all of them in one pass
+ * over each 160x60 lidar frame and sends back an array with one RegionStats per region, in the
+ * order they were added, so any region can be read by the handle addRegion returned without
+ * waiting for another frame. Depths are in millimeters.
+ */
+public class LidarCamera implements LidarIO {
+
+    /** Depth of the points in the region, for one lidar frame */
+    public static class RegionStats {
+        public long frame;
+        public double captureTime; // NetworkTables time on the robot, in seconds
+        public int validCount; // Points in the region with a measured depth
+        public double min;
+        public double median;
+        public double mean;
+        public double percentile;
+    }
+
+    /** Must match the struct the LidarPi publishes */
+    public static class RegionStatsStruct implements Struct<RegionStats> {
+        public Class<RegionStats> getTypeClass() {
+            return RegionStats.class;
+        }
+
+        public String getTypeName() {
+            return "LidarRegionStats";
+        }
+
+        public int getSize() {
+            return 8 + 8 + 4 + (4 * 8);
+        }
+
+        public String getSchema() {
+            return "int64 frame;double captureTime;int32 validCount;double min;double median;double mean;"
+                + "double percentile";
+        }
+
+        public RegionStats unpack(ByteBuffer bb) {
+            RegionStats stats = new RegionStats();
+            stats.frame = bb.getLong();
+            stats.captureTime = bb.getDouble();
+            stats.validCount = bb.getInt();
+            stats.min = bb.getDouble();
+            stats.median = bb.getDouble();
+            stats.mean = bb.getDouble();
+            stats.percentile = bb.getDouble();
+            return stats;
+        }
+
+        public void pack(ByteBuffer bb, RegionStats value) {
+            bb.putLong(value.frame);
+            bb.putDouble(value.captureTime);
+            bb.putInt(value.validCount);
+            bb.putDouble(value.min);
+            bb.putDouble(value.median);
+            bb.putDouble(value.mean);
+            bb.putDouble(value.percentile);
+        }
+    }
+
+    public static final RegionStatsStruct REGION_STATS_STRUCT = new RegionStatsStruct();
+
+    /** Sent by the LidarPi once for every lidar frame */
+    public static class FrameInfo {
+        public long sequence; // Frames the LidarPi has received since it started
+        public long lidarFrame; // The lidar's own frame counter, which skips frames it dropped
+        public double captureTime; // NetworkTables time on the robot, in seconds
+        public double processTime; // Seconds the LidarPi spent on the frame
+    }
+
+    /** Must match the struct the LidarPi publishes */
+    public static class FrameInfoStruct implements Struct<FrameInfo> {
+        public Class<FrameInfo> getTypeClass() {
+            return FrameInfo.class;
+        }
+
+        public String getTypeName() {
+            return "LidarFrameInfo";
+        }
+
+        public int getSize() {
+            return 4 * 8;
+        }
+
+        public String getSchema() {
+            return "int64 sequence;int64 lidarFrame;double captureTime;double processTime";
+        }
+
+        public FrameInfo unpack(ByteBuffer bb) {
+            FrameInfo info = new FrameInfo();
+            info.sequence = bb.getLong();
+            info.lidarFrame = bb.getLong();
+            info.captureTime = bb.getDouble();
+            info.processTime = bb.getDouble();
+            return info;
+        }
+
+        public void pack(ByteBuffer bb, FrameInfo value) {
+            bb.putLong(value.sequence);
+            bb.putLong(value.lidarFrame);
+            bb.putDouble(value.captureTime);
+            bb.putDouble(value.processTime);
+        }
+    }
+
+    public static final FrameInfoStruct FRAME_INFO_STRUCT = new FrameInfoStruct();
+
+    private static final RegionStats NO_REGION_STATS = new RegionStats();
 
-public class LidarCamera {
     long lastCounter = 0;
 
     Timer changeTime = new Timer();
@@ -12,82 +125,221 @@ public class LidarCamera {
     final double TIME_OUT = 0.5;
 
     NetworkTable networkTable;
-    DoublePublisher regionXStartPub;
-    DoublePublisher regionXEndPub;
-    DoublePublisher regionYStartPub;
-    DoublePublisher regionYEndPub;
+    IntegerArrayPublisher regionsPub;
+    DoublePublisher regionPercentilePub;
 
-    DoubleSubscriber zSubscriber;
+    StructArraySubscriber<RegionStats> regionStatsSubscriber;
     IntegerSubscriber counterSubscriber;
+    StructSubscriber<FrameInfo> frameInfoSubscriber;
+    IntegerPublisher depthFrameIntervalPub;
+    IntegerPublisher depthFrameStepPub;
+    IntegerPublisher depthFrameEncodingPub;
+    RawSubscriber depthFrameSubscriber;
+
+    private String[] regionNames = new String[MAX_REGIONS];
+    private long[] regionCorners = new long[MAX_REGIONS * 4]; // xStart, xEnd, yStart, yEnd for each region
+    private int regionCount = 0;
+    private RegionStats[] regionStats = new RegionStats[0];
+    private long lastRegionStatsChange = 0;
+    private byte[] depthFrameData = null;
+    private long lastDepthFrameChange = 0;
+    private LidarHealth health = new LidarHealth();
 
     public LidarCamera(String networkTableName) {
         networkTable = NetworkTableInstance.getDefault().getTable(networkTableName);
-        regionXStartPub = networkTable.getDoubleTopic("regionXStart").publish();
-        regionXEndPub = networkTable.getDoubleTopic("regionXEnd").publish();
-        regionYStartPub = networkTable.getDoubleTopic("regionYStart").publish();
-        regionYEndPub = networkTable.getDoubleTopic("regionYEnd").publish();
+        regionsPub = networkTable.getIntegerArrayTopic("regions").publish();
+        regionsPub.set(new long[0]);
+        regionPercentilePub = networkTable.getDoubleTopic("regionPercentile").publish();
+        regionPercentilePub.set(10.0);
 
-        zSubscriber = networkTable.getDoubleTopic("z").subscribe(-1.0);
+        regionStatsSubscriber = networkTable.getStructArrayTopic("regionStats", REGION_STATS_STRUCT)
+            .subscribe(new RegionStats[0]);
         counterSubscriber = networkTable.getIntegerTopic("counter").subscribe(-1);
+        // Queue every frame's info, so frames are not counted as dropped when two arrive in one loop
+        frameInfoSubscriber = networkTable.getStructTopic("frameInfo", FRAME_INFO_STRUCT)
+            .subscribe(new FrameInfo(), PubSubOption.sendAll(true), PubSubOption.pollStorage(20));
+
+        depthFrameIntervalPub = networkTable.getIntegerTopic("depthFrameInterval").publish();
+        depthFrameStepPub = networkTable.getIntegerTopic("depthFrameStep").publish();
+        depthFrameEncodingPub = networkTable.getIntegerTopic("depthFrameEncoding").publish();
+        depthFrameSubscriber = networkTable.getRawTopic("depthFrame").subscribe("lidardepth", new byte[0]);
+        setDepthFrameStreaming(0, 1, true);
 
         changeTime.restart();
     }
 
     /**
-     * Sets the lidar's range for checking data points. This one will set a 2d grid for the range of the lidar.
+     * Adds a rectangle of lidar points to measure.
      * 
+     * @param name The region's name, for logging.
      * @param regionXStart The beginning of the x (horizontal) range that the lidar will check.
      * @param regionXEnd The end of the x (horizontal) range that the lidar will check.
      * @param regionYStart The bottom of the y (vertical) range that the lidar will check.
      * @param regionYEnd The top of the y (vertical) range that the lidar will check.
+     * @return The handle used to read the region, or -1 if there are already MAX_REGIONS regions.
      * 
      * <p> Note that if the end number's smaller than the start number, they will be reversed.
      */
-    public void setRegion(double regionXStart, double regionXEnd, double regionYStart, double regionYEnd) {
-        if (regionXEnd < regionXStart) {
-            regionXStartPub.set(regionXEnd);
-            regionXEndPub.set(regionXStart);
-        } else {
-            regionXStartPub.set(regionXStart);
-            regionXEndPub.set(regionXEnd);
-        }
-        if (regionYEnd < regionYStart) {
-            regionYStartPub.set(regionYEnd);
-            regionYEndPub.set(regionYStart);
-        } else {
-            regionYStartPub.set(regionYStart);
-            regionYEndPub.set(regionYEnd);
+    public int addRegion(String name, double regionXStart, double regionXEnd, double regionYStart, double regionYEnd) {
+        if (regionCount == MAX_REGIONS) {
+            return -1;
         }
+        int region = regionCount++;
+        regionNames[region] = name;
+        setRegion(region, regionXStart, regionXEnd, regionYStart, regionYEnd);
+        return region;
     }
 
     /**
-     * Sets the lidar's range for checking data points. This one will set a line across the x axis for a specified 
-     * range at the y value.
+     * Adds a line of lidar points across the x axis at one y value.
      * 
+     * @param name The region's name, for logging.
      * @param regionXStart The beginning of the x (horizontal) range that the lidar will check.
      * @param regionXEnd The end of the x (horizontal) range that the lidar will check.
      * @param regionY The y value that will be checked.
-     * 
-     * <p> Note that if the end number's smaller than the start number, they will be reversed.
+     * @return The handle used to read the region, or -1 if there are already MAX_REGIONS regions.
      */
-    public void setRegion(double regionXStart, double regionXEnd, double regionY) {
-        setRegion(regionXStart, regionXEnd, regionY, regionY);
+    public int addRegion(String name, double regionXStart, double regionXEnd, double regionY) {
+        return addRegion(name, regionXStart, regionXEnd, regionY, regionY);
     }
 
     /**
-     * Sets the lidar's range for checking data points. This one will set a single point.
+     * Adds a single lidar point.
      * 
+     * @param name The region's name, for logging.
      * @param regionX The x component of the point.
      * @param regionY The y component of the point.
+     * @return The handle used to read the region, or -1 if there are already MAX_REGIONS regions.
+     */
+    public int addRegion(String name, double regionX, double regionY) {
+        return addRegion(name, regionX, regionX, regionY, regionY);
+    }
+
+    /**
+     * Moves a region that was already added. The other regions keep being measured.
+     * 
+     * <p> Note that if the end number's smaller than the start number, they will be reversed.
      */
-    public void setRegion(double regionX, double regionY) {
-        setRegion(regionX, regionX, regionY, regionY);
+    public void setRegion(int region, double regionXStart, double regionXEnd, double regionYStart, double regionYEnd) {
+        if (region < 0 || region >= regionCount) {
+            return;
+        }
+        int index = region * 4;
+        regionCorners[index] = (long) Math.min(regionXStart, regionXEnd);
+        regionCorners[index + 1] = (long) Math.max(regionXStart, regionXEnd);
+        regionCorners[index + 2] = (long) Math.min(regionYStart, regionYEnd);
+        regionCorners[index + 3] = (long) Math.max(regionYStart, regionYEnd);
+        regionsPub.set(Arrays.copyOf(regionCorners, regionCount * 4));
+    }
+
+    public int getRegionCount() {
+        return regionCount;
+    }
+
+    public String getRegionName(int region) {
+        return (region >= 0 && region < regionCount) ? regionNames[region] : "";
+    }
+
+    /** Which percentile getRegionPercentile returns, from 0 to 100. Low percentiles are the nearest points. */
+    public void setRegionPercentile(double percentile) {
+        regionPercentilePub.set(percentile);
+    }
+
+    /** Median depth of a region, or -1 if no point in the region had a depth */
+    public double getRegionZ(int region) {
+        RegionStats stats = getRegionStats(region);
+        return stats.validCount > 0 ? stats.median : -1.0;
+    }
+
+    public double getRegionMin(int region) {
+        return getRegionStats(region).min;
+    }
+
+    public double getRegionMedian(int region) {
+        return getRegionStats(region).median;
+    }
+
+    public double getRegionMean(int region) {
+        return getRegionStats(region).mean;
+    }
+
+    public double getRegionPercentile(int region) {
+        return getRegionStats(region).percentile;
+    }
+
+    public int getValidPointCount(int region) {
+        return getRegionStats(region).validCount;
+    }
+
+    public long getFrameCount() {
+        return getRegionStats(0).frame;
+    }
+
+    /** When the LidarPi received the latest frame, in the robot's NetworkTables time (seconds) */
+    public double getCaptureTime() {
+        return getRegionStats(0).captureTime;
+    }
+
+    // Only unpacks the array again when a new frame has arrived. A region the LidarPi has not
+    // measured yet reads as having no valid points.
+    private RegionStats getRegionStats(int region) {
+        long lastChange = regionStatsSubscriber.getLastChange();
+        if (lastChange != lastRegionStatsChange) {
+            regionStats = regionStatsSubscriber.get();
+            lastRegionStatsChange = lastChange;
+        }
+        return (region >= 0 && region < regionStats.length) ? regionStats[region] : NO_REGION_STATS;
+    }
+
+    /**
+     * Ask the LidarPi to send whole depth frames, for debugging. Off by default.
+     *
+     * @param interval     Send every interval-th lidar frame, or 0 to stop sending frames
+     * @param step         Keep every step-th point across and down (1 for the full 160x60 image)
+     * @param isCompressed Send changes between points with runs of equal depths combined, instead of raw depths
+     */
+    public void setDepthFrameStreaming(int interval, int step, boolean isCompressed) {
+        depthFrameIntervalPub.set(interval);
+        depthFrameStepPub.set(step);
+        depthFrameEncodingPub.set(isCompressed ? LidarDepthFrame.ENCODING_DELTA_RLE : LidarDepthFrame.ENCODING_RAW);
+    }
+
+    /**
+     * Decode the latest depth frame into frame. The topic is only read again when a new frame
+     * has arrived, and decoding does not allocate.
+     *
+     * @return false if no frame has been received or it could not be decoded
+     */
+    public boolean getLatestDepthFrame(LidarDepthFrame frame) {
+        long lastChange = depthFrameSubscriber.getLastChange();
+        if (lastChange == 0) {
+            return false;
+        }
+        if (lastChange != lastDepthFrameChange) {
+            depthFrameData = depthFrameSubscriber.get();
+            lastDepthFrameChange = lastChange;
+        }
+        return frame.decode(depthFrameData);
+    }
+
+    /**
+     * Add the frames that arrived since the last call to the health measurements. Call once per loop.
+     *
+     * @param time Robot time, in seconds
+     */
+    public LidarHealth updateHealth(double time) {
+        for (TimestampedObject<FrameInfo> info : frameInfoSubscriber.readQueue()) {
+            health.addFrame(time, info.value.sequence, info.value.lidarFrame, info.value.captureTime);
+        }
+        health.update(time);
+        return health;
     }
 
-    public double getRegionZ() {
-        return zSubscriber.get();
+    public LidarHealth getHealth() {
+        return health;
     }
 
+    /** Whether the LidarPi program is running. It may be running without the lidar sending frames. */
     public boolean isConnected() {
         long counterValue = counterSubscriber.get();
         if (counterValue == -1)
@@ -0,0 +1,111 @@
+// LidarDepthFrame.java - One lidar depth frame streamed from the LidarPi
+package frc.robot;
+
+/**
+ * Decodes the LidarPi's depthFrame topic into a reusable array, without allocating.
+ * Depths are millimeters, stored as unsigned 16 bit values in a short array, one row after
+ * another. Values of 65000 and up are lidar status codes rather than depths.
+ *
+ * <p>Layout (little endian): uint32 frame, double captureTime, uint16 width, uint16 height,
+ * uint8 step, uint8 encoding, then the depths. ENCODING_RAW is one uint16 per point.
+ * ENCODING_DELTA_RLE stores each point as a change from the one before it (the first from 0):
+ * 0x80 | (n - 1) repeats the previous depth n times, 0x01 to 0x7F is a change of (byte - 64),
+ * and 0x00 is followed by an int16 change.
+ */
+public class LidarDepthFrame {
+    public static final int MAX_WIDTH = 160;
+    public static final int MAX_HEIGHT = 60;
+    public static final int MAX_VALID_DEPTH = 65000;
+    public static final int ENCODING_RAW = 0;
+    public static final int ENCODING_DELTA_RLE = 1;
+    public static final int HEADER_SIZE = 4 + 8 + 2 + 2 + 1 + 1;
+
+    public long frame;
+    public double captureTime; // NetworkTables time on the robot, in seconds
+    public int width;
+    public int height;
+    public int step; // Every step-th lidar point across and down was kept
+    public short[] depths = new short[MAX_WIDTH * MAX_HEIGHT];
+
+    /** Depth in millimeters at a point of this frame (not of the full lidar image) */
+    public int getDepth(int x, int y) {
+        return depths[(y * width) + x] & 0xFFFF;
+    }
+
+    public boolean isValidDepth(int depth) {
+        return depth > 0 && depth < MAX_VALID_DEPTH;
+    }
+
+    /**
+     * Read a frame from the bytes of the depthFrame topic.
+     *
+     * @return false if the data is not a complete frame, in which case the old frame may be partly overwritten
+     */
+    public boolean decode(byte[] data) {
+        if (data == null || data.length < HEADER_SIZE) {
+            return false;
+        }
+        frame = getInt(data, 0) & 0xFFFFFFFFL;
+        captureTime = Double.longBitsToDouble((getInt(data, 4) & 0xFFFFFFFFL) | ((long) getInt(data, 8) << 32));
+        width = getUnsignedShort(data, 12);
+        height = getUnsignedShort(data, 14);
+        step = data[16] & 0xFF;
+        int encoding = data[17] & 0xFF;
+        if (width > MAX_WIDTH || height > MAX_HEIGHT) {
+            return false;
+        }
+        int count = width * height;
+
+        int index = HEADER_SIZE;
+        if (encoding == ENCODING_RAW) {
+            if (data.length < index + (count * 2)) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                depths[i] = (short) getUnsignedShort(data, index);
+                index += 2;
+            }
+            return true;
+        }
+        if (encoding != ENCODING_DELTA_RLE) {
+            return false;
+        }
+
+        int previous = 0;
+        int point = 0;
+        while (point < count) {
+            if (index >= data.length) {
+                return false;
+            }
+            int code = data[index++] & 0xFF;
+            if (code >= 0x80) {
+                int repeats = Math.min((code & 0x7F) + 1, count - point);
+                for (int i = 0; i < repeats; i++) {
+                    depths[point++] = (short) previous;
+                }
+                continue;
+            }
+            int change;
+            if (code == 0) {
+                if (index + 2 > data.length) {
+                    return false;
+                }
+                change = (short) getUnsignedShort(data, index);
+                index += 2;
+            } else {
+                change = code - 64;
+            }
+            previous = (previous + change) & 0xFFFF;
+            depths[point++] = (short) previous;
+        }
+        return true;
+    }
+
+    private static int getUnsignedShort(byte[] data, int index) {
+        return (data[index] & 0xFF) | ((data[index + 1] & 0xFF) << 8);
+    }
+
+    private static int getInt(byte[] data, int index) {
+        return getUnsignedShort(data, index) | (getUnsignedShort(data, index + 2) << 16);
+    }
+}
@@ -0,0 +1,100 @@
+// LidarFrameViewer.java - Desktop tool that saves the LidarPi's depth frames as images
+package frc.robot;
+
+import java.io.*;
+
+import edu.wpi.first.networktables.*;
+
+/**
+ * Connects to the robot's NetworkTables, turns on depth frame streaming and writes each frame
+ * as a grayscale PGM image (near is bright, no depth is black) plus a CSV of the depths in
+ * millimeters, for looking at what the lidar sees and for offline analysis.
+ *
+ * <p>Usage: gradlew viewLidar -PlidarArgs=7103,lidar_frames,50,2
+ * (team number or address, output directory, number of frames, point step). Streaming is
+ * left on when the tool exits, until the robot code restarts.
+ */
+public class LidarFrameViewer {
+    private static final int FRAME_INTERVAL = 5; // About 6 frames per second from a 30 Hz lidar
+    private static final int MAX_IMAGE_DEPTH = 5000; // Millimeters shown as the darkest gray
+
+    public static void main(String... args) throws IOException, InterruptedException {
+        String[] values = args.length > 0 ? args[0].split(",") : new String[0];
+        String server = values.length > 0 ? values[0].trim() : "7103";
+        File directory = new File(values.length > 1 ? values[1].trim() : "lidar_frames");
+        int frameCount = values.length > 2 ? Integer.parseInt(values[2].trim()) : 10;
+        int step = values.length > 3 ? Integer.parseInt(values[3].trim()) : 1;
+
+        NetworkTableInstance inst = NetworkTableInstance.getDefault();
+        inst.startClient4("LidarFrameViewer");
+        if (server.matches("\\d+")) {
+            inst.setServerTeam(Integer.parseInt(server));
+        } else {
+            inst.setServer(server);
+        }
+
+        NetworkTable table = inst.getTable("lidar");
+        IntegerPublisher intervalPub = table.getIntegerTopic("depthFrameInterval").publish();
+        IntegerPublisher stepPub = table.getIntegerTopic("depthFrameStep").publish();
+        IntegerPublisher encodingPub = table.getIntegerTopic("depthFrameEncoding").publish();
+        RawSubscriber frameSubscriber = table.getRawTopic("depthFrame").subscribe("lidardepth", new byte[0],
+            PubSubOption.sendAll(true), PubSubOption.pollStorage(20));
+        intervalPub.set(FRAME_INTERVAL);
+        stepPub.set(step);
+        encodingPub.set(LidarDepthFrame.ENCODING_DELTA_RLE);
+
+        directory.mkdirs();
+        LidarDepthFrame frame = new LidarDepthFrame();
+        int saved = 0;
+        System.out.println("Waiting for lidar frames from " + server);
+        while (saved < frameCount) {
+            for (TimestampedRaw value : frameSubscriber.readQueue()) {
+                if (saved == frameCount) {
+                    break;
+                }
+                if (!frame.decode(value.value)) {
+                    System.out.println("Skipped a frame that could not be decoded (" + value.value.length + " bytes)");
+                    continue;
+                }
+                String name = "lidar_" + frame.frame;
+                writeImage(new File(directory, name + ".pgm"), frame);
+                writeCsv(new File(directory, name + ".csv"), frame);
+                System.out.println(name + ": " + frame.width + "x" + frame.height + ", " + value.value.length + " bytes");
+                saved++;
+            }
+            Thread.sleep(20);
+        }
+        inst.flush();
+        inst.close();
+    }
+
+    private static void writeImage(File file, LidarDepthFrame frame) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            out.write(("P5\n" + frame.width + " " + frame.height + "\n255\n").getBytes("US-ASCII"));
+            for (int y = 0; y < frame.height; y++) {
+                for (int x = 0; x < frame.width; x++) {
+                    int depth = frame.getDepth(x, y);
+                    int gray = 0; // Far points stay a little brighter than points with no depth
+                    if (frame.isValidDepth(depth)) {
+                        gray = 255 - (Math.min(depth, MAX_IMAGE_DEPTH) * 224 / MAX_IMAGE_DEPTH);
+                    }
+                    out.write(gray);
+                }
+            }
+        }
+    }
+
+    private static void writeCsv(File file, LidarDepthFrame frame) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+            for (int y = 0; y < frame.height; y++) {
+                for (int x = 0; x < frame.width; x++) {
+                    if (x > 0) {
+                        out.print(",");
+                    }
+                    out.print(frame.getDepth(x, y));
+                }
+                out.println();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+// LidarHealth.java - Frame rate, dropped frames, latency and jitter of the lidar over the last few seconds
+package frc.robot;
+
+/**
+ * Keeps the last WINDOW_SIZE lidar frames in a ring and measures them, so a lidar that is slow,
+ * dropping frames or lagging can be told apart from one that is not sending at all.
+ * Latency is from when the LidarPi received a frame until the robot loop first saw it.
+ * Jitter is the standard deviation of the time between frames, not counting the gaps left by dropped frames.
+ */
+public class LidarHealth {
+    public static final int WINDOW_SIZE = 64; // About 2 seconds of frames at 30 frames per second
+    public static final double MIN_FRAME_RATE = 20; // Frames per second
+    public static final double MAX_LATENCY = 0.1; // Seconds
+    public static final double MAX_FRAME_AGE = 0.5; // Seconds without a frame before the lidar is not capturing
+
+    // Measured over the window
+    public double frameRate = 0; // Frames per second
+    public int droppedFrames = 0; // Lidar frame numbers skipped
+    public double averageLatency = 0; // Seconds
+    public double maxLatency = 0;
+    public double jitter = 0; // Seconds
+    // Since the robot code started
+    public long frameCount = 0;
+    public long totalDroppedFrames = 0;
+    public int restartCount = 0; // Times the LidarPi or the lidar started counting frames over
+    public boolean isCapturing = false;
+
+    private double[] captureTimes = new double[WINDOW_SIZE];
+    private double[] latencies = new double[WINDOW_SIZE];
+    private long[] lidarFrames = new long[WINDOW_SIZE];
+    private int head = 0; // Index of the oldest frame
+    private int count = 0;
+    private long lastSequence = 0;
+    private double lastFrameTime = 0;
+
+    /**
+     * Add a frame. Frames must be added in the order they were sent.
+     *
+     * @param time        Robot time the frame was seen, in seconds
+     * @param sequence    The LidarPi's count of frames, which starts over when it restarts
+     * @param lidarFrame  The lidar's own frame counter
+     * @param captureTime Robot time the LidarPi received the frame, in seconds
+     */
+    public void addFrame(double time, long sequence, long lidarFrame, double captureTime) {
+        long lastLidarFrame = count > 0 ? lidarFrames[physicalIndex(count - 1)] : 0;
+        if (sequence <= lastSequence || (count > 0 && lidarFrame <= lastLidarFrame)) {
+            // The LidarPi or the lidar started over, so the new frames can not be compared with the old ones
+            if (frameCount > 0) {
+                restartCount++;
+            }
+            head = 0;
+            count = 0;
+        } else if (count > 0 && lidarFrame > lastLidarFrame + 1) {
+            totalDroppedFrames += lidarFrame - lastLidarFrame - 1;
+        }
+        lastSequence = sequence;
+
+        int index;
+        if (count < WINDOW_SIZE) {
+            index = physicalIndex(count);
+            count++;
+        } else {
+            index = head;
+            head = (head + 1) % WINDOW_SIZE;
+        }
+        captureTimes[index] = captureTime;
+        latencies[index] = time - captureTime;
+        lidarFrames[index] = lidarFrame;
+        frameCount++;
+        lastFrameTime = time;
+    }
+
+    /** Measure the frames in the window. Call once per loop, after adding the loop's frames. */
+    public void update(double time) {
+        isCapturing = frameCount > 0 && time - lastFrameTime <= MAX_FRAME_AGE;
+        if (!isCapturing) {
+            frameRate = 0;
+            droppedFrames = 0;
+            averageLatency = 0;
+            maxLatency = 0;
+            jitter = 0;
+            return;
+        }
+
+        double latencySum = 0;
+        maxLatency = 0;
+        for (int i = 0; i < count; i++) {
+            double latency = latencies[physicalIndex(i)];
+            latencySum += latency;
+            maxLatency = Math.max(maxLatency, latency);
+        }
+        averageLatency = latencySum / count;
+
+        int oldest = physicalIndex(0);
+        int newest = physicalIndex(count - 1);
+        droppedFrames = (int) (lidarFrames[newest] - lidarFrames[oldest] + 1 - count);
+        if (count < 2) {
+            frameRate = 0;
+            jitter = 0;
+            return;
+        }
+        double elapsedTime = captureTimes[newest] - captureTimes[oldest];
+        double averageInterval = elapsedTime / (lidarFrames[newest] - lidarFrames[oldest]);
+        frameRate = elapsedTime > 0 ? (count - 1) / elapsedTime : 0;
+        double varianceSum = 0;
+        for (int i = 1; i < count; i++) {
+            int index = physicalIndex(i);
+            int lastIndex = physicalIndex(i - 1);
+            double interval = (captureTimes[index] - captureTimes[lastIndex]) / (lidarFrames[index] - lidarFrames[lastIndex]);
+            double intervalError = interval - averageInterval;
+            varianceSum += intervalError * intervalError;
+        }
+        jitter = Math.sqrt(varianceSum / (count - 1));
+    }
+
+    /** Capturing fast enough and recently enough to be used for driving */
+    public boolean isHealthy() {
+        return isCapturing && frameRate >= MIN_FRAME_RATE && averageLatency <= MAX_LATENCY;
+    }
+
+    private int physicalIndex(int logicalIndex) {
+        int index = head + logicalIndex;
+        return index >= WINDOW_SIZE ? index - WINDOW_SIZE : index;
+    }
+}
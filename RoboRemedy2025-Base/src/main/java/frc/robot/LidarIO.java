@@ -0,0 +1,28 @@
+// LidarIO.java - Lidar operations used by the rest of the robot code
+package frc.robot;
+
+/**
+ * Implemented by LidarCamera for the LidarPi and by ReplayLidarIO for log replay. IOFactory
+ * picks the implementation when the robot starts, and returns null if there is no lidar.
+ * Depths are in millimeters.
+ */
+public interface LidarIO {
+    public static final int MAX_REGIONS = 8;
+
+    /** Whether the LidarPi program is running. It may be running without the lidar sending frames. */
+    boolean isConnected();
+
+    /** Add the frames that arrived since the last call to the health measurements. Call once per loop. */
+    LidarHealth updateHealth(double time);
+
+    /** @return The handle used to read the region, or -1 if there are already MAX_REGIONS regions */
+    int addRegion(String name, double regionXStart, double regionXEnd, double regionYStart, double regionYEnd);
+
+    /** Median depth of a region, or -1 if no point in the region had a depth */
+    double getRegionZ(int region);
+
+    long getFrameCount();
+
+    /** When the LidarPi received the latest frame, in the robot's NetworkTables time (seconds) */
+    double getCaptureTime();
+}
@@ -0,0 +1,86 @@
+// LidarRangeFilter.java - Filtered lidar distance and closing velocity, corrected for lidar latency
+package frc.robot;
+
+/**
+ * Turns lidar distances into a smooth distance to whatever is in front of the robot and how fast
+ * the robot is closing on it. Each measurement is moved from the time the lidar frame was captured
+ * to now by taking off how far the robot drove toward it since then, using the pose history. The
+ * result is blended in with an alpha-beta filter, and between frames the distance is moved on by
+ * the closing velocity, so it is current every loop.
+ *
+ * <p>The lidar is assumed to point straight out the front of the robot.
+ */
+public class LidarRangeFilter {
+    private static final double ALPHA = 0.5; // How much of the distance error each frame corrects
+    private static final double BETA = 0.2; // How much of the error, per second, goes into the velocity
+    private static final double MAX_AGE = 0.25; // Seconds without a measurement before the distance is not trusted
+    private static final double MIN_MEASUREMENT_INTERVAL = 0.005; // Seconds
+
+    public double distance = 0; // Inches from the lidar, as of the last predict
+    public double closingVelocity = 0; // Inches per second, positive while getting closer
+    public boolean isValid = false;
+    public double lastMeasurementTime = 0;
+    public double lastPredictTime = 0;
+    public double lastLatency = 0; // Seconds from capture to when the measurement was used
+    public int measurementCount = 0;
+    private Position capturePosition = new Position("lidar capture position", 0, 0, 0);
+
+    /**
+     * Move the distance on to a new time using the closing velocity. Call every loop, before any
+     * new measurement.
+     */
+    public void predict(double time) {
+        if (isValid && time - lastMeasurementTime > MAX_AGE) {
+            isValid = false;
+            closingVelocity = 0;
+        }
+        if (isValid) {
+            distance -= closingVelocity * (time - lastPredictTime);
+        }
+        lastPredictTime = time;
+    }
+
+    /**
+     * Blend in a lidar distance.
+     *
+     * @param time             Current time, the same as the last predict, in seconds
+     * @param captureTime      When the lidar frame was captured, in the same time base
+     * @param measuredDistance Inches from the lidar when the frame was captured
+     * @param history          Recent robot positions, to find how far the robot drove since the capture
+     * @param robotPosition    Current robot position
+     */
+    public void addMeasurement(double time, double captureTime, double measuredDistance, PoseHistory history,
+            Position robotPosition) {
+        if (time - captureTime > MAX_AGE) {
+            return; // Too old to be worth correcting
+        }
+        double currentDistance = measuredDistance;
+        if (captureTime < time && history.getPosition(captureTime, capturePosition)) {
+            double headingRadians = Math.toRadians(capturePosition.getYaw());
+            double xMoved = robotPosition.getX() - capturePosition.getX();
+            double yMoved = robotPosition.getY() - capturePosition.getY();
+            currentDistance -= (xMoved * Math.sin(headingRadians)) + (yMoved * Math.cos(headingRadians));
+        }
+        lastLatency = time - captureTime;
+
+        if (!isValid) {
+            distance = currentDistance;
+            closingVelocity = 0;
+            isValid = true;
+        } else {
+            double elapsedTime = Math.max(time - lastMeasurementTime, MIN_MEASUREMENT_INTERVAL);
+            double error = currentDistance - distance;
+            distance += ALPHA * error;
+            closingVelocity -= (BETA / elapsedTime) * error;
+        }
+        lastMeasurementTime = time;
+        measurementCount++;
+    }
+
+    public void reset() {
+        distance = 0;
+        closingVelocity = 0;
+        isValid = false;
+        measurementCount = 0;
+    }
+}
@@ -4,21 +4,37 @@ package frc.robot;
 import java.util.*;
 
 public class LinearMapper {
+    private static final int START_CAPACITY = 16;
+
     private int maxSize;
 
     LinearMapper() {
         maxSize = 0;
+        inputArray = new double[START_CAPACITY];
+        outputArray = new double[START_CAPACITY];
     }
 
     LinearMapper(int maxSize) {
         this.maxSize = maxSize;
+        inputArray = new double[maxSize];
+        outputArray = new double[maxSize];
     }
 
-    private ArrayList<Double> inputArray = new ArrayList<Double>();
-    private ArrayList<Double> outputArray = new ArrayList<Double>();
+    // Entries are stored in a circular buffer starting at head. Only a bounded
+    // mapper that is full ever moves head, so unbounded mappers always start at 0.
+    private double[] inputArray;
+    private double[] outputArray;
+    private int head = 0;
+    private int size = 0;
     private double inputOffset = 0;
     private double outputOffset = 0;
 
+    // Number of neighboring entries whose inputs go down. When 0, binary search
+    // finds the same segment as a scan from the start.
+    private int descendingCount = 0;
+    // Index of the segment end found by the last calculate
+    private int lastSegment = 1;
+
     public void withInputOffset(double inputOffset) {
         this.inputOffset = inputOffset;
     }
@@ -28,72 +44,113 @@ public class LinearMapper {
     }
 
     public void add(double input, double output) {
+        if (size > 0 && input < inputAt(size - 1)) {
+            descendingCount++;
+        }
         if (maxSize == 0) {
             // If there is no max size, just add the new entry
-            inputArray.add(input);
-            outputArray.add(output);
-        } else {
-            if (inputArray.size() >= maxSize) {
-                // If the max size has been reached, first move all of the existing elements
-                // back one place (losing the oldest one), and then add the new entry to the end
-                for (int i = 0; i < maxSize - 1; i++) {
-                    inputArray.set(i, inputArray.get(i + 1));
-                    outputArray.set(i, outputArray.get(i + 1));
-                }
-                inputArray.set(maxSize - 1, input);
-                outputArray.set(maxSize - 1, output);
-            } else {
-                // If max size has not been reached, then just add the new entry
-                inputArray.add(input);
-                outputArray.add(output);
+            if (size == inputArray.length) {
+                inputArray = Arrays.copyOf(inputArray, size * 2);
+                outputArray = Arrays.copyOf(outputArray, size * 2);
             }
+            inputArray[size] = input;
+            outputArray[size] = output;
+            size++;
+        } else if (size >= maxSize) {
+            // If the max size has been reached, the new entry replaces the oldest one
+            if (maxSize > 1 && inputAt(1) < inputAt(0)) {
+                descendingCount--;
+            }
+            inputArray[head] = input;
+            outputArray[head] = output;
+            head = (head + 1) % maxSize;
+        } else {
+            // If max size has not been reached, then just add the new entry
+            inputArray[size] = input;
+            outputArray[size] = output;
+            size++;
         }
     }
 
     public double calculate(double in) {
         double out = 0;
         double input = in + inputOffset;
-        if (inputArray.size() == 0) {
+        if (size == 0) {
             return 0;
         }
-        if (input <= inputArray.get(0)) {
-            out = outputArray.get(0);
-        } else if (input >= inputArray.get(inputArray.size() - 1)) {
-            out = outputArray.get(outputArray.size() - 1);
+        if (input <= inputAt(0)) {
+            out = outputAt(0);
+        } else if (input >= inputAt(size - 1)) {
+            out = outputAt(size - 1);
         } else {
-            boolean found = false;
-            for (int i = 1; !found; i++) {
-                if (input <= inputArray.get(i)) {
-                    double rise = inputArray.get(i) - inputArray.get(i - 1);
-                    double run = outputArray.get(i) - outputArray.get(i - 1);
-                    double slope = rise / run;
-                    out = ((input - inputArray.get(i - 1)) / slope) + outputArray.get(i - 1);
-                    found = true;
-                }
-            }
+            int i = findSegment(input);
+            double rise = inputAt(i) - inputAt(i - 1);
+            double run = outputAt(i) - outputAt(i - 1);
+            double slope = rise / run;
+            out = ((input - inputAt(i - 1)) / slope) + outputAt(i - 1);
         }
         return out + outputOffset;
     }
 
     public double getMaxInputValue() {
-        if (inputArray.size() > 0)
-            return inputArray.get(inputArray.size() - 1);
+        if (size > 0)
+            return inputAt(size - 1);
         else
             return 0;
     }
 
     public double getMaxOutputValue() {
-        if (outputArray.size() > 0)
-            return outputArray.get(outputArray.size() - 1);
+        if (size > 0)
+            return outputAt(size - 1);
         else
             return 0;
     }
 
     public String getArrayString() {
-        String returnValue = "";
-        for (int i = 0; i < inputArray.size(); i++) {
-            returnValue += inputArray.get(i).toString() + ", " + outputArray.get(i).toString() + "; ";
+        StringBuilder returnValue = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            returnValue.append(Double.toString(inputAt(i))).append(", ")
+                .append(Double.toString(outputAt(i))).append("; ");
+        }
+        return returnValue.toString();
+    }
+
+    // Find the first index (at least 1) whose input is greater than or equal to input.
+    // The caller has already checked that input is between the first and last inputs.
+    private int findSegment(double input) {
+        if (descendingCount > 0) {
+            // Inputs were not added in order, so search from the start like a table lookup
+            int i = 1;
+            while (!(input <= inputAt(i))) {
+                i++;
+            }
+            return i;
+        }
+        int i = lastSegment;
+        if (i < size && inputAt(i - 1) < input && input <= inputAt(i)) {
+            return i; // Same segment as last time
+        }
+        int low = 1;
+        int high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (input <= inputAt(middle)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
         }
-        return returnValue;
+        lastSegment = low;
+        return low;
+    }
+
+    private double inputAt(int index) {
+        int i = head + index;
+        return inputArray[i >= inputArray.length ? i - inputArray.length : i];
+    }
+
+    private double outputAt(int index) {
+        int i = head + index;
+        return outputArray[i >= outputArray.length ? i - outputArray.length : i];
     }
-}
\ No newline at end of file
+}
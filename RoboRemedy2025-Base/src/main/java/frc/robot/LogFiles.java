@@ -0,0 +1,83 @@
+// LogFiles.java - Keeps the log files on the roboRIO from filling its storage
+package frc.robot;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Log files are named prefix + number + extension, with the number going up by one for each new
+ * segment, so the lowest numbers are the oldest.
+ */
+public class LogFiles {
+    private LogFiles() {
+    }
+
+    /**
+     * Delete the oldest log files until the ones left, plus a new segment about to be made,
+     * fit in maxTotalBytes. Files that can not be deleted are skipped.
+     *
+     * @param directory     Where the files are
+     * @param prefix        Start of the file names, like "data_"
+     * @param extension     End of the file names, like ".rrdl"
+     * @param newFileBytes  Size of the segment about to be made
+     * @param maxTotalBytes Most space all of these files may use
+     * @return Number of files deleted
+     */
+    public static int deleteOldest(File directory, String prefix, String extension, long newFileBytes,
+            long maxTotalBytes) {
+        File[] files = directory.listFiles(
+            (dir, name) -> name.startsWith(prefix) && name.endsWith(extension) && getNumber(name, prefix, extension) >= 0);
+        if (files == null) {
+            return 0;
+        }
+        Arrays.sort(files, Comparator.comparingLong(file -> getNumber(file.getName(), prefix, extension)));
+
+        long totalBytes = newFileBytes;
+        for (File file : files) {
+            totalBytes += file.length();
+        }
+        int deletedCount = 0;
+        for (int i = 0; i < files.length && totalBytes > maxTotalBytes; i++) {
+            long length = files[i].length();
+            if (files[i].delete()) {
+                totalBytes -= length;
+                deletedCount++;
+            }
+        }
+        return deletedCount;
+    }
+
+    /**
+     * The highest number of the log files in a directory, or 0 if there are none. New files must
+     * be numbered after it even once the lower numbers are deleted, so they are not taken as oldest.
+     */
+    public static long getHighestNumber(File directory, String prefix, String extension) {
+        long highest = 0;
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.startsWith(prefix) && name.endsWith(extension)) {
+                    highest = Math.max(highest, getNumber(name, prefix, extension));
+                }
+            }
+        }
+        return highest;
+    }
+
+    // The number in a log file name, or -1 if it is not one
+    private static long getNumber(String name, String prefix, String extension) {
+        if (name.length() <= prefix.length() + extension.length()) {
+            return -1;
+        }
+        String number = name.substring(prefix.length(), name.length() - extension.length());
+        if (number.length() > 18) {
+            return -1;
+        }
+        for (int i = 0; i < number.length(); i++) {
+            if (!Character.isDigit(number.charAt(i))) {
+                return -1;
+            }
+        }
+        return Long.parseLong(number);
+    }
+}
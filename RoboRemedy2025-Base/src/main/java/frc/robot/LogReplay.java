@@ -0,0 +1,181 @@
+// LogReplay.java - Runs the robot code on inputs recorded by InputRecorder
+package frc.robot;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import frc.robot.RobotEnums.*;
+
+/**
+ * Feeds each recorded loop through RobotState, Action and AutoRobot as fast as possible,
+ * using the recorded loop times as simulated time, and writes the recalculated outputs
+ * (robot position and module commands) to a CSV file. Replaying the same file always
+ * gives the same CSV, so two versions of the code can be compared with a diff.
+ *
+ * <p>Autonomous is run again from the recorded auto selection. Teleop needs the OI, which
+ * reads the driver station directly, so during teleop loops only RobotState is updated.
+ * The odometry thread does not run. The sample it gave each loop on the robot is replayed
+ * instead, so RobotState measures motion the same way it did on the robot.
+ */
+public class LogReplay {
+    private static final int MODULE_COUNT = 4;
+
+    /**
+     * Replay one or more sessions. Files separated by commas are segments of the same
+     * session and are replayed in order with the same robot objects.
+     * Example: LogReplay inputs_1.rrin,inputs_2.rrin inputs_3.rrin
+     */
+    public static void main(String... args) {
+        if (args.length == 0) {
+            System.out.println("Usage: LogReplay <file.rrin>[,more segments] [more sessions...]");
+            return;
+        }
+        for (String arg : args) {
+            String[] fileNames = arg.split(",");
+            File[] files = new File[fileNames.length];
+            for (int i = 0; i < fileNames.length; i++) {
+                files[i] = new File(fileNames[i].trim());
+            }
+            File outputFile = new File(files[0].getPath().replaceAll("\\" + InputRecorder.FILE_EXTENSION + "$", "")
+                + "_replay.csv");
+            try {
+                long startNanos = System.nanoTime();
+                int count = replay(files, outputFile);
+                double seconds = (System.nanoTime() - startNanos) / 1e9;
+                System.out.println(outputFile.getPath() + ": " + count + " loops in "
+                    + RobotMath.round2(seconds) + " seconds");
+            } catch (IOException e) {
+                System.out.println(arg + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replay the segments of one session.
+     *
+     * @param files      The .rrin files, in the order they were recorded
+     * @param outputFile Where to write the CSV
+     * @return Number of loops replayed
+     */
+    public static int replay(File[] files, File outputFile) throws IOException {
+        ByteBuffer firstBuffer = openSegment(files[0]);
+        ReplayInputs inputs = ReplayInputs.readHeader(firstBuffer);
+        int recordSize = inputs.getRecordSize();
+
+        // The robot objects read the time when they are created, so start at the first loop's time
+        ByteBuffer peek = firstBuffer.duplicate();
+        if (peek.remaining() >= 2 + recordSize && peek.getShort() == InputRecorder.RECORD_MARKER) {
+            RobotTime.useSimulatedTime(peek.getDouble());
+        } else {
+            RobotTime.useSimulatedTime(0);
+        }
+
+        RoboLog rLog = new RoboLog();
+        Electronics e = new Electronics(true, new ReplayIOFactory(inputs), rLog);
+        e.setReplayInputs(inputs);
+        RobotState robotState = new RobotState(e, rLog);
+        Action act = new Action(e, rLog, null, robotState);
+        AutoRobot auto = new AutoRobot(e, rLog, act, robotState, null);
+
+        int count = 0;
+        RobotMode lastMode = RobotMode.Disabled;
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(outputFile)))) {
+            writeCsvHeader(out);
+            for (int fileIndex = 0; fileIndex < files.length; fileIndex++) {
+                ByteBuffer buffer = firstBuffer;
+                if (fileIndex > 0) {
+                    buffer = openSegment(files[fileIndex]);
+                    if (ReplayInputs.readHeader(buffer).getRecordSize() != recordSize) {
+                        throw new IOException(files[fileIndex].getPath() + " has different devices");
+                    }
+                }
+
+                while (buffer.remaining() >= 2 + recordSize) {
+                    if (buffer.getShort() != InputRecorder.RECORD_MARKER) {
+                        break; // Reached the unused part of the segment
+                    }
+                    inputs.readRecord(buffer);
+                    RobotTime.setTime(inputs.time);
+
+                    // There is no dashboard, so use the selections that were on it
+                    robotState.autoSelection = inputs.autoProgram;
+                    robotState.autoStartPosition = inputs.autoStartPosition;
+                    if (inputs.mode == RobotMode.Autonomous && lastMode != RobotMode.Autonomous) {
+                        auto.autonomousInit(inputs.autoProgram != null ? inputs.autoProgram : AutoProgram.None);
+                    }
+                    robotState.robotStatePeriodic(null, null);
+                    if (inputs.mode == RobotMode.Autonomous) {
+                        auto.autonomousPeriodic();
+                    }
+                    lastMode = inputs.mode;
+
+                    writeCsvLine(out, inputs, e, robotState);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static ByteBuffer openSegment(File file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < 6 || buffer.getInt() != InputRecorder.MAGIC) {
+            throw new IOException("Not an input log file");
+        }
+        short version = buffer.getShort();
+        if (version != InputRecorder.VERSION) {
+            throw new IOException("Unsupported input log version " + version);
+        }
+        return buffer;
+    }
+
+    private static void writeCsvHeader(PrintWriter out) {
+        out.print("time,mode,robotX,robotY,gyro,deadReckoningX,deadReckoningY,"
+            + "commandedVelocity,commandedAngle,commandedRotation");
+        for (int i = 0; i < MODULE_COUNT; i++) {
+            out.print(",driveVelocity" + i + ",drivePercent" + i + ",turnPosition" + i + ",turnPercent" + i);
+        }
+        out.println();
+    }
+
+    private static void writeCsvLine(PrintWriter out, ReplayInputs inputs, Electronics e, RobotState robotState) {
+        out.print(inputs.time);
+        out.print(",");
+        out.print(inputs.mode);
+        out.print(",");
+        out.print(robotState.robotPosition.getX());
+        out.print(",");
+        out.print(robotState.robotPosition.getY());
+        out.print(",");
+        out.print(robotState.gyroAngle);
+        out.print(",");
+        out.print(robotState.deadReckoningPosition.getX());
+        out.print(",");
+        out.print(robotState.deadReckoningPosition.getY());
+        out.print(",");
+        out.print(e.getLastTravelVelocityCommand());
+        out.print(",");
+        out.print(e.getLastTravelAngleDegrees());
+        out.print(",");
+        out.print(e.getLastTravelRotationDegreesPerSecond());
+        int moduleCount = Math.min(e.getSwerveModuleCount(), MODULE_COUNT);
+        for (int i = 0; i < MODULE_COUNT; i++) {
+            MotorIO drive = i < moduleCount ? e.getSwerveDriveMotor(i) : null;
+            MotorIO turn = i < moduleCount ? e.getSwerveTurnMotor(i) : null;
+            out.print(",");
+            out.print(drive != null ? drive.getLastAssignedVelocity() : 0);
+            out.print(",");
+            out.print(drive != null ? drive.getLastAssignedPercentage() : 0);
+            out.print(",");
+            out.print(turn != null ? turn.getLastAssignedPosition() : 0);
+            out.print(",");
+            out.print(turn != null ? turn.getLastAssignedPercentage() : 0);
+        }
+        out.println();
+    }
+}
@@ -0,0 +1,164 @@
+// LoopProfiler.java - Measures how long each phase of the robot loop takes
+package frc.robot;
+
+import edu.wpi.first.networktables.*;
+
+public class LoopProfiler {
+    public enum Phase {
+        RobotState,
+        Buttons,
+        Mode,
+        Periodic,
+        Total,
+    }
+
+    private static final long BUCKET_NANOS = 50_000; // 50 microseconds per histogram bucket
+    private static final int BUCKET_COUNT = 1000; // Covers 0 to 50 milliseconds
+    private static final double REPORT_SECONDS = 10.0;
+    private static final double LOOP_BUDGET_MS = 20.0;
+
+    private class PhaseHistogram {
+        public int[] buckets = new int[BUCKET_COUNT];
+        public int count;
+        public long minNanos;
+        public long maxNanos;
+        public double p50Ms;
+        public double p99Ms;
+        public DoubleArrayPublisher publisher;
+
+        public void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets[i] = 0;
+            }
+            count = 0;
+            minNanos = Long.MAX_VALUE;
+            maxNanos = 0;
+        }
+
+        public void add(long nanos) {
+            int bucket = (int) (nanos / BUCKET_NANOS);
+            if (bucket >= BUCKET_COUNT) {
+                bucket = BUCKET_COUNT - 1;
+            } else if (bucket < 0) {
+                bucket = 0;
+            }
+            buckets[bucket]++;
+            count++;
+            minNanos = Math.min(minNanos, nanos);
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        // Upper edge of the bucket holding the requested percentile, in milliseconds
+        public double percentileMs(double percentile) {
+            int target = (int) Math.ceil(count * percentile);
+            int seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += buckets[i];
+                if (seen >= target) {
+                    return Math.min((i + 1) * BUCKET_NANOS, maxNanos) / 1.0e6;
+                }
+            }
+            return maxNanos / 1.0e6;
+        }
+    }
+
+    private RoboLog rLog;
+    private PhaseHistogram[] histograms;
+    private Phase[] phases = Phase.values();
+    private long loopStartNanos;
+    private long phaseStartNanos;
+    private long lastReportNanos;
+    private int overrunCount;
+    private boolean isLoopStarted = false;
+    private double[] publishValues = new double[5];
+    private DoublePublisher overrunPublisher;
+
+    LoopProfiler(RoboLog rLog) {
+        this.rLog = rLog;
+
+        if (this.rLog == null) {
+            System.out.println("Warning: LoopProfiler.rLog is null");
+        }
+
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("LoopProfiler");
+        histograms = new PhaseHistogram[phases.length];
+        for (int i = 0; i < phases.length; i++) {
+            histograms[i] = new PhaseHistogram();
+            histograms[i].reset();
+            // Values are min, p50, p99, max (milliseconds) and loop count
+            histograms[i].publisher = table.getDoubleArrayTopic(phases[i].toString()).publish();
+        }
+        overrunPublisher = table.getDoubleTopic("Overruns").publish();
+        lastReportNanos = System.nanoTime();
+    }
+
+    /** Call at the very start of each periodic method */
+    public void startLoop() {
+        loopStartNanos = System.nanoTime();
+        phaseStartNanos = loopStartNanos;
+        isLoopStarted = true;
+    }
+
+    /** Call when a phase is finished. The next phase starts timing immediately. */
+    public void endPhase(Phase phase) {
+        long now = System.nanoTime();
+        histograms[phase.ordinal()].add(now - phaseStartNanos);
+        phaseStartNanos = now;
+    }
+
+    /** Call at the very end of each periodic method */
+    public void endLoop() {
+        if (!isLoopStarted) {
+            return;
+        }
+        isLoopStarted = false;
+        long now = System.nanoTime();
+        long totalNanos = now - loopStartNanos;
+        histograms[Phase.Total.ordinal()].add(totalNanos);
+        if (totalNanos > LOOP_BUDGET_MS * 1.0e6) {
+            overrunCount++;
+        }
+
+        if (now - lastReportNanos >= REPORT_SECONDS * 1.0e9) {
+            report();
+            lastReportNanos = now;
+        }
+    }
+
+    private void report() {
+        for (int i = 0; i < phases.length; i++) {
+            PhaseHistogram h = histograms[i];
+            if (h.count == 0) {
+                continue;
+            }
+            h.p50Ms = h.percentileMs(0.50);
+            h.p99Ms = h.percentileMs(0.99);
+            publishValues[0] = h.minNanos / 1.0e6;
+            publishValues[1] = h.p50Ms;
+            publishValues[2] = h.p99Ms;
+            publishValues[3] = h.maxNanos / 1.0e6;
+            publishValues[4] = h.count;
+            h.publisher.set(publishValues);
+        }
+        overrunPublisher.set(overrunCount);
+
+        PhaseHistogram total = histograms[Phase.Total.ordinal()];
+        if (total.count > 0) {
+            String line = "Loop ms (min/p50/p99/max)";
+            for (int i = 0; i < phases.length; i++) {
+                PhaseHistogram h = histograms[i];
+                if (h.count > 0) {
+                    line += " " + phases[i] + ":" + RobotMath.round2(h.minNanos / 1.0e6) + "/"
+                        + RobotMath.round2(h.p50Ms) + "/" + RobotMath.round2(h.p99Ms) + "/"
+                        + RobotMath.round2(h.maxNanos / 1.0e6);
+                }
+            }
+            rLog.print(line + " Overruns:" + overrunCount);
+        }
+
+        for (PhaseHistogram h : histograms) {
+            h.reset();
+        }
+        overrunCount = 0;
+    }
+}
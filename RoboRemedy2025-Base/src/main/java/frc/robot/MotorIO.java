@@ -0,0 +1,80 @@
+// MotorIO.java - Motor operations used by the rest of the robot code
+package frc.robot;
+
+import frc.robot.RobotMotor.*;
+
+/**
+ * Implemented by RobotMotor for real motor controllers and by SimMotorIO for running
+ * without hardware. IOFactory picks the implementation when the robot starts.
+ */
+public interface MotorIO {
+    RobotMotorType getMotorType();
+
+    int getMotorID();
+
+    void setInputCurrentLimit(double amps);
+
+    void setOutputCurrentLimit(double amps);
+
+    double getEncoderPosition();
+
+    boolean isEncoderAttached();
+
+    boolean isFXConfigNeeded();
+
+    boolean configReapply();
+
+    double getStatorCurrent();
+
+    double getEncoderVelocity();
+
+    /** Assign the value to be used as the current encoder position. This does not move the motor. */
+    boolean setEncoderValue(double position);
+
+    void setPercentVelocityLinearMapper(LinearMapper mapper);
+
+    LinearMapper getPercentVelocityLinearMapper();
+
+    void setPID(double p, double i, double d, double iZone, boolean isVelocity);
+
+    void setDriveOpenLoopRamp(double rate);
+
+    void setPercent(double percent);
+
+    void setPosition(double desiredPosition);
+
+    /** setPosition with an output percentage (-1 to 1) added to the PID loop's output */
+    void setPosition(double desiredPosition, double feedForward);
+
+    void setVelocity(double velocity);
+
+    void setMaxOutput(double percentOutput);
+
+    void burnFlash();
+
+    void stopMotor();
+
+    double getOutputPercent();
+
+    double getLastAssignedPercentage();
+
+    double getLastAssignedVelocity();
+
+    double getLastAssignedPosition();
+
+    double getLastAssignedFeedForward();
+
+    void rampToPercent(double percent, double maxPercentPerSecond);
+
+    void rampToVelocity(double velocity, double maxVelocityPerSecond);
+
+    void setNeutralModeDeadband(double percentDeadband);
+
+    void setNeutralMode(boolean isCoast);
+
+    void followMotor(MotorIO motorToFollow);
+
+    void setIntegralAccumulator(double value);
+
+    boolean isAttached();
+}
@@ -0,0 +1,50 @@
+// OdometryIO.java - Robot position measured from the swerve modules many times per loop
+package frc.robot;
+
+/**
+ * Implemented by SwerveOdometry, which runs its own thread on the TalonFX position signals, and
+ * by SimOdometryIO for running without hardware. IOFactory picks the implementation when the
+ * robot starts, so the motor interfaces do not need any vendor types.
+ */
+public interface OdometryIO {
+    public static class OdometrySample {
+        public double x;
+        public double y;
+        public double yaw;
+        public double timeStamp;
+        public double distanceTraveled;
+        public long resetCount; // Goes up each time resetPosition moves the position
+
+        public void set(OdometrySample sample) {
+            x = sample.x;
+            y = sample.y;
+            yaw = sample.yaw;
+            timeStamp = sample.timeStamp;
+            distanceTraveled = sample.distanceTraveled;
+            resetCount = sample.resetCount;
+        }
+    }
+
+    void start();
+
+    boolean isRunning();
+
+    /** Cycles run so far. The odometry runs several cycles per loop, so this changes every loop. */
+    long getCycleCount();
+
+    /** Cycles where the module signals did not arrive in time */
+    long getErrorCount();
+
+    /**
+     * Move the odometry position, like when the robot position is set at the start of
+     * autonomous. The jump shows in the sample's resetCount so it is not taken as the robot moving.
+     */
+    void resetPosition(double x, double y);
+
+    /**
+     * Copy the most recent odometry values into sample.
+     *
+     * @return false if the odometry is not running, or no consistent sample could be read
+     */
+    boolean getLatest(OdometrySample sample);
+}
@@ -1,10 +1,20 @@
 // PhotonVisionCamera.java - Controls a PhotonVision camera on an Orange Pi
 package frc.robot;
 
+import java.util.*;
+
 import org.photonvision.*;
 import org.photonvision.targeting.*;
+import edu.wpi.first.math.geometry.*;
+import edu.wpi.first.networktables.*;
+import frc.robot.ReplayInputs.*;
 
-public class PhotonVisionCamera {
+/**
+ * Pipeline results are read on the NetworkTables listener thread as soon as they arrive and
+ * stored in a CameraFrameBuffer, so the robot loop only does table lookups. Every result is kept
+ * with its time stamp, not just the latest one.
+ */
+public class PhotonVisionCamera implements CameraIO {
 
     public static class TargetInfo {
         public boolean isFound;
@@ -14,13 +24,20 @@ public class PhotonVisionCamera {
         public double timeStamp;
     }
 
+    private static final double INCHES_PER_METER = 39.3701;
+
     private PhotonCamera camera;
     private RoboLog rLog;
-    private PhotonPipelineResult lastResult = new PhotonPipelineResult();
+    private CameraFrameBuffer frames = new CameraFrameBuffer();
 
     PhotonVisionCamera (String cameraName, RoboLog rLog) {
         camera = new PhotonCamera(cameraName);
         this.rLog = rLog;
+
+        // PhotonCamera publishes each serialized result to its rawBytes topic
+        Topic resultTopic = camera.getCameraTable().getTopic("rawBytes");
+        NetworkTableInstance.getDefault().addListener(resultTopic, EnumSet.of(NetworkTableEvent.Kind.kValueAll),
+            event -> readResults());
     }
 
     public boolean isConnected() {
@@ -44,74 +61,73 @@ public class PhotonVisionCamera {
     }
 
     public void findSpecificAprilTag(int targetID, TargetInfo info) {
-        info.isFound = false;
-        info.id = 0;
-        info.timeStamp = Double.MAX_VALUE;
-        info.yaw = Double.MAX_VALUE;
-        info.pitch = Double.MAX_VALUE;
         if (camera.isConnected()) {
-            var result = getLatestResult();
-            if (result.hasTargets()) {
-                for (PhotonTrackedTarget target : result.getTargets()) {
-                    if (target.getFiducialId() == targetID) {
-                        info.isFound = true;
-                        info.yaw = target.getYaw();
-                        info.pitch = target.getPitch();
-                        info.timeStamp = result.getTimestampSeconds();
-                        info.id = targetID;
-                    }
-                }
-            }
+            frames.findTag(targetID, info);
+        } else {
+            info.isFound = false;
+            info.id = 0;
+            info.timeStamp = Double.MAX_VALUE;
+            info.yaw = Double.MAX_VALUE;
+            info.pitch = Double.MAX_VALUE;
         }
     }
 
+    public boolean findNextAprilTag(int targetID, double afterTimeStamp, TargetInfo info) {
+        return frames.findNextTag(targetID, afterTimeStamp, info);
+    }
+
     public void getBestShapeByYaw(TargetInfo info) {
-        info.isFound = false;
-        info.yaw = Double.MAX_VALUE;
-        info.pitch = Double.MAX_VALUE;
-        double bestYaw = Double.MAX_VALUE;
         if (camera.isConnected()) {
-            var result = getLatestResult();
-            if (result.hasTargets()) {
-                for (PhotonTrackedTarget target : result.getTargets()) {
-                    if (Math.abs(target.getYaw()) < bestYaw) {
-                        info.isFound = true;
-                        info.yaw = target.getYaw();
-                        info.pitch = target.getPitch();
-                        info.timeStamp = result.getTimestampSeconds();
-                        bestYaw = Math.abs(info.yaw);
-                    }
-                }
-            }
+            frames.findBestByYaw(info);
+        } else {
+            info.isFound = false;
+            info.yaw = Double.MAX_VALUE;
+            info.pitch = Double.MAX_VALUE;
         }
     }
 
     public void getBestShapeByPitch(TargetInfo info) {
-        info.isFound = false;
-        info.yaw = Double.MAX_VALUE;
-        info.pitch = Double.MAX_VALUE;
-        double bestPitch = Double.MAX_VALUE;
         if (camera.isConnected()) {
-            var result = getLatestResult();
-            if (result.hasTargets()) {
-                for (PhotonTrackedTarget target : result.getTargets()) {
-                    if (Math.abs(target.getPitch()) < bestPitch) {
-                        info.isFound = true;
-                        info.yaw = target.getYaw();
-                        info.pitch = target.getPitch();
-                        info.timeStamp = result.getTimestampSeconds();
-                        bestPitch = Math.abs(info.pitch);
-                    }
-                }
-            }
+            frames.findBestByPitch(info);
+        } else {
+            info.isFound = false;
+            info.yaw = Double.MAX_VALUE;
+            info.pitch = Double.MAX_VALUE;
         }
     }
 
-    private PhotonPipelineResult getLatestResult() {
-        var results = camera.getAllUnreadResults();
-        if (!results.isEmpty()) {
-            lastResult = results.get(results.size() - 1);
+    public void getLatestTargets(CameraInputs targets) {
+        targets.isConnected = camera.isConnected();
+        if (targets.isConnected) {
+            frames.getLatestTargets(targets);
+        } else {
+            targets.timeStamp = 0;
+            targets.targetCount = 0;
+        }
+    }
+
+    public boolean getNextTargets(double afterTimeStamp, CameraInputs targets) {
+        targets.isConnected = camera.isConnected();
+        return frames.getNextTargets(afterTimeStamp, targets);
+    }
+
+    /** Number of pipeline results received since the program started */
+    public long getFrameCount() {
+        return frames.getFrameCount();
+    }
+
+    // Runs on the NetworkTables listener thread each time the camera publishes a result
+    private void readResults() {
+        for (PhotonPipelineResult result : camera.getAllUnreadResults()) {
+            frames.beginFrame(result.getTimestampSeconds());
+            for (PhotonTrackedTarget target : result.getTargets()) {
+                // The 3D transform is only filled in when the pipeline is in 3D mode
+                Transform3d cameraToTarget = target.getBestCameraToTarget();
+                double distance = Math.hypot(cameraToTarget.getX(), cameraToTarget.getY()) * INCHES_PER_METER;
+                frames.addTarget(target.getFiducialId(), target.getYaw(), target.getPitch(), distance,
+                    target.getPoseAmbiguity());
+            }
+            frames.endFrame();
         }
-        return lastResult;
     }
 }
@@ -0,0 +1,110 @@
+// PoseEstimator.java - Combines measured robot movement and vision into one robot position
+package frc.robot;
+
+/**
+ * Keeps the robot position from measured wheel movement, and corrects it with camera
+ * field positions using a Kalman filter update for x and y. The robot heading always comes from the gyro.
+ */
+public class PoseEstimator {
+    // Position estimate uncertainty, as standard deviations in inches
+    private static final int POSE_HISTORY_SIZE = 80; // A little over 1.5 seconds of 20 ms loops
+    private static final double START_POSITION_STD_DEV = 24.0;
+    private static final double ODOMETRY_STD_DEV_PER_INCH = 0.05; // Wheel slip per inch driven
+    private static final double FIRST_VISION_MAX_STD_DEV = 8.0;
+    private static final double VISION_REJECT_STD_DEVS = 4.0;
+
+    public Position robotPosition = new Position("robot position", 0, 0, 0);
+    public Position deadReckoningPosition = new Position("dead reckoning position", 0, 0, 0);
+    public PoseHistory poseHistory = new PoseHistory(POSE_HISTORY_SIZE);
+    public double positionVariance = START_POSITION_STD_DEV * START_POSITION_STD_DEV;
+    public int visionAcceptedCount = 0;
+    public int visionRejectedCount = 0;
+    public boolean isFieldPositionKnown = false;
+    private Position historyPosition = new Position("history position", 0, 0, 0);
+
+    /**
+     * Put the robot at a known position, like its starting spot when autonomous starts. The
+     * position is then relative to that spot again until vision moves it onto the field.
+     */
+    public void resetPosition(double x, double y, double gyroAngle) {
+        robotPosition.setPosition(x, y, gyroAngle);
+        deadReckoningPosition.setPosition(x, y, gyroAngle);
+        poseHistory.clear();
+        positionVariance = START_POSITION_STD_DEV * START_POSITION_STD_DEV;
+        isFieldPositionKnown = false;
+    }
+
+    /**
+     * Predict: move by the measured movement, and become less certain as the wheels may slip.
+     *
+     * @param time           Time of this measurement, in seconds
+     * @param xDistance      Field X movement since the last call, in inches
+     * @param yDistance      Field Y movement since the last call, in inches
+     * @param distanceMoved  Distance driven since the last call, in inches
+     * @param gyroAngle      Robot heading, in degrees
+     */
+    public void addMeasuredMotion(double time, double xDistance, double yDistance, double distanceMoved,
+            double gyroAngle) {
+        deadReckoningPosition.addToPosition(xDistance, yDistance);
+        deadReckoningPosition.setYaw(gyroAngle);
+
+        robotPosition.addToPosition(xDistance, yDistance);
+        robotPosition.setYaw(gyroAngle);
+        double odometryStdDev = ODOMETRY_STD_DEV_PER_INCH * distanceMoved;
+        positionVariance += odometryStdDev * odometryStdDev;
+        poseHistory.add(time, robotPosition.getX(), robotPosition.getY(), gyroAngle);
+    }
+
+    /**
+     * Correct the position with a field position calculated from a camera image. Until the first
+     * one arrives the position is only relative to where the robot started, so the first certain
+     * enough one moves the robot onto the field instead of being blended in.
+     *
+     * @param timeStamp Time the image was taken, in seconds
+     * @param x         Field X position, in inches
+     * @param y         Field Y position, in inches
+     * @param stdDev    Standard deviation of the position, in inches
+     */
+    public void addVisionPosition(double timeStamp, double x, double y, double stdDev) {
+        if (!poseHistory.getPosition(timeStamp, historyPosition)) {
+            return; // Image is older than the position history
+        }
+        if (!isFieldPositionKnown) {
+            if (stdDev > FIRST_VISION_MAX_STD_DEV) {
+                visionRejectedCount++;
+                return;
+            }
+            double xChange = x - historyPosition.getX();
+            double yChange = y - historyPosition.getY();
+            robotPosition.addToPosition(xChange, yChange);
+            poseHistory.shift(xChange, yChange);
+            positionVariance = stdDev * stdDev;
+            isFieldPositionKnown = true;
+            visionAcceptedCount++;
+            return;
+        }
+        fuse(x, y, stdDev);
+    }
+
+    // The vision position is compared with where the robot was when the image was taken
+    // (historyPosition), and the difference is weighted by how certain each of them is.
+    private void fuse(double visionX, double visionY, double visionStdDev) {
+        double visionVariance = visionStdDev * visionStdDev;
+        double xError = visionX - historyPosition.getX();
+        double yError = visionY - historyPosition.getY();
+        double errorSquared = (xError * xError) + (yError * yError);
+        double totalVariance = positionVariance + visionVariance;
+        if (errorSquared > VISION_REJECT_STD_DEVS * VISION_REJECT_STD_DEVS * totalVariance) {
+            visionRejectedCount++;
+            return;
+        }
+
+        double gain = positionVariance / totalVariance;
+        double xCorrection = gain * xError;
+        double yCorrection = gain * yError;
+        robotPosition.addToPosition(xCorrection, yCorrection);
+        poseHistory.shift(xCorrection, yCorrection);
+        positionVariance = (1 - gain) * positionVariance;
+        visionAcceptedCount++;
+    }
+}
@@ -0,0 +1,118 @@
+// PoseHistory.java - Time stamped history of recent robot positions
+package frc.robot;
+
+/**
+ * Keeps the most recent robot positions in a fixed size ring buffer so a position can be
+ * looked up at the time a camera image was taken. Nothing is allocated after construction.
+ * Times must be added in increasing order.
+ */
+public class PoseHistory {
+    private double[] times;
+    private double[] xValues;
+    private double[] yValues;
+    private double[] yawValues;
+    private int head = 0; // Index of the oldest sample
+    private int count = 0;
+
+    /**
+     * @param size Number of samples to keep. For example, 1.5 seconds of 20 ms loops is 75.
+     */
+    PoseHistory(int size) {
+        times = new double[size];
+        xValues = new double[size];
+        yValues = new double[size];
+        yawValues = new double[size];
+    }
+
+    /**
+     * Add a position, replacing the oldest one when full. A time that is not newer than
+     * the newest sample replaces the newest sample.
+     */
+    public void add(double time, double x, double y, double yaw) {
+        int index;
+        if (count > 0 && time <= times[physicalIndex(count - 1)]) {
+            index = physicalIndex(count - 1);
+        } else if (count < times.length) {
+            index = physicalIndex(count);
+            count++;
+        } else {
+            index = head;
+            head = (head + 1) % times.length;
+        }
+        times[index] = time;
+        xValues[index] = x;
+        yValues[index] = y;
+        yawValues[index] = yaw;
+    }
+
+    /** Move every stored position, so later lookups include a correction made to the current position */
+    public void shift(double xChange, double yChange) {
+        for (int i = 0; i < count; i++) {
+            xValues[i] += xChange;
+            yValues[i] += yChange;
+        }
+    }
+
+    public void clear() {
+        head = 0;
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public double getOldestTime() {
+        return count > 0 ? times[head] : 0;
+    }
+
+    public double getNewestTime() {
+        return count > 0 ? times[physicalIndex(count - 1)] : 0;
+    }
+
+    /**
+     * Find the position at a time by interpolating between the samples on either side of it.
+     * Times newer than the newest sample use the newest sample.
+     *
+     * @param time   Time to look up, in the same time base as add
+     * @param result Filled in with x, y and yaw
+     * @return false if the history is empty or the time is older than the oldest sample
+     */
+    public boolean getPosition(double time, Position result) {
+        if (count == 0 || time < times[head]) {
+            return false;
+        }
+        int newest = physicalIndex(count - 1);
+        if (time >= times[newest]) {
+            result.setPosition(xValues[newest], yValues[newest], yawValues[newest]);
+            return true;
+        }
+
+        // Binary search for the first sample newer than time
+        int low = 1;
+        int high = count - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[physicalIndex(middle)] > time) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        int after = physicalIndex(low);
+        int before = physicalIndex(low - 1);
+        double fraction = (time - times[before]) / (times[after] - times[before]);
+
+        double yawChange = Position.getAngleChange(yawValues[before], yawValues[after]);
+        result.setPosition(
+            xValues[before] + ((xValues[after] - xValues[before]) * fraction),
+            yValues[before] + ((yValues[after] - yValues[before]) * fraction),
+            yawValues[before] + (yawChange * fraction));
+        return true;
+    }
+
+    private int physicalIndex(int logicalIndex) {
+        int index = head + logicalIndex;
+        return index >= times.length ? index - times.length : index;
+    }
+}
@@ -175,4 +175,18 @@ public class Position {
         this.x += x;
         this.y += y;
     }
+
+    /**
+     * The change from one angle to another the short way, from -180 to 180 degrees.
+     * Use this whenever two headings are subtracted, so a step across 0/360 is not taken as a full turn.
+     */
+    public static double getAngleChange(double fromAngle, double toAngle) {
+        double change = (toAngle - fromAngle) % 360;
+        if (change > 180) {
+            change -= 360;
+        } else if (change < -180) {
+            change += 360;
+        }
+        return change;
+    }
 }
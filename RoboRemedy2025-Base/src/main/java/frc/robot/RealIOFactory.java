@@ -0,0 +1,42 @@
+// RealIOFactory.java - Creates hardware objects for the real robot
+package frc.robot;
+
+import frc.robot.RobotMotor.*;
+
+public class RealIOFactory implements IOFactory {
+
+    public MotorIO createMotor(RobotMotorType motorType, int motorID, boolean isInverted, boolean isCoast,
+            RoboLog rLog, double unitsPerRevolution, double maxCurrent, double statorCurrent,
+            RobotEncoderType encoderType, int absoluteEncoderID, boolean isUsingVoltageCompensation) {
+        return new RobotMotor(motorType, motorID, isInverted, isCoast, rLog, unitsPerRevolution, maxCurrent,
+            statorCurrent, encoderType, absoluteEncoderID, isUsingVoltageCompensation);
+    }
+
+    public EncoderIO createCANcoder(int id, boolean isInverted, RoboLog rLog) {
+        return new RobotCANcoder(id, isInverted, rLog);
+    }
+
+    public GyroIO createGyro() {
+        return new RobotGyro();
+    }
+
+    public CameraIO createCamera(String cameraName, RoboLog rLog) {
+        return new PhotonVisionCamera(cameraName, rLog);
+    }
+
+    public LidarIO createLidar(String networkTableName) {
+        return new LidarCamera(networkTableName);
+    }
+
+    public LEDIO createLEDs(int port, int ledCount) {
+        return new LEDString(port, ledCount);
+    }
+
+    public OdometryIO createOdometry(SwerveModule[] modules, GyroIO gyro, SwerveState kinematics, RoboLog rLog) {
+        return new SwerveOdometry(modules, gyro, kinematics, rLog);
+    }
+
+    public boolean isHeadless() {
+        return false;
+    }
+}
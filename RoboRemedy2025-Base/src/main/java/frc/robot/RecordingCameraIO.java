@@ -0,0 +1,75 @@
+// RecordingCameraIO.java - Vision camera that remembers the results it gave the robot code, so they can be recorded
+package frc.robot;
+
+import frc.robot.PhotonVisionCamera.*;
+import frc.robot.ReplayInputs.*;
+
+/**
+ * Passes every call on to the real camera. Each result handed out by getNextTargets is copied
+ * into the CameraFrames being recorded, so a replay sees the same results in the same loops
+ * even when several arrive in one loop or one arrives after InputRecorder.capture. Once
+ * MAX_FRAMES results have been handed out in a loop, the rest wait for the next loop.
+ */
+public class RecordingCameraIO implements CameraIO {
+    private CameraIO camera;
+    private CameraFrames recorded = new CameraFrames();
+
+    RecordingCameraIO(CameraIO camera) {
+        this.camera = camera;
+    }
+
+    /** Keep the results in frames from now on */
+    public void recordInto(CameraFrames frames) {
+        recorded = frames;
+    }
+
+    /** Start a new loop with no results handed out */
+    public void clearFrames() {
+        recorded.count = 0;
+    }
+
+    public boolean isConnected() {
+        return camera.isConnected();
+    }
+
+    public void setDriverMode(boolean driveMode) {
+        camera.setDriverMode(driveMode);
+    }
+
+    public void takeNoteSnapshot() {
+        camera.takeNoteSnapshot();
+    }
+
+    public void findSpecificAprilTag(int targetID, TargetInfo info) {
+        camera.findSpecificAprilTag(targetID, info);
+    }
+
+    public boolean findNextAprilTag(int targetID, double afterTimeStamp, TargetInfo info) {
+        return camera.findNextAprilTag(targetID, afterTimeStamp, info);
+    }
+
+    public void getBestShapeByYaw(TargetInfo info) {
+        camera.getBestShapeByYaw(info);
+    }
+
+    public void getBestShapeByPitch(TargetInfo info) {
+        camera.getBestShapeByPitch(info);
+    }
+
+    public void getLatestTargets(CameraInputs targets) {
+        camera.getLatestTargets(targets);
+    }
+
+    public boolean getNextTargets(double afterTimeStamp, CameraInputs targets) {
+        if (recorded.count >= ReplayInputs.MAX_FRAMES) {
+            targets.timeStamp = 0;
+            targets.targetCount = 0;
+            return false;
+        }
+        if (!camera.getNextTargets(afterTimeStamp, targets)) {
+            return false;
+        }
+        recorded.frames[recorded.count++].set(targets);
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+// RecordingIOFactory.java - Creates hardware objects and remembers them so their inputs can be recorded
+package frc.robot;
+
+import java.util.*;
+import frc.robot.RobotMotor.*;
+
+/**
+ * Passes every request on to another factory (normally RealIOFactory) and keeps a list of
+ * what was created, with the CAN IDs and camera names that InputRecorder needs. The cameras,
+ * lidar and odometry are wrapped so the values the robot code reads from them can be recorded.
+ */
+public class RecordingIOFactory implements IOFactory {
+    private IOFactory io;
+
+    private ArrayList<MotorIO> motors = new ArrayList<>();
+    private ArrayList<Integer> motorIDs = new ArrayList<>();
+    private ArrayList<EncoderIO> encoders = new ArrayList<>();
+    private ArrayList<Integer> encoderIDs = new ArrayList<>();
+    private ArrayList<RecordingCameraIO> cameras = new ArrayList<>();
+    private ArrayList<String> cameraNames = new ArrayList<>();
+    private GyroIO gyro = null;
+    private RecordingLidarIO lidar = null;
+    private RecordingOdometryIO odometry = null;
+
+    RecordingIOFactory(IOFactory io) {
+        this.io = io;
+    }
+
+    public MotorIO createMotor(RobotMotorType motorType, int motorID, boolean isInverted, boolean isCoast,
+            RoboLog rLog, double unitsPerRevolution, double maxCurrent, double statorCurrent,
+            RobotEncoderType encoderType, int absoluteEncoderID, boolean isUsingVoltageCompensation) {
+        MotorIO motor = io.createMotor(motorType, motorID, isInverted, isCoast, rLog, unitsPerRevolution,
+            maxCurrent, statorCurrent, encoderType, absoluteEncoderID, isUsingVoltageCompensation);
+        motors.add(motor);
+        motorIDs.add(motorID);
+        return motor;
+    }
+
+    public EncoderIO createCANcoder(int id, boolean isInverted, RoboLog rLog) {
+        EncoderIO encoder = io.createCANcoder(id, isInverted, rLog);
+        encoders.add(encoder);
+        encoderIDs.add(id);
+        return encoder;
+    }
+
+    public GyroIO createGyro() {
+        gyro = io.createGyro();
+        return gyro;
+    }
+
+    public CameraIO createCamera(String cameraName, RoboLog rLog) {
+        RecordingCameraIO camera = new RecordingCameraIO(io.createCamera(cameraName, rLog));
+        cameras.add(camera);
+        cameraNames.add(cameraName);
+        return camera;
+    }
+
+    public LidarIO createLidar(String networkTableName) {
+        LidarIO realLidar = io.createLidar(networkTableName);
+        lidar = realLidar != null ? new RecordingLidarIO(realLidar) : null;
+        return lidar;
+    }
+
+    public LEDIO createLEDs(int port, int ledCount) {
+        return io.createLEDs(port, ledCount);
+    }
+
+    public OdometryIO createOdometry(SwerveModule[] modules, GyroIO gyro, SwerveState kinematics, RoboLog rLog) {
+        odometry = new RecordingOdometryIO(io.createOdometry(modules, gyro, kinematics, rLog));
+        return odometry;
+    }
+
+    public boolean isHeadless() {
+        return io.isHeadless();
+    }
+
+    public MotorIO[] getMotors() {
+        return motors.toArray(new MotorIO[0]);
+    }
+
+    public EncoderIO[] getEncoders() {
+        return encoders.toArray(new EncoderIO[0]);
+    }
+
+    public RecordingCameraIO[] getCameras() {
+        return cameras.toArray(new RecordingCameraIO[0]);
+    }
+
+    public GyroIO getGyro() {
+        return gyro;
+    }
+
+    /** An empty set of inputs with room for every device created so far. The cameras, lidar and odometry record into it. */
+    public ReplayInputs createInputs() {
+        int[] motorIDArray = new int[motorIDs.size()];
+        for (int i = 0; i < motorIDArray.length; i++) {
+            motorIDArray[i] = motorIDs.get(i);
+        }
+        int[] encoderIDArray = new int[encoderIDs.size()];
+        for (int i = 0; i < encoderIDArray.length; i++) {
+            encoderIDArray[i] = encoderIDs.get(i);
+        }
+        ReplayInputs inputs = new ReplayInputs(motorIDArray, encoderIDArray, cameraNames.toArray(new String[0]));
+        for (int i = 0; i < cameras.size(); i++) {
+            cameras.get(i).recordInto(inputs.cameraFrames[i]);
+        }
+        if (lidar != null) {
+            lidar.recordInto(inputs.lidar);
+        }
+        if (odometry != null) {
+            odometry.recordInto(inputs.odometry);
+        }
+        return inputs;
+    }
+}
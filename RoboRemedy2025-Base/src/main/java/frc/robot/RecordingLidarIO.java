@@ -0,0 +1,62 @@
+// RecordingLidarIO.java - Lidar that remembers what it gave the robot code, so it can be recorded
+package frc.robot;
+
+import frc.robot.ReplayInputs.*;
+
+/**
+ * Passes every call on to the real lidar. New frames arrive over NetworkTables at any time, so
+ * InputRecorder can not read its own copy and get the same values; instead the values the robot
+ * code was given this loop are kept for it.
+ */
+public class RecordingLidarIO implements LidarIO {
+    private LidarIO lidar;
+    private LidarInputs recorded = new LidarInputs();
+
+    RecordingLidarIO(LidarIO lidar) {
+        this.lidar = lidar;
+    }
+
+    /** Keep the values in inputs from now on */
+    public void recordInto(LidarInputs inputs) {
+        recorded = inputs;
+    }
+
+    public boolean isConnected() {
+        recorded.isConnected = lidar.isConnected();
+        return recorded.isConnected;
+    }
+
+    public LidarHealth updateHealth(double time) {
+        LidarHealth health = lidar.updateHealth(time);
+        recorded.isCapturing = health.isCapturing;
+        recorded.frameRate = health.frameRate;
+        recorded.droppedFrames = health.droppedFrames;
+        recorded.averageLatency = health.averageLatency;
+        recorded.maxLatency = health.maxLatency;
+        recorded.jitter = health.jitter;
+        return health;
+    }
+
+    public int addRegion(String name, double regionXStart, double regionXEnd, double regionYStart,
+            double regionYEnd) {
+        return lidar.addRegion(name, regionXStart, regionXEnd, regionYStart, regionYEnd);
+    }
+
+    public double getRegionZ(int region) {
+        double regionZ = lidar.getRegionZ(region);
+        if (region >= 0 && region < recorded.regionZs.length) {
+            recorded.regionZs[region] = regionZ;
+        }
+        return regionZ;
+    }
+
+    public long getFrameCount() {
+        recorded.frameCount = lidar.getFrameCount();
+        return recorded.frameCount;
+    }
+
+    public double getCaptureTime() {
+        recorded.captureTime = lidar.getCaptureTime();
+        return recorded.captureTime;
+    }
+}
@@ -0,0 +1,54 @@
+// RecordingOdometryIO.java - Odometry that remembers what it gave the main loop, so it can be recorded
+package frc.robot;
+
+import frc.robot.ReplayInputs.*;
+
+/**
+ * Passes every call on to the real odometry. The thread publishes a new sample several times
+ * per loop, so InputRecorder can not read its own copy and get the same one; instead the values
+ * the robot code was given this loop are kept for it.
+ */
+public class RecordingOdometryIO implements OdometryIO {
+    private OdometryIO odometry;
+    private OdometryInputs recorded = new OdometryInputs();
+
+    RecordingOdometryIO(OdometryIO odometry) {
+        this.odometry = odometry;
+    }
+
+    /** Keep the values in inputs from now on */
+    public void recordInto(OdometryInputs inputs) {
+        recorded = inputs;
+    }
+
+    public void start() {
+        odometry.start();
+    }
+
+    public boolean isRunning() {
+        recorded.isRunning = odometry.isRunning();
+        return recorded.isRunning;
+    }
+
+    public long getCycleCount() {
+        recorded.cycleCount = odometry.getCycleCount();
+        return recorded.cycleCount;
+    }
+
+    public long getErrorCount() {
+        recorded.errorCount = odometry.getErrorCount();
+        return recorded.errorCount;
+    }
+
+    public void resetPosition(double x, double y) {
+        odometry.resetPosition(x, y);
+    }
+
+    public boolean getLatest(OdometrySample sample) {
+        recorded.hasSample = odometry.getLatest(sample);
+        if (recorded.hasSample) {
+            recorded.sample.set(sample);
+        }
+        return recorded.hasSample;
+    }
+}
@@ -0,0 +1,131 @@
+// ReplayCameraIO.java - Vision camera that reports the targets recorded on the robot
+package frc.robot;
+
+import frc.robot.PhotonVisionCamera.*;
+import frc.robot.ReplayInputs.*;
+
+/**
+ * Searches the recorded targets the same way PhotonVisionCamera searches a pipeline result.
+ * getNextTargets steps through the results the robot code read that loop on the robot, in order.
+ */
+public class ReplayCameraIO implements CameraIO {
+    private CameraInputs targets;
+    private CameraFrames frames;
+
+    ReplayCameraIO(String cameraName, ReplayInputs inputs) {
+        int index = inputs.getCameraIndex(cameraName);
+        targets = index >= 0 ? inputs.cameras[index] : new CameraInputs();
+        frames = index >= 0 ? inputs.cameraFrames[index] : new CameraFrames();
+    }
+
+    public boolean isConnected() {
+        return targets.isConnected;
+    }
+
+    public void setDriverMode(boolean driveMode) {
+    }
+
+    public void takeNoteSnapshot() {
+    }
+
+    public void findSpecificAprilTag(int targetID, TargetInfo info) {
+        clear(info);
+        info.id = 0;
+        info.timeStamp = Double.MAX_VALUE;
+        if (targets.isConnected) {
+            for (int i = 0; i < targets.targetCount; i++) {
+                if (targets.ids[i] == targetID) {
+                    setTarget(info, i);
+                    info.id = targetID;
+                }
+            }
+        }
+    }
+
+    // Searches the results the robot code read with getNextTargets, the only ones recorded
+    public boolean findNextAprilTag(int targetID, double afterTimeStamp, TargetInfo info) {
+        clear(info);
+        info.id = 0;
+        info.timeStamp = Double.MAX_VALUE;
+        CameraInputs next = getNextFrame(afterTimeStamp);
+        if (next == null) {
+            return false;
+        }
+        for (int i = 0; i < next.targetCount; i++) {
+            if (next.ids[i] == targetID) {
+                info.isFound = true;
+                info.id = targetID;
+                info.yaw = next.yaws[i];
+                info.pitch = next.pitches[i];
+            }
+        }
+        info.timeStamp = next.timeStamp;
+        return true;
+    }
+
+    public void getBestShapeByYaw(TargetInfo info) {
+        clear(info);
+        double bestYaw = Double.MAX_VALUE;
+        if (targets.isConnected) {
+            for (int i = 0; i < targets.targetCount; i++) {
+                if (Math.abs(targets.yaws[i]) < bestYaw) {
+                    setTarget(info, i);
+                    bestYaw = Math.abs(info.yaw);
+                }
+            }
+        }
+    }
+
+    public void getBestShapeByPitch(TargetInfo info) {
+        clear(info);
+        double bestPitch = Double.MAX_VALUE;
+        if (targets.isConnected) {
+            for (int i = 0; i < targets.targetCount; i++) {
+                if (Math.abs(targets.pitches[i]) < bestPitch) {
+                    setTarget(info, i);
+                    bestPitch = Math.abs(info.pitch);
+                }
+            }
+        }
+    }
+
+    public void getLatestTargets(CameraInputs latest) {
+        latest.set(targets);
+    }
+
+    public boolean getNextTargets(double afterTimeStamp, CameraInputs next) {
+        CameraInputs frame = getNextFrame(afterTimeStamp);
+        if (frame == null) {
+            next.isConnected = targets.isConnected;
+            next.timeStamp = 0;
+            next.targetCount = 0;
+            return false;
+        }
+        next.set(frame);
+        return true;
+    }
+
+    // The oldest result read this loop that is newer than afterTimeStamp, or null if there is none
+    private CameraInputs getNextFrame(double afterTimeStamp) {
+        for (int i = 0; i < frames.count; i++) {
+            if (frames.frames[i].timeStamp > afterTimeStamp) {
+                return frames.frames[i];
+            }
+        }
+        return null;
+    }
+
+    // Like PhotonVisionCamera, the shape searches leave the time stamp alone when nothing is found
+    private void clear(TargetInfo info) {
+        info.isFound = false;
+        info.yaw = Double.MAX_VALUE;
+        info.pitch = Double.MAX_VALUE;
+    }
+
+    private void setTarget(TargetInfo info, int index) {
+        info.isFound = true;
+        info.yaw = targets.yaws[index];
+        info.pitch = targets.pitches[index];
+        info.timeStamp = targets.timeStamp;
+    }
+}
@@ -0,0 +1,31 @@
+// ReplayEncoderIO.java - Absolute encoder that reports the values recorded on the robot
+package frc.robot;
+
+/** The recorded angles already include any change the robot made to the encoder, so setting does nothing */
+public class ReplayEncoderIO implements EncoderIO {
+    private ReplayInputs inputs;
+    private int index;
+
+    ReplayEncoderIO(int id, ReplayInputs inputs) {
+        this.inputs = inputs;
+        index = inputs.getEncoderIndex(id);
+    }
+
+    public double getAbsoluteAngle() {
+        return index >= 0 ? inputs.encoderAbsoluteAngles[index] : ERROR_ANGLE;
+    }
+
+    public void setAbsoluteAngle(double angle) {
+    }
+
+    public double getAngle() {
+        return index >= 0 ? inputs.encoderAngles[index] : 0;
+    }
+
+    public void setAngle(double angle) {
+    }
+
+    public boolean isAttached() {
+        return index >= 0 && inputs.encoderAttached[index];
+    }
+}
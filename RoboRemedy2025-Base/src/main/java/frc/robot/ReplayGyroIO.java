@@ -0,0 +1,41 @@
+// ReplayGyroIO.java - Gyro that reports the values recorded on the robot
+package frc.robot;
+
+import edu.wpi.first.util.sendable.*;
+
+/** The recorded yaw already includes any reset the robot made, so setting the yaw does nothing */
+public class ReplayGyroIO implements GyroIO {
+    private ReplayInputs inputs;
+
+    ReplayGyroIO(ReplayInputs inputs) {
+        this.inputs = inputs;
+    }
+
+    public float getYaw() {
+        return inputs.gyroYaw;
+    }
+
+    public void setYaw(double yawAngle) {
+    }
+
+    public void setSimulationYaw(double yawAngle) {
+    }
+
+    public float getPitch() {
+        return inputs.gyroPitch;
+    }
+
+    public float getRoll() {
+        return inputs.gyroRoll;
+    }
+
+    public long getLastSensorTimestamp() {
+        return inputs.gyroTimestamp;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("Gyro");
+        builder.addDoubleProperty("Value", this::getYaw, null);
+    }
+}
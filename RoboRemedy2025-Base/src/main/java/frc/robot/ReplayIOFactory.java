@@ -0,0 +1,50 @@
+// ReplayIOFactory.java - Creates hardware objects that report the inputs recorded on the robot
+package frc.robot;
+
+import frc.robot.RobotMotor.*;
+
+/**
+ * Every device reads from one shared ReplayInputs, which LogReplay fills from the file before
+ * each loop. LEDs are simulated, since nothing reads them.
+ */
+public class ReplayIOFactory implements IOFactory {
+    private ReplayInputs inputs;
+
+    ReplayIOFactory(ReplayInputs inputs) {
+        this.inputs = inputs;
+    }
+
+    public MotorIO createMotor(RobotMotorType motorType, int motorID, boolean isInverted, boolean isCoast,
+            RoboLog rLog, double unitsPerRevolution, double maxCurrent, double statorCurrent,
+            RobotEncoderType encoderType, int absoluteEncoderID, boolean isUsingVoltageCompensation) {
+        return new ReplayMotorIO(motorType, motorID, unitsPerRevolution, inputs);
+    }
+
+    public EncoderIO createCANcoder(int id, boolean isInverted, RoboLog rLog) {
+        return new ReplayEncoderIO(id, inputs);
+    }
+
+    public GyroIO createGyro() {
+        return new ReplayGyroIO(inputs);
+    }
+
+    public CameraIO createCamera(String cameraName, RoboLog rLog) {
+        return new ReplayCameraIO(cameraName, inputs);
+    }
+
+    public LidarIO createLidar(String networkTableName) {
+        return new ReplayLidarIO(inputs);
+    }
+
+    public LEDIO createLEDs(int port, int ledCount) {
+        return new SimLEDIO(ledCount);
+    }
+
+    public OdometryIO createOdometry(SwerveModule[] modules, GyroIO gyro, SwerveState kinematics, RoboLog rLog) {
+        return new ReplayOdometryIO(inputs);
+    }
+
+    public boolean isHeadless() {
+        return true;
+    }
+}
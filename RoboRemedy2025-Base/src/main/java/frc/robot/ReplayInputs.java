@@ -0,0 +1,383 @@
+// ReplayInputs.java - Everything the robot code read from the hardware during one loop
+package frc.robot;
+
+import java.nio.*;
+import java.nio.charset.*;
+import frc.robot.OdometryIO.*;
+import frc.robot.RobotEnums.*;
+
+/**
+ * One loop of inputs. InputRecorder fills it on the robot and writes it to a file, and
+ * LogReplay reads it back and gives it to the replay devices made by ReplayIOFactory.
+ * Motors and encoders are matched by CAN ID and cameras by name, so a replay uses the values
+ * of the same devices even if Electronics creates them in a different order.
+ * Values are stored with the same precision the robot code read them with, so a replay is exact.
+ */
+public class ReplayInputs {
+    public static final int MAX_TARGETS = 8;
+    public static final int MAX_FRAMES = 4; // Camera results read with getNextTargets from one camera in one loop
+    public static final int JOYSTICK_COUNT = 6;
+    public static final int MAX_AXES = 6;
+
+    /** The targets in one result from a camera */
+    public static class CameraInputs {
+        public boolean isConnected;
+        public double timeStamp;
+        public int targetCount;
+        public int[] ids = new int[MAX_TARGETS];
+        public double[] yaws = new double[MAX_TARGETS];
+        public double[] pitches = new double[MAX_TARGETS];
+        public double[] distances = new double[MAX_TARGETS]; // Inches along the floor, 0 if not measured
+        public double[] ambiguities = new double[MAX_TARGETS]; // 0 to 1, or -1 if not measured
+
+        public void set(CameraInputs targets) {
+            isConnected = targets.isConnected;
+            timeStamp = targets.timeStamp;
+            targetCount = targets.targetCount;
+            for (int i = 0; i < targetCount; i++) {
+                ids[i] = targets.ids[i];
+                yaws[i] = targets.yaws[i];
+                pitches[i] = targets.pitches[i];
+                distances[i] = targets.distances[i];
+                ambiguities[i] = targets.ambiguities[i];
+            }
+        }
+    }
+
+    /** The camera results the robot code read with getNextTargets during one loop, oldest first */
+    public static class CameraFrames {
+        public int count;
+        public CameraInputs[] frames = new CameraInputs[MAX_FRAMES];
+
+        CameraFrames() {
+            for (int i = 0; i < frames.length; i++) {
+                frames[i] = new CameraInputs();
+            }
+        }
+    }
+
+    /** What the lidar gave the robot code */
+    public static class LidarInputs {
+        public boolean isConnected;
+        public long frameCount;
+        public double captureTime;
+        public double[] regionZs = new double[LidarIO.MAX_REGIONS]; // As getRegionZ returned them
+        // LidarHealth measurements
+        public boolean isCapturing;
+        public double frameRate;
+        public int droppedFrames;
+        public double averageLatency;
+        public double maxLatency;
+        public double jitter;
+    }
+
+    /** What the odometry thread gave the main loop */
+    public static class OdometryInputs {
+        public boolean isRunning;
+        public boolean hasSample; // What getLatest returned
+        public OdometrySample sample = new OdometrySample();
+        public long cycleCount;
+        public long errorCount;
+    }
+
+    public double time;
+    public RobotMode mode = RobotMode.Disabled;
+    public AutoProgram autoProgram;
+    public AutoStartPosition autoStartPosition;
+    public boolean isRedAlliance;
+    public double batteryVoltage;
+
+    public float gyroYaw;
+    public float gyroPitch;
+    public float gyroRoll;
+    public long gyroTimestamp;
+
+    public int[] motorIDs;
+    public double[] motorPositions;
+    public double[] motorVelocities;
+    public double[] motorOutputPercents;
+    public double[] motorStatorCurrents;
+    public boolean[] motorAttached;
+
+    public int[] encoderIDs;
+    public double[] encoderAngles;
+    public double[] encoderAbsoluteAngles;
+    public boolean[] encoderAttached;
+
+    public String[] cameraNames;
+    public CameraInputs[] cameras; // The latest result at the start of the loop
+    public CameraFrames[] cameraFrames;
+
+    public LidarInputs lidar = new LidarInputs();
+    public OdometryInputs odometry = new OdometryInputs();
+
+    public boolean[] joystickConnected = new boolean[JOYSTICK_COUNT];
+    public int[] joystickAxisCounts = new int[JOYSTICK_COUNT];
+    public float[][] joystickAxes = new float[JOYSTICK_COUNT][MAX_AXES];
+    public int[] joystickButtons = new int[JOYSTICK_COUNT];
+    public int[] joystickPOVs = new int[JOYSTICK_COUNT];
+
+    /**
+     * @param motorIDs    CAN IDs of the motors
+     * @param encoderIDs  CAN IDs of the absolute encoders
+     * @param cameraNames Names of the cameras
+     */
+    ReplayInputs(int[] motorIDs, int[] encoderIDs, String[] cameraNames) {
+        this.motorIDs = motorIDs;
+        motorPositions = new double[motorIDs.length];
+        motorVelocities = new double[motorIDs.length];
+        motorOutputPercents = new double[motorIDs.length];
+        motorStatorCurrents = new double[motorIDs.length];
+        motorAttached = new boolean[motorIDs.length];
+
+        this.encoderIDs = encoderIDs;
+        encoderAngles = new double[encoderIDs.length];
+        encoderAbsoluteAngles = new double[encoderIDs.length];
+        encoderAttached = new boolean[encoderIDs.length];
+
+        this.cameraNames = cameraNames;
+        cameras = new CameraInputs[cameraNames.length];
+        cameraFrames = new CameraFrames[cameraNames.length];
+        for (int i = 0; i < cameras.length; i++) {
+            cameras[i] = new CameraInputs();
+            cameraFrames[i] = new CameraFrames();
+        }
+    }
+
+    /** Read the device list written by writeHeader */
+    public static ReplayInputs readHeader(ByteBuffer buffer) {
+        int[] motorIDs = new int[buffer.getShort()];
+        for (int i = 0; i < motorIDs.length; i++) {
+            motorIDs[i] = buffer.getInt();
+        }
+        int[] encoderIDs = new int[buffer.getShort()];
+        for (int i = 0; i < encoderIDs.length; i++) {
+            encoderIDs[i] = buffer.getInt();
+        }
+        String[] cameraNames = new String[buffer.getShort()];
+        for (int i = 0; i < cameraNames.length; i++) {
+            byte[] nameBytes = new byte[buffer.getShort()];
+            buffer.get(nameBytes);
+            cameraNames[i] = new String(nameBytes, StandardCharsets.UTF_8);
+        }
+        return new ReplayInputs(motorIDs, encoderIDs, cameraNames);
+    }
+
+    public void writeHeader(ByteBuffer buffer) {
+        buffer.putShort((short) motorIDs.length);
+        for (int id : motorIDs) {
+            buffer.putInt(id);
+        }
+        buffer.putShort((short) encoderIDs.length);
+        for (int id : encoderIDs) {
+            buffer.putInt(id);
+        }
+        buffer.putShort((short) cameraNames.length);
+        for (String name : cameraNames) {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) nameBytes.length);
+            buffer.put(nameBytes);
+        }
+    }
+
+    /** Size of one record in bytes. Every record is the same size. */
+    public int getRecordSize() {
+        int size = 8 + 4 + 8; // Time, mode and selections, battery
+        size += (3 * 4) + 8; // Gyro
+        size += motorIDs.length * ((4 * 8) + 1);
+        size += encoderIDs.length * ((2 * 8) + 1);
+        int cameraSize = 1 + 8 + 1 + (MAX_TARGETS * (2 + (4 * 8)));
+        size += cameraNames.length * (cameraSize + 1 + (MAX_FRAMES * cameraSize));
+        size += 1 + 8 + 8 + (LidarIO.MAX_REGIONS * 8) + 1 + 8 + 4 + (3 * 8); // Lidar
+        size += 1 + 1 + (6 * 8) + 8 + 8; // Odometry
+        size += JOYSTICK_COUNT * (1 + 1 + (MAX_AXES * 4) + 4 + 2);
+        return size;
+    }
+
+    public void writeRecord(ByteBuffer buffer) {
+        buffer.putDouble(time);
+        buffer.put((byte) mode.ordinal());
+        buffer.put((byte) (autoProgram == null ? -1 : autoProgram.ordinal()));
+        buffer.put((byte) (autoStartPosition == null ? -1 : autoStartPosition.ordinal()));
+        buffer.put((byte) (isRedAlliance ? 1 : 0));
+        buffer.putDouble(batteryVoltage);
+
+        buffer.putFloat(gyroYaw);
+        buffer.putFloat(gyroPitch);
+        buffer.putFloat(gyroRoll);
+        buffer.putLong(gyroTimestamp);
+
+        for (int i = 0; i < motorIDs.length; i++) {
+            buffer.putDouble(motorPositions[i]);
+            buffer.putDouble(motorVelocities[i]);
+            buffer.putDouble(motorOutputPercents[i]);
+            buffer.putDouble(motorStatorCurrents[i]);
+            buffer.put((byte) (motorAttached[i] ? 1 : 0));
+        }
+        for (int i = 0; i < encoderIDs.length; i++) {
+            buffer.putDouble(encoderAngles[i]);
+            buffer.putDouble(encoderAbsoluteAngles[i]);
+            buffer.put((byte) (encoderAttached[i] ? 1 : 0));
+        }
+        for (int i = 0; i < cameras.length; i++) {
+            writeCamera(buffer, cameras[i]);
+            buffer.put((byte) cameraFrames[i].count);
+            for (CameraInputs frame : cameraFrames[i].frames) {
+                writeCamera(buffer, frame);
+            }
+        }
+        buffer.put((byte) (lidar.isConnected ? 1 : 0));
+        buffer.putLong(lidar.frameCount);
+        buffer.putDouble(lidar.captureTime);
+        for (double regionZ : lidar.regionZs) {
+            buffer.putDouble(regionZ);
+        }
+        buffer.put((byte) (lidar.isCapturing ? 1 : 0));
+        buffer.putDouble(lidar.frameRate);
+        buffer.putInt(lidar.droppedFrames);
+        buffer.putDouble(lidar.averageLatency);
+        buffer.putDouble(lidar.maxLatency);
+        buffer.putDouble(lidar.jitter);
+        buffer.put((byte) (odometry.isRunning ? 1 : 0));
+        buffer.put((byte) (odometry.hasSample ? 1 : 0));
+        buffer.putDouble(odometry.sample.x);
+        buffer.putDouble(odometry.sample.y);
+        buffer.putDouble(odometry.sample.yaw);
+        buffer.putDouble(odometry.sample.timeStamp);
+        buffer.putDouble(odometry.sample.distanceTraveled);
+        buffer.putLong(odometry.sample.resetCount);
+        buffer.putLong(odometry.cycleCount);
+        buffer.putLong(odometry.errorCount);
+        for (int i = 0; i < JOYSTICK_COUNT; i++) {
+            buffer.put((byte) (joystickConnected[i] ? 1 : 0));
+            buffer.put((byte) joystickAxisCounts[i]);
+            for (int axis = 0; axis < MAX_AXES; axis++) {
+                buffer.putFloat(joystickAxes[i][axis]);
+            }
+            buffer.putInt(joystickButtons[i]);
+            buffer.putShort((short) joystickPOVs[i]);
+        }
+    }
+
+    public void readRecord(ByteBuffer buffer) {
+        time = buffer.getDouble();
+        mode = RobotMode.values()[buffer.get()];
+        int autoProgramIndex = buffer.get();
+        autoProgram = autoProgramIndex < 0 ? null : AutoProgram.values()[autoProgramIndex];
+        int autoStartIndex = buffer.get();
+        autoStartPosition = autoStartIndex < 0 ? null : AutoStartPosition.values()[autoStartIndex];
+        isRedAlliance = buffer.get() != 0;
+        batteryVoltage = buffer.getDouble();
+
+        gyroYaw = buffer.getFloat();
+        gyroPitch = buffer.getFloat();
+        gyroRoll = buffer.getFloat();
+        gyroTimestamp = buffer.getLong();
+
+        for (int i = 0; i < motorIDs.length; i++) {
+            motorPositions[i] = buffer.getDouble();
+            motorVelocities[i] = buffer.getDouble();
+            motorOutputPercents[i] = buffer.getDouble();
+            motorStatorCurrents[i] = buffer.getDouble();
+            motorAttached[i] = buffer.get() != 0;
+        }
+        for (int i = 0; i < encoderIDs.length; i++) {
+            encoderAngles[i] = buffer.getDouble();
+            encoderAbsoluteAngles[i] = buffer.getDouble();
+            encoderAttached[i] = buffer.get() != 0;
+        }
+        for (int i = 0; i < cameras.length; i++) {
+            readCamera(buffer, cameras[i]);
+            cameraFrames[i].count = buffer.get();
+            for (CameraInputs frame : cameraFrames[i].frames) {
+                readCamera(buffer, frame);
+            }
+        }
+        lidar.isConnected = buffer.get() != 0;
+        lidar.frameCount = buffer.getLong();
+        lidar.captureTime = buffer.getDouble();
+        for (int i = 0; i < lidar.regionZs.length; i++) {
+            lidar.regionZs[i] = buffer.getDouble();
+        }
+        lidar.isCapturing = buffer.get() != 0;
+        lidar.frameRate = buffer.getDouble();
+        lidar.droppedFrames = buffer.getInt();
+        lidar.averageLatency = buffer.getDouble();
+        lidar.maxLatency = buffer.getDouble();
+        lidar.jitter = buffer.getDouble();
+        odometry.isRunning = buffer.get() != 0;
+        odometry.hasSample = buffer.get() != 0;
+        odometry.sample.x = buffer.getDouble();
+        odometry.sample.y = buffer.getDouble();
+        odometry.sample.yaw = buffer.getDouble();
+        odometry.sample.timeStamp = buffer.getDouble();
+        odometry.sample.distanceTraveled = buffer.getDouble();
+        odometry.sample.resetCount = buffer.getLong();
+        odometry.cycleCount = buffer.getLong();
+        odometry.errorCount = buffer.getLong();
+        for (int i = 0; i < JOYSTICK_COUNT; i++) {
+            joystickConnected[i] = buffer.get() != 0;
+            joystickAxisCounts[i] = buffer.get();
+            for (int axis = 0; axis < MAX_AXES; axis++) {
+                joystickAxes[i][axis] = buffer.getFloat();
+            }
+            joystickButtons[i] = buffer.getInt();
+            joystickPOVs[i] = buffer.getShort();
+        }
+    }
+
+    private static void writeCamera(ByteBuffer buffer, CameraInputs camera) {
+        buffer.put((byte) (camera.isConnected ? 1 : 0));
+        buffer.putDouble(camera.timeStamp);
+        buffer.put((byte) camera.targetCount);
+        for (int i = 0; i < MAX_TARGETS; i++) {
+            buffer.putShort((short) camera.ids[i]);
+            buffer.putDouble(camera.yaws[i]);
+            buffer.putDouble(camera.pitches[i]);
+            buffer.putDouble(camera.distances[i]);
+            buffer.putDouble(camera.ambiguities[i]);
+        }
+    }
+
+    private static void readCamera(ByteBuffer buffer, CameraInputs camera) {
+        camera.isConnected = buffer.get() != 0;
+        camera.timeStamp = buffer.getDouble();
+        camera.targetCount = buffer.get();
+        for (int i = 0; i < MAX_TARGETS; i++) {
+            camera.ids[i] = buffer.getShort();
+            camera.yaws[i] = buffer.getDouble();
+            camera.pitches[i] = buffer.getDouble();
+            camera.distances[i] = buffer.getDouble();
+            camera.ambiguities[i] = buffer.getDouble();
+        }
+    }
+
+    /** Index of a motor in the arrays, or -1 if it was not recorded */
+    public int getMotorIndex(int motorID) {
+        return indexOf(motorIDs, motorID);
+    }
+
+    /** Index of an encoder in the arrays, or -1 if it was not recorded */
+    public int getEncoderIndex(int encoderID) {
+        return indexOf(encoderIDs, encoderID);
+    }
+
+    /** Index of a camera in the cameras array, or -1 if it was not recorded */
+    public int getCameraIndex(String cameraName) {
+        for (int i = 0; i < cameraNames.length; i++) {
+            if (cameraNames[i].equals(cameraName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(int[] ids, int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,49 @@
+// ReplayLidarIO.java - Lidar that reports the values recorded on the robot
+package frc.robot;
+
+import frc.robot.ReplayInputs.*;
+
+/**
+ * Regions get the same handles as on the robot, since the robot code adds them in the same
+ * order. The health is the one measured on the robot, not measured again.
+ */
+public class ReplayLidarIO implements LidarIO {
+    private LidarInputs lidar;
+    private LidarHealth health = new LidarHealth();
+    private int regionCount = 0;
+
+    ReplayLidarIO(ReplayInputs inputs) {
+        lidar = inputs.lidar;
+    }
+
+    public boolean isConnected() {
+        return lidar.isConnected;
+    }
+
+    public LidarHealth updateHealth(double time) {
+        health.isCapturing = lidar.isCapturing;
+        health.frameRate = lidar.frameRate;
+        health.droppedFrames = lidar.droppedFrames;
+        health.averageLatency = lidar.averageLatency;
+        health.maxLatency = lidar.maxLatency;
+        health.jitter = lidar.jitter;
+        return health;
+    }
+
+    public int addRegion(String name, double regionXStart, double regionXEnd, double regionYStart,
+            double regionYEnd) {
+        return regionCount < MAX_REGIONS ? regionCount++ : -1;
+    }
+
+    public double getRegionZ(int region) {
+        return (region >= 0 && region < regionCount) ? lidar.regionZs[region] : -1.0;
+    }
+
+    public long getFrameCount() {
+        return lidar.frameCount;
+    }
+
+    public double getCaptureTime() {
+        return lidar.captureTime;
+    }
+}
@@ -0,0 +1,56 @@
+// ReplayMotorIO.java - Motor that reports the values recorded on the robot
+package frc.robot;
+
+import frc.robot.RobotMotor.*;
+
+/**
+ * Encoder, output and current readings come from the recorded inputs. Commands are kept by
+ * SimMotorIO, so the last assigned values can be compared between replays.
+ * A motor that was not recorded acts like a SimMotorIO.
+ */
+public class ReplayMotorIO extends SimMotorIO {
+    private ReplayInputs inputs;
+    private int index;
+
+    ReplayMotorIO(RobotMotorType motorType, int motorID, double unitsPerRevolution, ReplayInputs inputs) {
+        super(motorType, motorID, unitsPerRevolution);
+        this.inputs = inputs;
+        index = inputs.getMotorIndex(motorID);
+    }
+
+    @Override
+    public double getEncoderPosition() {
+        return index >= 0 ? inputs.motorPositions[index] : super.getEncoderPosition();
+    }
+
+    @Override
+    public double getEncoderVelocity() {
+        return index >= 0 ? inputs.motorVelocities[index] : super.getEncoderVelocity();
+    }
+
+    @Override
+    public double getOutputPercent() {
+        return index >= 0 ? inputs.motorOutputPercents[index] : super.getOutputPercent();
+    }
+
+    @Override
+    public double getStatorCurrent() {
+        return index >= 0 ? inputs.motorStatorCurrents[index] : super.getStatorCurrent();
+    }
+
+    @Override
+    public boolean isAttached() {
+        return index >= 0 ? inputs.motorAttached[index] : super.isAttached();
+    }
+
+    @Override
+    public boolean isEncoderAttached() {
+        return isAttached();
+    }
+
+    /** The recorded positions already include any change the robot made to the encoder */
+    @Override
+    public boolean setEncoderValue(double position) {
+        return index >= 0 ? true : super.setEncoderValue(position);
+    }
+}
@@ -0,0 +1,43 @@
+// ReplayOdometryIO.java - Odometry that reports the samples recorded on the robot
+package frc.robot;
+
+import frc.robot.ReplayInputs.*;
+
+/**
+ * Gives the main loop the same sample the odometry thread gave it on the robot, so RobotState
+ * measures motion the same way it did there. The recorded samples already include any reset
+ * the robot made, so resetting the position does nothing.
+ */
+public class ReplayOdometryIO implements OdometryIO {
+    private OdometryInputs odometry;
+
+    ReplayOdometryIO(ReplayInputs inputs) {
+        odometry = inputs.odometry;
+    }
+
+    public void start() {
+    }
+
+    public boolean isRunning() {
+        return odometry.isRunning;
+    }
+
+    public long getCycleCount() {
+        return odometry.cycleCount;
+    }
+
+    public long getErrorCount() {
+        return odometry.errorCount;
+    }
+
+    public void resetPosition(double x, double y) {
+    }
+
+    public boolean getLatest(OdometrySample sample) {
+        if (!odometry.hasSample) {
+            return false;
+        }
+        sample.set(odometry.sample);
+        return true;
+    }
+}
@@ -1,51 +1,100 @@
 // RobotLog.java - Used to print information to the log file
 package frc.robot;
 
-import edu.wpi.first.wpilibj.*;
 import java.io.*;
+import java.util.concurrent.atomic.*;
 
 public class RoboLog {
-    private Timer timer = new Timer();
-    private String shortDescription = "INIT";
+    private static final int BUFFER_SIZE = 1024; // Must be a power of two
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+    private static final long WRITER_SLEEP_MILLIS = 20;
+
+    private static final int KIND_STRING = 0;
+    private static final int KIND_DOUBLE = 1;
+    private static final int KIND_TWO_STRINGS = 2;
+    private static final int KIND_FORMAT = 3;
+
+    // One preallocated log record. Strings and format arguments are immutable,
+    // so only references are copied on the robot thread. Formatting is done by
+    // the writer thread.
+    private class LogRecord {
+        public volatile long sequence;
+        public int kind;
+        public double time;
+        public String mode;
+        public String text1;
+        public String text2;
+        public double number;
+        public Object[] arguments;
+    }
+
+    private LogRecord[] records = new LogRecord[BUFFER_SIZE];
+    private AtomicLong writeSequence = new AtomicLong(0);
+    private volatile long readSequence = 0;
+    private AtomicLong droppedCount = new AtomicLong(0);
+    private long lastReportedDropped = 0;
+    private PrintStream out = System.out;
+    private StringBuilder batch = new StringBuilder(16384);
+    private Thread writerThread;
+
+    private volatile long startNanos;
+    private volatile String shortDescription = "INIT";
 
     public RoboLog() {
-        timer.restart();
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            records[i] = new LogRecord();
+            records[i].sequence = i;
+        }
+        startNanos = System.nanoTime();
+
+        writerThread = new Thread(this::writerLoop, "RoboLog");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
     }
 
     public void setRobotMode(String robotMode, String longDescription) {
         print("New Mode: ", longDescription);
         shortDescription = robotMode;
-        timer.reset();
+        startNanos = System.nanoTime();
     }
 
     public void print(String s) {
-        System.out.printf("%3.3f ", timer.get());
-        System.out.print(shortDescription);
-        System.out.print(": ");
-        System.out.println(s);
+        LogRecord r = claim();
+        if (r != null) {
+            r.kind = KIND_STRING;
+            r.text1 = s;
+            publish(r);
+        }
     }
 
     public void print(double s) {
-        System.out.printf("%3.3f ", timer.get());
-        System.out.print(shortDescription);
-        System.out.print(": ");
-        System.out.println(s);
+        LogRecord r = claim();
+        if (r != null) {
+            r.kind = KIND_DOUBLE;
+            r.number = s;
+            publish(r);
+        }
     }
 
     public void print(String s1, String s2) {
-        System.out.printf("%3.3f ", timer.get());
-        System.out.print(shortDescription);
-        System.out.print(": ");
-        System.out.print(s1);
-        System.out.println(s2);
+        LogRecord r = claim();
+        if (r != null) {
+            r.kind = KIND_TWO_STRINGS;
+            r.text1 = s1;
+            r.text2 = s2;
+            publish(r);
+        }
     }
 
     public void printf(String format, Object... arguments) {
-        System.out.printf("%3.3f ", timer.get());
-        System.out.print(shortDescription);
-        System.out.print(": ");
-        System.out.printf(format, arguments);
-        System.out.println();
+        LogRecord r = claim();
+        if (r != null) {
+            r.kind = KIND_FORMAT;
+            r.text1 = format;
+            r.arguments = arguments;
+            publish(r);
+        }
     }
 
     public void printException(Exception e) {
@@ -55,4 +104,94 @@ public class RoboLog {
 
         }
     }
-}
\ No newline at end of file
+
+    /** Number of records thrown away because the buffer was full */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /** Write out everything that is waiting in the buffer */
+    public synchronized void flush() {
+        long next = readSequence;
+        batch.setLength(0);
+        while (true) {
+            LogRecord r = records[(int) (next & BUFFER_MASK)];
+            if (r.sequence != next + 1) {
+                break; // Not published yet
+            }
+            format(r);
+            r.text1 = null;
+            r.text2 = null;
+            r.arguments = null;
+            r.sequence = next + BUFFER_SIZE;
+            next++;
+            readSequence = next;
+        }
+        long dropped = droppedCount.get();
+        if (dropped != lastReportedDropped) {
+            batch.append("RoboLog dropped ").append(dropped - lastReportedDropped).append(" records\n");
+            lastReportedDropped = dropped;
+        }
+        if (batch.length() > 0) {
+            out.print(batch);
+            out.flush();
+        }
+    }
+
+    // Reserve the next free record. Returns null if the writer has fallen behind.
+    private LogRecord claim() {
+        while (true) {
+            long seq = writeSequence.get();
+            LogRecord r = records[(int) (seq & BUFFER_MASK)];
+            long difference = r.sequence - seq;
+            if (difference < 0) {
+                // Writer thread has not emptied this record yet
+                droppedCount.incrementAndGet();
+                return null;
+            }
+            if (difference == 0 && writeSequence.compareAndSet(seq, seq + 1)) {
+                r.time = (System.nanoTime() - startNanos) / 1.0e9;
+                r.mode = shortDescription;
+                return r;
+            }
+            // Another thread claimed this record first, try the next one
+        }
+    }
+
+    private void publish(LogRecord r) {
+        r.sequence = r.sequence + 1;
+    }
+
+    private void format(LogRecord r) {
+        batch.append(String.format("%3.3f ", r.time));
+        batch.append(r.mode);
+        batch.append(": ");
+        if (r.kind == KIND_STRING) {
+            batch.append(r.text1);
+        } else if (r.kind == KIND_DOUBLE) {
+            batch.append(r.number);
+        } else if (r.kind == KIND_TWO_STRINGS) {
+            batch.append(r.text1);
+            batch.append(r.text2);
+        } else {
+            try {
+                batch.append(String.format(r.text1, r.arguments));
+            } catch (Exception e) {
+                batch.append(r.text1);
+            }
+        }
+        batch.append('\n');
+    }
+
+    private void writerLoop() {
+        while (true) {
+            flush();
+            try {
+                Thread.sleep(WRITER_SLEEP_MILLIS);
+            } catch (InterruptedException e) {
+                flush();
+                return;
+            }
+        }
+    }
+}
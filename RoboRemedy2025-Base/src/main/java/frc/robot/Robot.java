@@ -10,7 +10,8 @@ public class Robot extends TimedRobot {
 
     private final String projectName = "2025 Competition";
     private RoboLog rLog = new RoboLog();
-    private Electronics e = new Electronics(true, rLog);
+    private RecordingIOFactory io = new RecordingIOFactory(new RealIOFactory());
+    private Electronics e = new Electronics(true, io, rLog);
     private OI oi = new OI(rLog);
     private RobotState robotState = new RobotState(e, rLog);
     private Action act = new Action(e, rLog, oi, robotState);;
@@ -20,6 +21,7 @@ public class Robot extends TimedRobot {
     private TestRobot test = new TestRobot(e, rLog, act, oi, robotState, dash);
     private RobotPeriodic periodic = new RobotPeriodic(e, rLog, act, oi, robotState, dash);
     private DisabledRobot disabled = new DisabledRobot(e, rLog, act, oi, robotState, dash);
+    private LoopProfiler profiler = new LoopProfiler(rLog);
     private SimulationRobot simulation = null;
     private Timer autoTimer = new Timer();
     private boolean everFromAuto = false;
@@ -31,6 +33,7 @@ public class Robot extends TimedRobot {
         try {
             rLog.print(projectName, " Robot constructor start");
             e.assignAllSwerveEncoderValues();
+            robotState.recordInputs(io);
             if (robotState.isSimulation) {
                 simulation = new SimulationRobot(e, rLog, act, oi, robotState, dash);
             } else {
@@ -61,6 +64,8 @@ public class Robot extends TimedRobot {
     public void disabledInit() {
         try {
             rLog.setRobotMode("DISA", "Disabled");
+            robotState.dataLogger.flush();
+            robotState.inputRecorder.flush();
             disabled.disabledInit();
         } catch (Exception e) {
             rLog.printException(e);
@@ -72,11 +77,17 @@ public class Robot extends TimedRobot {
     @Override
     public void disabledPeriodic() {
         try {
+            profiler.startLoop();
             robotState.robotStatePeriodic(dash, simulation);
+            profiler.endPhase(LoopProfiler.Phase.RobotState);
             oi.logButtonChanges();
+            profiler.endPhase(LoopProfiler.Phase.Buttons);
             disabled.disabledPeriodic();
             test.robotPeriodic(); // called in disabled and test modes
+            profiler.endPhase(LoopProfiler.Phase.Mode);
             periodic.robotPeriodic(); // called in all four modes
+            profiler.endPhase(LoopProfiler.Phase.Periodic);
+            profiler.endLoop();
         } catch (Exception e) {
             rLog.printException(e);
             throw (e);
@@ -101,11 +112,17 @@ public class Robot extends TimedRobot {
     @Override
     public void autonomousPeriodic() {
         try {
+            profiler.startLoop();
             robotState.robotStatePeriodic(dash, simulation);
+            profiler.endPhase(LoopProfiler.Phase.RobotState);
             oi.logButtonChanges();
+            profiler.endPhase(LoopProfiler.Phase.Buttons);
             auto.autonomousPeriodic();
             autoTimer.restart();
+            profiler.endPhase(LoopProfiler.Phase.Mode);
             periodic.robotPeriodic(); // called in all four modes
+            profiler.endPhase(LoopProfiler.Phase.Periodic);
+            profiler.endLoop();
         } catch (Exception e) {
             rLog.printException(e);
             throw (e);
@@ -133,10 +150,16 @@ public class Robot extends TimedRobot {
     @Override
     public void teleopPeriodic() {
         try {
+            profiler.startLoop();
             robotState.robotStatePeriodic(dash, simulation);
+            profiler.endPhase(LoopProfiler.Phase.RobotState);
             oi.logButtonChanges();
+            profiler.endPhase(LoopProfiler.Phase.Buttons);
             teleop.teleopPeriodic();
+            profiler.endPhase(LoopProfiler.Phase.Mode);
             periodic.robotPeriodic(); // called in all four modes
+            profiler.endPhase(LoopProfiler.Phase.Periodic);
+            profiler.endLoop();
         } catch (Exception e) {
             rLog.printException(e);
             throw (e);
@@ -159,11 +182,17 @@ public class Robot extends TimedRobot {
     @Override
     public void testPeriodic() {
         try {
+            profiler.startLoop();
             robotState.robotStatePeriodic(dash, simulation);
+            profiler.endPhase(LoopProfiler.Phase.RobotState);
             oi.logButtonChanges();
+            profiler.endPhase(LoopProfiler.Phase.Buttons);
             test.robotPeriodic(); // called in disabled and test modes
             test.testPeriodic(); // called only in test mode
+            profiler.endPhase(LoopProfiler.Phase.Mode);
             periodic.robotPeriodic(); // called in all four modes
+            profiler.endPhase(LoopProfiler.Phase.Periodic);
+            profiler.endLoop();
         } catch (Exception e) {
             rLog.printException(e);
             throw (e);
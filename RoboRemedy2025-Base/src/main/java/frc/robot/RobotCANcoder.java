@@ -1,4 +1,4 @@
-// RobotMotor.java - Class to be used for any type of motor
+// RobotCANcoder.java - Class to be used for a CTRE CANcoder
 package frc.robot;
 
 import com.ctre.phoenix6.*;
@@ -8,12 +8,13 @@ import com.ctre.phoenix6.signals.*;
 
 import edu.wpi.first.units.measure.Angle;
 
-public class RobotCANcoder {
+public class RobotCANcoder implements EncoderIO {
 
     CANcoder canCoder;
+    StatusSignal<Angle> absolutePosition;
+    StatusSignal<Angle> position;
     RoboLog rLog;
     MagnetSensorConfigs magnetConfig = new MagnetSensorConfigs();
-    public final double ERROR_ANGLE = -3600;
 
     RobotCANcoder(int id, boolean isInverted, RoboLog rLog) {
         this.rLog = rLog;
@@ -23,18 +24,22 @@ public class RobotCANcoder {
             SensorDirectionValue.CounterClockwise_Positive);
         magnetConfig.AbsoluteSensorDiscontinuityPoint = 1.0;
         canCoder.getConfigurator().apply(magnetConfig);
+
+        // Refreshed once per loop by CANSignalRegistry
+        absolutePosition = canCoder.getAbsolutePosition();
+        position = canCoder.getPosition();
+        CANSignalRegistry.register(absolutePosition, position);
     }
 
-    double getAbsoluteAngle() {
-        StatusSignal<Angle> position = canCoder.getAbsolutePosition();
-        StatusCode result = position.getStatus();
+    public double getAbsoluteAngle() {
+        StatusCode result = absolutePosition.getStatus();
         if (result == StatusCode.OK)
-            return position.getValueAsDouble() * 360.0;
+            return absolutePosition.getValueAsDouble() * 360.0;
         else
             return ERROR_ANGLE;
     }
 
-    void setAbsoluteAngle(double angle) {
+    public void setAbsoluteAngle(double angle) {
         MagnetSensorConfigs magnetConfig = new MagnetSensorConfigs();
         canCoder.getConfigurator().refresh(magnetConfig);
         double magnetOffset = magnetConfig.MagnetOffset;
@@ -45,16 +50,14 @@ public class RobotCANcoder {
         canCoder.getConfigurator().apply(magnetConfig);
     }
 
-    double getAngle() {
-        StatusSignal<Angle> position = canCoder.getPosition();
+    public double getAngle() {
         return position.getValueAsDouble() * 360.0;
     }
 
-    void setAngle(double angle) {
+    public void setAngle(double angle) {
         canCoder.setPosition(angle / 360.0);
     }
     public boolean isAttached() {
-        StatusSignal<Angle> position = canCoder.getPosition();
         return position.getStatus().isOK();
     }
 }
\ No newline at end of file
@@ -8,6 +8,13 @@ public class RobotEnums {
         LIVE2025,
     }
 
+    public enum RobotMode {
+        Disabled,
+        Autonomous,
+        Teleop,
+        Test,
+    }
+
     public enum AutoStartPosition {
         Left,
         Right,
@@ -23,6 +30,7 @@ public class RobotEnums {
         DriveOut,
         SimulationProject,
         None,
+        SimulationPath, // Input logs record the position in this list, so add new programs at the end
     }
 
     public enum TestMode {
@@ -3,11 +3,12 @@ package frc.robot;
 
 import com.studica.frc.*;
 
-public class RobotGyro extends AHRS {
+public class RobotGyro extends AHRS implements GyroIO {
 
-    private double gyroOffset = 0;
-    private boolean isSimulation = false;
-    private float simulationAngle = 0;
+    // Volatile because the odometry thread also reads the yaw
+    private volatile double gyroOffset = 0;
+    private volatile boolean isSimulation = false;
+    private volatile float simulationAngle = 0;
 
     RobotGyro() {
         super(AHRS.NavXComType.kMXP_SPI);
@@ -23,7 +23,7 @@ import com.revrobotics.spark.config.*;
 import com.revrobotics.spark.config.ClosedLoopConfig.*;
 import com.revrobotics.spark.config.SparkBaseConfig.*;
 
-public class RobotMotor {
+public class RobotMotor implements MotorIO {
     public enum RobotMotorType {
         SparkMax, TalonFX, TalonSRX, Victor, SparkFlex,
     }
@@ -43,6 +43,8 @@ public class RobotMotor {
     private RelativeEncoder sparkEncoder;
     private SparkClosedLoopController sparkPID;
     private TalonFX talonFXMotor;
+    private StatusSignal<Angle> talonFXPosition;
+    private StatusSignal<AngularVelocity> talonFXVelocity;
     private TalonSRX talonSRXMotor;
     private VictorSPX victorMotor;
     private BaseMotorController baseCtreMotor;
@@ -103,6 +105,10 @@ public class RobotMotor {
             }
         } else if (motorType == RobotMotorType.TalonFX) {
             talonFXMotor = new TalonFX(motorID);
+            // Refreshed once per loop by CANSignalRegistry
+            talonFXPosition = talonFXMotor.getPosition();
+            talonFXVelocity = talonFXMotor.getVelocity();
+            CANSignalRegistry.register(talonFXPosition, talonFXVelocity);
             fxConfigs.MotorOutput.Inverted = (isInverted ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive);
             fxConfigs.MotorOutput.NeutralMode = (isCoast ? NeutralModeValue.Coast : NeutralModeValue.Brake);
             fxConfigs.MotorOutput.DutyCycleNeutralDeadband = 0.00;
@@ -212,7 +218,7 @@ public class RobotMotor {
                 || motorType == RobotMotorType.SparkMax) {
             return sparkEncoder.getPosition();
         } else if (motorType == RobotMotorType.TalonFX) {
-            return talonFXMotor.getPosition().getValueAsDouble();
+            return talonFXPosition.getValueAsDouble();
         } else if (motorType == RobotMotorType.TalonSRX
                 || motorType == RobotMotorType.Victor) {
             return baseCtreMotor.getSelectedSensorPosition() * unitsPerEncoderTick;
@@ -223,12 +229,24 @@ public class RobotMotor {
 
     public boolean isEncoderAttached() {
         if (motorType == RobotMotorType.TalonFX) {
-            return talonFXMotor.getPosition().getStatus().isOK();
+            return talonFXPosition.getStatus().isOK();
         } else {
             return false;
         }
     }
 
+    /**
+     * A separate copy of the position signal, for use by another thread such as SwerveOdometry.
+     * Returns null if this is not a TalonFX motor.
+     */
+    public StatusSignal<Angle> getPositionSignalCopy() {
+        if (motorType == RobotMotorType.TalonFX) {
+            return talonFXPosition.clone();
+        } else {
+            return null;
+        }
+    }
+
     public boolean isFXConfigNeeded() {
         return fxNeedsConfigsSet;
     }
@@ -266,7 +284,7 @@ public class RobotMotor {
                 || motorType ==RobotMotorType.SparkFlex) {
             return sparkEncoder.getVelocity();
         } else if (motorType == RobotMotorType.TalonFX) {
-            return talonFXMotor.getVelocity().getValueAsDouble();
+            return talonFXVelocity.getValueAsDouble();
         } else if (motorType == RobotMotorType.TalonSRX
                 || motorType == RobotMotorType.Victor) {
             return baseCtreMotor.getSelectedSensorVelocity() * unitsPerEncoderTick * 10;
@@ -385,19 +403,32 @@ public class RobotMotor {
      * @param desiredPosition Target position
      */
     public void setPosition(double desiredPosition) {
+        setPosition(desiredPosition, 0);
+    }
+
+    /***
+     * Attempt to move the motor to a specific position using a PID loop, adding a feed forward
+     * for when the position is moving (like a swerve module turning to keep up with the robot)
+     * 
+     * @param desiredPosition Target position
+     * @param feedForward     Percentage output (-1.0 to 1.0) to add to the PID loop's output
+     */
+    public void setPosition(double desiredPosition, double feedForward) {
+        feedForward = Math.max(-1.0, Math.min(1.0, feedForward));
         if (motorType == RobotMotorType.SparkMax
                 || motorType == RobotMotorType.SparkFlex) {
-            sparkPID.setReference(desiredPosition, SparkMax.ControlType.kPosition);
+            sparkPID.setReference(desiredPosition, SparkMax.ControlType.kPosition, 0, feedForward, ArbFFUnits.kPercentOut);
         } else if (motorType == RobotMotorType.TalonFX) {
-            talonFXMotor.setControl(positionOut.withPosition(desiredPosition));
+            talonFXMotor.setControl(positionOut.withPosition(desiredPosition).withFeedForward(feedForward * 12.0));
         } else if (motorType == RobotMotorType.TalonSRX
                 || motorType == RobotMotorType.Victor) {
-            baseCtreMotor.set(ControlMode.Position, (desiredPosition * encoderTicksPerUnit));
+            baseCtreMotor.set(ControlMode.Position, (desiredPosition * encoderTicksPerUnit),
+                    DemandType.ArbitraryFeedForward, feedForward);
         }
         lastAssignedPercentage = 0;
         lastAssignedPosition = desiredPosition;
         lastAssignedVelocity = 0;
-        lastAssignedFeedForward = 0;
+        lastAssignedFeedForward = feedForward;
         lastAssignedTime = timer.get();
     }
 
@@ -551,7 +582,12 @@ public class RobotMotor {
         }
     }
 
-    public void followMotor(RobotMotor motorToFollow) {
+    public void followMotor(MotorIO motorIOToFollow) {
+        if (!(motorIOToFollow instanceof RobotMotor)) {
+            rLog.print("Can not follow a simulated motor");
+            return;
+        }
+        RobotMotor motorToFollow = (RobotMotor) motorIOToFollow;
         if (motorToFollow.motorType == RobotMotorType.TalonFX && motorType == RobotMotorType.TalonFX) {
             talonFXMotor.setControl(new StrictFollower(motorToFollow.getMotorID()));
         } else if ((motorToFollow.motorType == RobotMotorType.TalonSRX
@@ -581,8 +617,7 @@ public class RobotMotor {
             motorType == RobotMotorType.SparkFlex) {
             return sparkMotor.hasActiveFault();
         } else if (motorType == RobotMotorType.TalonFX) {
-            StatusSignal<Angle> position = talonFXMotor.getPosition();
-            return position.getStatus().isOK();
+            return talonFXPosition.getStatus().isOK();
         } else if (motorType == RobotMotorType.TalonSRX
                 || motorType == RobotMotorType.Victor) {
             if (baseCtreMotor.getLastError() != ErrorCode.CAN_MSG_NOT_FOUND) {
@@ -2,6 +2,7 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.*;
+import frc.robot.OdometryIO.*;
 import frc.robot.PhotonVisionCamera.*;
 import frc.robot.RobotEnums.*;
 
@@ -20,6 +21,19 @@ public class RobotState {
     public static final double PIVOT_AIM_ANGLE = 68.5 + 1;
     public static final double MAX_ROBOT_DECELERATION = 55; //Inches per second squared
 
+    private static final String DATA_LOG_DIRECTORY = "/home/lvuser/logs";
+    private static final String SIMULATION_DATA_LOG_DIRECTORY = "logs";
+    // Swerve values are in the same order as the swerve modules in Electronics
+    private static final String[] DATA_LOG_FIELDS = {
+        "flVelocity", "frVelocity", "brVelocity", "blVelocity",
+        "flTurnAngle", "frTurnAngle", "brTurnAngle", "blTurnAngle",
+        "gyro", "commandedVelocity", "commandedAngle", "commandedRotation",
+        "robotX", "robotY", "odometryX", "odometryY",
+        "measuredVelocity", "measuredRotation",
+        "visionX", "visionY", "visionStdDev", "visionTagCount",
+        "lidarDistance", "lidarClosingVelocity",
+    };
+
     public double pivotAngle;
     public double pivotAngleRounded;
     public double gyroAngle;
@@ -34,19 +48,37 @@ public class RobotState {
     public double aprilTagInchesRightOfTarget = 0;
     public double commandedVelocity = 0;
     public double distanceMoved = 0;
+    public double measuredDistanceMoved = 0;
+    public double measuredVelocity = 0;
+    public double measuredTravelAngle = 0;
+    public double measuredRotationDegreesPerSecond = 0;
     public double mainTargetFacingAngle = 0;
     public double mainTargetPitch;
     public double mainTargetTimeStamp;
     
     public boolean isRedAlliance = true;
 
-    public Position robotPosition = new Position("robot position", 0, 0, 0);
-    public Position deadReckoningPosition = new Position("dead reckoning position", 0, 0, 0);
-    public LinearMapper previousXPositions = new LinearMapper(4);
-    public LinearMapper previousYPositions = new LinearMapper(4);
-    public LinearMapper previousGyroHeadings = new LinearMapper(4);
+    public PoseEstimator poseEstimator = new PoseEstimator();
+    public VisionPoseEstimator visionPoseEstimator;
+    public Position robotPosition = poseEstimator.robotPosition;
+    public Position deadReckoningPosition = poseEstimator.deadReckoningPosition;
+    public Position odometryPosition = new Position("odometry position", 0, 0, 0);
+    public double odometryTimeStamp = 0;
+    public boolean isOdometryRunning = false;
+    public boolean isOdometryGood = true; // The odometry thread is not running, or it is keeping up
+    public long odometryErrorCount = 0; // Odometry cycles where the module signals did not arrive in time
 
     public static final double APRILTAG_YAW_OFFSET = 0;
+    public static final double MAIN_CAMERA_RIGHT_OFFSET = 0; // Inches from the center of the robot
+    public static final double MAIN_CAMERA_FORWARD_OFFSET = 0;
+
+    // Center lidar region, filtered and brought up to date with the robot's movement since capture
+    public LidarRangeFilter lidarRangeFilter = new LidarRangeFilter();
+    public boolean isLidarDistanceValid = false;
+    public double lidarDistance = 0; // Inches
+    public double lidarClosingVelocity = 0; // Inches per second, positive while getting closer
+    private long lastLidarFrameCount = 0;
+    private static final double MILLIMETERS_PER_INCH = 25.4;
 
     public boolean isMainTargetFound;
     public boolean isAmpFound;
@@ -56,6 +88,30 @@ public class RobotState {
 
     public TargetInfo mainTargetResult = new TargetInfo();
 
+    public double[] moduleVelocities = new double[4];
+    public double[] moduleTurnAngles = new double[4];
+    public double[] moduleDrivePositions = new double[4];
+    public DataLogger dataLogger;
+    public InputRecorder inputRecorder = null;
+    private String dataLogDirectory;
+    private OdometrySample odometrySample = new OdometrySample();
+
+    // Measured motion
+    private SwerveState kinematics;
+    private boolean isMeasuredMotionAvailable = false;
+    private double measuredXDistance = 0;
+    private double measuredYDistance = 0;
+    private double[] lastModuleDrivePositions = new double[4];
+    private double[] moduleDistances = new double[4];
+    private boolean hasLastDrivePositions = false;
+    private boolean hasLastOdometry = false;
+    private double lastOdometryX = 0;
+    private double lastOdometryY = 0;
+    private double lastOdometryDistance = 0;
+    private long lastOdometryResetCount = 0;
+    private long lastOdometryCycleCount = 0;
+    private double lastGyroAngle = 0;
+
     private boolean lastIsGamePieceCameraAttached = false;
     private boolean lastIsMainAprilTagCameraAttached = false;
 
@@ -78,6 +134,12 @@ public class RobotState {
     public boolean isPivotEncoderGood;
     public double batteryVoltage;
     public boolean isBatteryGood = false;
+    public boolean isLidarConnected; // The LidarPi program is running
+    public boolean isLidarGood; // The lidar is sending frames fast enough and on time
+    public double lidarFrameRate; // Frames per second over the last couple of seconds
+    public int lidarDroppedFrames;
+    public double lidarLatency; // Average seconds from capture until the robot loop saw the frame
+    public double lidarJitter; // Standard deviation of the seconds between lidar frames
 
     public AutoProgram autoSelection;
     public AutoStartPosition autoStartPosition;
@@ -98,6 +160,9 @@ public class RobotState {
     private boolean lastSampletMotorGood = false;
     private boolean lastPivotMotorGood = false;
     private boolean lastPivotEncoderGood = false;
+    private boolean lastLidarConnected = false;
+    private boolean lastLidarGood = false;
+    private boolean lastOdometryGood = true;
     private double lastMainTargetTimeStamp;
 
     public AutoProgram lastAutoSelection = AutoProgram.None;
@@ -114,16 +179,43 @@ public class RobotState {
             rLog.print("Warning: RobotState.e is null");
         }
 
-        isSimulation = RobotBase.isSimulation();
-        robotStartTime = Timer.getFPGATimestamp();
+        // WPILib simulation. Headless runs have no HAL and use simulated motors that really move.
+        isSimulation = !e.isHeadless() && RobotBase.isSimulation();
+        robotStartTime = RobotTime.getTimestamp();
+
+        boolean isOnRobot = !isSimulation && !e.isHeadless();
+        dataLogDirectory = isOnRobot ? DATA_LOG_DIRECTORY : SIMULATION_DATA_LOG_DIRECTORY;
+        dataLogger = new DataLogger(dataLogDirectory, DATA_LOG_FIELDS, rLog);
+
+        visionPoseEstimator = new VisionPoseEstimator(poseEstimator, rLog);
+        visionPoseEstimator.addCamera(e.getMainAprilTagCamera(), MAIN_CAMERA_RIGHT_OFFSET,
+            MAIN_CAMERA_FORWARD_OFFSET, APRILTAG_YAW_OFFSET);
+
+        kinematics = e.createCenterPivotState();
+        isMeasuredMotionAvailable = kinematics.getModuleCount() == e.getSwerveModuleCount()
+            && kinematics.getModuleCount() == moduleVelocities.length;
+    }
+
+    /**
+     * Record the hardware inputs every loop, for LogReplay. Call after Electronics is created.
+     *
+     * @param devices The factory Electronics used, which knows every device it created
+     */
+    public void recordInputs(RecordingIOFactory devices) {
+        inputRecorder = new InputRecorder(dataLogDirectory, devices, rLog);
     }
 
     public void robotStatePeriodic(Dashboard dash, SimulationRobot simulation) {
         lastCommandTime = commandTime;
-        commandTime = Timer.getFPGATimestamp();
+        commandTime = RobotTime.getTimestamp();
         commandElapsedTime = commandTime - lastCommandTime;
         robotElapsedTime = commandTime - robotStartTime;
 
+        e.refreshCANSignals();
+        if (inputRecorder != null) {
+            inputRecorder.capture(commandTime);
+        }
+
         commandedVelocity = e.getLastTravelVelocityCommand();
         distanceMoved = commandedVelocity * commandElapsedTime;
  
@@ -134,8 +226,10 @@ public class RobotState {
         isGamePieceCameraAttached = e.getGamePieceCamera().isConnected();
         isMainAprilTagCameraAttached = e.getMainAprilTagCamera().isConnected();
 
-        autoSelection = dash.geAutoProgram();
-        autoStartPosition = dash.getAutoStart();
+        if (dash != null) { // No dashboard when running headless
+            autoSelection = dash.geAutoProgram();
+            autoStartPosition = dash.getAutoStart();
+        }
 
         gyroAngle = e.getGyroCenteredOnGoal(0);
         gyroAngleRounded = RobotMath.round1(gyroAngle);
@@ -171,6 +265,26 @@ public class RobotState {
         pivotAngle = e.getPivotCancoderAngle();
         pivotAngleRounded = RobotMath.round1(pivotAngle);
 
+        int moduleCount = Math.min(e.getSwerveModuleCount(), moduleVelocities.length);
+        for (int i = 0; i < moduleCount; i++) {
+            moduleVelocities[i] = e.getDriveVelocity(i);
+            moduleTurnAngles[i] = e.getTurnEncoderPosition(i);
+            moduleDrivePositions[i] = e.getDriveEncoderPosition(i);
+        }
+
+        OdometryIO swerveOdometry = e.getSwerveOdometry();
+        isOdometryRunning = swerveOdometry.getLatest(odometrySample);
+        if (isOdometryRunning) {
+            odometryPosition.setPosition(odometrySample.x, odometrySample.y, odometrySample.yaw);
+            odometryTimeStamp = odometrySample.timeStamp;
+        }
+        // The thread runs several cycles per loop, so no new cycle since the last loop means it stalled
+        long odometryCycleCount = swerveOdometry.getCycleCount();
+        isOdometryGood = !swerveOdometry.isRunning() || odometryCycleCount != lastOdometryCycleCount;
+        lastOdometryCycleCount = odometryCycleCount;
+        odometryErrorCount = swerveOdometry.getErrorCount();
+
+        calcMeasuredMotion();
         calcDeadReckoning();
 
         isSampleMotorGood = e.isSampletMotorAttached();
@@ -190,6 +304,14 @@ public class RobotState {
         isPivotMotorGood = e.isPivotMotorAttached();
         isPivotEncoderGood = e.isPivotCancoderAttached();
 
+        LidarHealth lidarHealth = e.updateLidarHealth(commandTime);
+        isLidarConnected = e.isLidarCameraConnected();
+        isLidarGood = isLidarConnected && lidarHealth.isHealthy();
+        lidarFrameRate = lidarHealth.frameRate;
+        lidarDroppedFrames = lidarHealth.droppedFrames;
+        lidarLatency = lidarHealth.averageLatency;
+        lidarJitter = lidarHealth.jitter;
+
         isRobotOk = isMainAprilTagCameraAttached && isGamePieceCameraAttached
             && isSampleMotorGood && isPivotMotorGood
             && isFLDriveGood && isFLTurnGood
@@ -197,11 +319,48 @@ public class RobotState {
             && isBLDriveGood && isBLTurnGood
             && isBRDriveGood && isBRTurnGood && isFLCancoderGood && isFRCancoderGood
             && isBLCancoderGood && isBRCancoderGood
-            && isPivotEncoderGood && isBatteryGood;
+            && isPivotEncoderGood && isBatteryGood && isLidarGood && isOdometryGood;
 
         if (robotElapsedTime > 3.0) {
             logChanges(); // Start logging changes after 3 seconds
         }
+
+        writeDataLog();
+        if (inputRecorder != null) {
+            inputRecorder.inputs.autoProgram = autoSelection;
+            inputRecorder.inputs.autoStartPosition = autoStartPosition;
+            inputRecorder.inputs.isRedAlliance = isRedAlliance;
+            inputRecorder.inputs.batteryVoltage = batteryVoltage;
+            inputRecorder.writeRecord();
+        }
+    }
+
+    // Record this loop's values. Must match the order of DATA_LOG_FIELDS.
+    private void writeDataLog() {
+        int index = 0;
+        for (int i = 0; i < moduleVelocities.length; i++) {
+            dataLogger.setValue(index++, moduleVelocities[i]);
+        }
+        for (int i = 0; i < moduleTurnAngles.length; i++) {
+            dataLogger.setValue(index++, moduleTurnAngles[i]);
+        }
+        dataLogger.setValue(index++, gyroAngle);
+        dataLogger.setValue(index++, commandedVelocity);
+        dataLogger.setValue(index++, e.getLastTravelAngleDegrees());
+        dataLogger.setValue(index++, e.getLastTravelRotationDegreesPerSecond());
+        dataLogger.setValue(index++, robotPosition.getX());
+        dataLogger.setValue(index++, robotPosition.getY());
+        dataLogger.setValue(index++, odometryPosition.getX());
+        dataLogger.setValue(index++, odometryPosition.getY());
+        dataLogger.setValue(index++, measuredVelocity);
+        dataLogger.setValue(index++, measuredRotationDegreesPerSecond);
+        dataLogger.setValue(index++, visionPoseEstimator.lastX);
+        dataLogger.setValue(index++, visionPoseEstimator.lastY);
+        dataLogger.setValue(index++, visionPoseEstimator.lastStdDev);
+        dataLogger.setValue(index++, visionPoseEstimator.lastTagCount);
+        dataLogger.setValue(index++, lidarDistance);
+        dataLogger.setValue(index++, lidarClosingVelocity);
+        dataLogger.writeRecord(commandTime);
     }
 
     public void logChanges() {
@@ -277,6 +436,20 @@ public class RobotState {
             rLog.print("Pivot Cancoder Good: " + isPivotEncoderGood);
             lastPivotEncoderGood = isPivotEncoderGood;
         }
+        if (lastLidarConnected != isLidarConnected) {
+            rLog.print("LidarPi Connected: " + isLidarConnected);
+            lastLidarConnected = isLidarConnected;
+        }
+        if (lastLidarGood != isLidarGood) {
+            rLog.print("Lidar Good: " + isLidarGood + ", Frame Rate: " + RobotMath.round1(lidarFrameRate)
+                + ", Dropped: " + lidarDroppedFrames + ", Latency: " + RobotMath.round3(lidarLatency)
+                + ", Jitter: " + RobotMath.round3(lidarJitter));
+            lastLidarGood = isLidarGood;
+        }
+        if (lastOdometryGood != isOdometryGood) {
+            rLog.print("Odometry Good: " + isOdometryGood + ", Errors: " + odometryErrorCount);
+            lastOdometryGood = isOdometryGood;
+        }
         if (lastAutoSelection != autoSelection) {
             rLog.print("Auto Selection: " + autoSelection);
             lastAutoSelection = autoSelection;
@@ -287,39 +460,108 @@ public class RobotState {
         }
     }
 
-    public void calcDeadReckoning() {
-        double yDistance = Math.cos(Math.toRadians(e.getLastTravelAngleDegrees())) * distanceMoved;
-        double xDistance = Math.sin(Math.toRadians(e.getLastTravelAngleDegrees())) * distanceMoved;
-        deadReckoningPosition.addToPosition(xDistance, yDistance);
-        deadReckoningPosition.setYaw(gyroAngle);
-
-        // Store previous robot dead recokoning positions and previous gyro values
-        previousXPositions.add(commandTime, deadReckoningPosition.getX());
-        previousYPositions.add(commandTime, deadReckoningPosition.getY());
-        previousGyroHeadings.add(commandTime, gyroAngle);
-
-        if (isMainTargetFound && mainTargetTimeStamp != lastMainTargetTimeStamp) {
-            // New Image found. Calculate position using vision, then add
-            // change in dead reckoning since that time stamp
-            double s = mainTargetDistance;
-            double r = mainTargetYaw;
-            double yaw = previousGyroHeadings.calculate(mainTargetTimeStamp);
-
-            double targetAngle = r + yaw;
-
-            double xFromTarget = s * Math.sin(Math.toRadians(targetAngle));
-            double yFromTeaker = s * Math.cos(Math.toRadians(targetAngle));
-
-            double x = previousXPositions.calculate(mainTargetTimeStamp);
-            double y = previousYPositions.calculate(mainTargetTimeStamp);
-
-            double xDistanceChange = deadReckoningPosition.getX() - x;
-            double yDistanceChange = deadReckoningPosition.getY() - y;
-            robotPosition.setPosition(xFromTarget + xDistanceChange, yFromTeaker + yDistanceChange);
+    /**
+     * Calculate how the robot actually moved since the last loop from the swerve module sensors.
+     * Uses the odometry thread when it is running, otherwise the drive encoders read this loop.
+     * In simulation the motors do not move, so the commanded movement is used.
+     */
+    private void calcMeasuredMotion() {
+        if (isSimulation || !isMeasuredMotionAvailable) {
+            double travelRadians = Math.toRadians(e.getLastTravelAngleDegrees());
+            measuredXDistance = Math.sin(travelRadians) * distanceMoved;
+            measuredYDistance = Math.cos(travelRadians) * distanceMoved;
+            measuredDistanceMoved = distanceMoved;
+            measuredVelocity = commandedVelocity;
+            measuredTravelAngle = e.getLastTravelAngleDegrees();
+            measuredRotationDegreesPerSecond = e.getLastTravelRotationDegreesPerSecond();
+            lastGyroAngle = gyroAngle;
+            return;
+        }
+
+        // Chassis velocity from the measured module velocities
+        kinematics.calcChassisMotion(moduleTurnAngles, moduleVelocities);
+        double robotXVelocity = kinematics.getChassisX();
+        double robotYVelocity = kinematics.getChassisY();
+        measuredVelocity = Math.sqrt((robotXVelocity * robotXVelocity) + (robotYVelocity * robotYVelocity));
+        measuredTravelAngle = Math.toDegrees(Math.atan2(robotXVelocity, robotYVelocity)) + gyroAngle;
+        measuredRotationDegreesPerSecond = kinematics.getChassisDegrees();
+
+        if (isOdometryRunning) {
+            if (hasLastOdometry && odometrySample.resetCount == lastOdometryResetCount) {
+                measuredXDistance = odometrySample.x - lastOdometryX;
+                measuredYDistance = odometrySample.y - lastOdometryY;
+                measuredDistanceMoved = odometrySample.distanceTraveled - lastOdometryDistance;
+            } else {
+                measuredXDistance = 0;
+                measuredYDistance = 0;
+                measuredDistanceMoved = 0;
+            }
+            lastOdometryX = odometrySample.x;
+            lastOdometryY = odometrySample.y;
+            lastOdometryDistance = odometrySample.distanceTraveled;
+            lastOdometryResetCount = odometrySample.resetCount;
+            hasLastOdometry = true;
+            hasLastDrivePositions = false;
         } else {
-            // No Image found. Calculate position using commanded movement
-            robotPosition.addToPosition(xDistance, yDistance);
-            robotPosition.setYaw(gyroAngle);
+            for (int i = 0; i < moduleDistances.length; i++) {
+                moduleDistances[i] = hasLastDrivePositions ? moduleDrivePositions[i] - lastModuleDrivePositions[i] : 0;
+                lastModuleDrivePositions[i] = moduleDrivePositions[i];
+            }
+            hasLastDrivePositions = true;
+            hasLastOdometry = false;
+
+            kinematics.calcChassisMotion(moduleTurnAngles, moduleDistances);
+            double robotX = kinematics.getChassisX();
+            double robotY = kinematics.getChassisY();
+
+            // Rotate into field coordinates using the heading halfway through the motion
+            double gyroChange = Position.getAngleChange(lastGyroAngle, gyroAngle);
+            double headingRadians = Math.toRadians(lastGyroAngle + (gyroChange / 2.0));
+            double cos = Math.cos(headingRadians);
+            double sin = Math.sin(headingRadians);
+            measuredXDistance = (robotX * cos) + (robotY * sin);
+            measuredYDistance = (robotY * cos) - (robotX * sin);
+            measuredDistanceMoved = Math.sqrt((robotX * robotX) + (robotY * robotY));
+        }
+        lastGyroAngle = gyroAngle;
+    }
+
+    /**
+     * Put the robot at a known position, like its starting spot when autonomous starts. Moves
+     * the odometry thread's position too, so the two stay the same.
+     */
+    public void resetPosition(double x, double y, double gyroAngle) {
+        poseEstimator.resetPosition(x, y, gyroAngle);
+        e.getSwerveOdometry().resetPosition(x, y);
+    }
+
+    public void calcDeadReckoning() {
+        poseEstimator.addMeasuredMotion(commandTime, measuredXDistance, measuredYDistance, measuredDistanceMoved,
+            gyroAngle);
+
+        // Every camera result since the last loop, each at the time it was taken
+        visionPoseEstimator.update(isRedAlliance);
+
+        calcLidarDistance();
+    }
+
+    /**
+     * Filter the center lidar region. Each new frame is corrected for how far the robot has driven
+     * since it was captured, so it needs the position from calcDeadReckoning for this loop.
+     */
+    private void calcLidarDistance() {
+        lidarRangeFilter.predict(commandTime);
+        long lidarFrameCount = e.getLidarFrameCount();
+        if (lidarFrameCount != lastLidarFrameCount) {
+            lastLidarFrameCount = lidarFrameCount;
+            double millimeters = e.getLidarDistance();
+            if (millimeters > 0) { // Negative when no point had a depth
+                lidarRangeFilter.addMeasurement(commandTime, e.getLidarCaptureTime(),
+                    millimeters / MILLIMETERS_PER_INCH, poseEstimator.poseHistory, robotPosition);
+            }
         }
+        isLidarDistanceValid = lidarRangeFilter.isValid;
+        lidarDistance = lidarRangeFilter.distance;
+        lidarClosingVelocity = lidarRangeFilter.closingVelocity;
     }
-}
\ No newline at end of file
+}
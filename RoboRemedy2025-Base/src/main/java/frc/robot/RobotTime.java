@@ -0,0 +1,40 @@
+// RobotTime.java - Source of the current time for robot code
+package frc.robot;
+
+import edu.wpi.first.wpilibj.*;
+
+/**
+ * Normally the FPGA time. When running without hardware (headless benchmarks or log replay)
+ * the time is simulated and only changes when setTime or advanceTime is called, so a loop
+ * runs the same no matter how fast the computer is.
+ */
+public class RobotTime {
+    private static volatile boolean isSimulatedTime = false;
+    private static volatile double simulatedTime = 0;
+
+    /** Current time, in seconds */
+    public static double getTimestamp() {
+        if (isSimulatedTime) {
+            return simulatedTime;
+        }
+        return Timer.getFPGATimestamp();
+    }
+
+    /** Stop using the FPGA time. Call before any robot objects are created. */
+    public static void useSimulatedTime(double startTime) {
+        simulatedTime = startTime;
+        isSimulatedTime = true;
+    }
+
+    public static boolean isSimulatedTime() {
+        return isSimulatedTime;
+    }
+
+    public static void setTime(double time) {
+        simulatedTime = time;
+    }
+
+    public static void advanceTime(double seconds) {
+        simulatedTime += seconds;
+    }
+}
@@ -0,0 +1,55 @@
+// SimCameraIO.java - Vision camera that runs without hardware
+package frc.robot;
+
+import frc.robot.PhotonVisionCamera.*;
+import frc.robot.ReplayInputs.*;
+
+/** A connected camera that never sees a target */
+public class SimCameraIO implements CameraIO {
+
+    public boolean isConnected() {
+        return true;
+    }
+
+    public void setDriverMode(boolean driveMode) {
+    }
+
+    public void takeNoteSnapshot() {
+    }
+
+    public void findSpecificAprilTag(int targetID, TargetInfo info) {
+        clear(info);
+    }
+
+    public boolean findNextAprilTag(int targetID, double afterTimeStamp, TargetInfo info) {
+        clear(info);
+        return false;
+    }
+
+    public void getBestShapeByYaw(TargetInfo info) {
+        clear(info);
+    }
+
+    public void getBestShapeByPitch(TargetInfo info) {
+        clear(info);
+    }
+
+    public void getLatestTargets(CameraInputs targets) {
+        targets.isConnected = true;
+        targets.timeStamp = 0;
+        targets.targetCount = 0;
+    }
+
+    public boolean getNextTargets(double afterTimeStamp, CameraInputs targets) {
+        getLatestTargets(targets);
+        return false;
+    }
+
+    private void clear(TargetInfo info) {
+        info.isFound = false;
+        info.id = 0;
+        info.timeStamp = Double.MAX_VALUE;
+        info.yaw = Double.MAX_VALUE;
+        info.pitch = Double.MAX_VALUE;
+    }
+}
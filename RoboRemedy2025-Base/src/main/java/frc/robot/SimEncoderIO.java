@@ -0,0 +1,27 @@
+// SimEncoderIO.java - Absolute encoder that runs without hardware
+package frc.robot;
+
+public class SimEncoderIO implements EncoderIO {
+    private double absoluteAngle = 0;
+    private double angle = 0;
+
+    public double getAbsoluteAngle() {
+        return absoluteAngle;
+    }
+
+    public void setAbsoluteAngle(double angle) {
+        absoluteAngle = angle;
+    }
+
+    public double getAngle() {
+        return angle;
+    }
+
+    public void setAngle(double angle) {
+        this.angle = angle;
+    }
+
+    public boolean isAttached() {
+        return true;
+    }
+}
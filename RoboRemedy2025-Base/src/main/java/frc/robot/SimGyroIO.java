@@ -0,0 +1,40 @@
+// SimGyroIO.java - Gyro that runs without hardware
+package frc.robot;
+
+import edu.wpi.first.util.sendable.*;
+
+/** Reports whatever yaw it was last given with setYaw or setSimulationYaw */
+public class SimGyroIO implements GyroIO {
+    // Volatile because the odometry thread also reads the yaw
+    private volatile float yaw = 0;
+
+    public float getYaw() {
+        return yaw;
+    }
+
+    public void setYaw(double yawAngle) {
+        yaw = (float) yawAngle;
+    }
+
+    public void setSimulationYaw(double yawAngle) {
+        yaw = (float) yawAngle;
+    }
+
+    public float getPitch() {
+        return 0;
+    }
+
+    public float getRoll() {
+        return 0;
+    }
+
+    public long getLastSensorTimestamp() {
+        return (long) (RobotTime.getTimestamp() * 1000.0);
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.setSmartDashboardType("Gyro");
+        builder.addDoubleProperty("Value", this::getYaw, null);
+    }
+}
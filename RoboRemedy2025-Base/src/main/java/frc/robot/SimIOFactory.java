@@ -0,0 +1,41 @@
+// SimIOFactory.java - Creates hardware objects that run in a plain JVM without the HAL
+package frc.robot;
+
+import frc.robot.RobotMotor.*;
+
+public class SimIOFactory implements IOFactory {
+
+    public MotorIO createMotor(RobotMotorType motorType, int motorID, boolean isInverted, boolean isCoast,
+            RoboLog rLog, double unitsPerRevolution, double maxCurrent, double statorCurrent,
+            RobotEncoderType encoderType, int absoluteEncoderID, boolean isUsingVoltageCompensation) {
+        return new SimMotorIO(motorType, motorID, unitsPerRevolution);
+    }
+
+    public EncoderIO createCANcoder(int id, boolean isInverted, RoboLog rLog) {
+        return new SimEncoderIO();
+    }
+
+    public GyroIO createGyro() {
+        return new SimGyroIO();
+    }
+
+    public CameraIO createCamera(String cameraName, RoboLog rLog) {
+        return new SimCameraIO();
+    }
+
+    public LidarIO createLidar(String networkTableName) {
+        return null; // There is no LidarPi to simulate
+    }
+
+    public LEDIO createLEDs(int port, int ledCount) {
+        return new SimLEDIO(ledCount);
+    }
+
+    public OdometryIO createOdometry(SwerveModule[] modules, GyroIO gyro, SwerveState kinematics, RoboLog rLog) {
+        return new SimOdometryIO();
+    }
+
+    public boolean isHeadless() {
+        return true;
+    }
+}
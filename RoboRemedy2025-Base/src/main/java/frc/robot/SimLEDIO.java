@@ -0,0 +1,27 @@
+// SimLEDIO.java - LED string that runs without hardware
+package frc.robot;
+
+import edu.wpi.first.wpilibj.util.*;
+
+public class SimLEDIO implements LEDIO {
+    private Color[] colors;
+
+    SimLEDIO(int ledCount) {
+        colors = new Color[ledCount];
+    }
+
+    @Override
+    public void setLED(int ledNumber, Color color) {
+        if (ledNumber >= 0 && ledNumber < colors.length) {
+            colors[ledNumber] = color;
+        }
+    }
+
+    @Override
+    public void sendLEDBuffer() {
+    }
+
+    public Color getLED(int ledNumber) {
+        return colors[ledNumber];
+    }
+}
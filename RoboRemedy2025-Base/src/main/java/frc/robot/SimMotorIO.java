@@ -0,0 +1,199 @@
+// SimMotorIO.java - Motor that runs without hardware
+package frc.robot;
+
+import frc.robot.RobotMotor.*;
+
+/**
+ * An ideal motor: velocity and position requests are reached right away, and percent
+ * output runs at that fraction of free speed. The encoder position follows the velocity
+ * using RobotTime, so it moves with simulated time.
+ */
+public class SimMotorIO implements MotorIO {
+    private static final double FREE_SPEED_REVOLUTIONS_PER_SECOND = 100.0; // About 6000 RPM
+
+    private RobotMotorType motorType;
+    private int motorID;
+    private double freeSpeed;
+    private LinearMapper mapper = null;
+
+    private double position = 0;
+    private double velocity = 0;
+    private double lastUpdateTime;
+
+    private double lastAssignedPercentage = 0;
+    private double lastAssignedPosition = 0;
+    private double lastAssignedVelocity = 0;
+    private double lastAssignedFeedForward = 0;
+    private double lastAssignedTime = 0;
+
+    SimMotorIO(RobotMotorType motorType, int motorID, double unitsPerRevolution) {
+        this.motorType = motorType;
+        this.motorID = motorID;
+        freeSpeed = Math.abs(unitsPerRevolution) * FREE_SPEED_REVOLUTIONS_PER_SECOND;
+        lastUpdateTime = RobotTime.getTimestamp();
+    }
+
+    // Move the position by the velocity since the last update
+    private void update() {
+        double now = RobotTime.getTimestamp();
+        position += velocity * (now - lastUpdateTime);
+        lastUpdateTime = now;
+    }
+
+    public RobotMotorType getMotorType() {
+        return motorType;
+    }
+
+    public int getMotorID() {
+        return motorID;
+    }
+
+    public void setInputCurrentLimit(double amps) {
+    }
+
+    public void setOutputCurrentLimit(double amps) {
+    }
+
+    public double getEncoderPosition() {
+        update();
+        return position;
+    }
+
+    public boolean isEncoderAttached() {
+        return true;
+    }
+
+    public boolean isFXConfigNeeded() {
+        return false;
+    }
+
+    public boolean configReapply() {
+        return true;
+    }
+
+    public double getStatorCurrent() {
+        return 0;
+    }
+
+    public double getEncoderVelocity() {
+        return velocity;
+    }
+
+    public boolean setEncoderValue(double position) {
+        update();
+        this.position = position;
+        return true;
+    }
+
+    public void setPercentVelocityLinearMapper(LinearMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public LinearMapper getPercentVelocityLinearMapper() {
+        if (mapper == null)
+            return new LinearMapper();
+        else
+            return mapper;
+    }
+
+    public void setPID(double p, double i, double d, double iZone, boolean isVelocity) {
+    }
+
+    public void setDriveOpenLoopRamp(double rate) {
+    }
+
+    public void setPercent(double percent) {
+        update();
+        velocity = percent * freeSpeed;
+        lastAssignedPercentage = percent;
+        lastAssignedPosition = 0;
+        lastAssignedVelocity = 0;
+        lastAssignedFeedForward = 0;
+        lastAssignedTime = RobotTime.getTimestamp();
+    }
+
+    public void setPosition(double desiredPosition) {
+        setPosition(desiredPosition, 0);
+    }
+
+    public void setPosition(double desiredPosition, double feedForward) {
+        update();
+        position = desiredPosition;
+        velocity = 0;
+        lastAssignedPercentage = 0;
+        lastAssignedPosition = desiredPosition;
+        lastAssignedVelocity = 0;
+        lastAssignedFeedForward = Math.max(-1.0, Math.min(1.0, feedForward));
+        lastAssignedTime = RobotTime.getTimestamp();
+    }
+
+    public void setVelocity(double velocity) {
+        update();
+        this.velocity = velocity;
+        lastAssignedPercentage = 0;
+        lastAssignedPosition = 0;
+        lastAssignedVelocity = velocity;
+        lastAssignedFeedForward = freeSpeed > 0 ? velocity / freeSpeed : 0;
+        lastAssignedTime = RobotTime.getTimestamp();
+    }
+
+    public void setMaxOutput(double percentOutput) {
+    }
+
+    public void burnFlash() {
+    }
+
+    public void stopMotor() {
+        setPercent(0);
+    }
+
+    public double getOutputPercent() {
+        return freeSpeed > 0 ? velocity / freeSpeed : 0;
+    }
+
+    public double getLastAssignedPercentage() {
+        return lastAssignedPercentage;
+    }
+
+    public double getLastAssignedVelocity() {
+        return lastAssignedVelocity;
+    }
+
+    public double getLastAssignedPosition() {
+        return lastAssignedPosition;
+    }
+
+    public double getLastAssignedFeedForward() {
+        return lastAssignedFeedForward;
+    }
+
+    public void rampToPercent(double percent, double maxPercentPerSecond) {
+        double timeBetween = RobotTime.getTimestamp() - lastAssignedTime;
+        double maxChange = maxPercentPerSecond * timeBetween;
+        percent = Math.max(Math.min(percent, lastAssignedPercentage + maxChange), lastAssignedPercentage - maxChange);
+        setPercent(percent);
+    }
+
+    public void rampToVelocity(double velocity, double maxVelocityPerSecond) {
+        double timeBetween = RobotTime.getTimestamp() - lastAssignedTime;
+        double maxChange = maxVelocityPerSecond * timeBetween;
+        velocity = Math.max(Math.min(velocity, lastAssignedVelocity + maxChange), lastAssignedVelocity - maxChange);
+        setVelocity(velocity);
+    }
+
+    public void setNeutralModeDeadband(double percentDeadband) {
+    }
+
+    public void setNeutralMode(boolean isCoast) {
+    }
+
+    public void followMotor(MotorIO motorToFollow) {
+    }
+
+    public void setIntegralAccumulator(double value) {
+    }
+
+    public boolean isAttached() {
+        return true;
+    }
+}
@@ -0,0 +1,30 @@
+// SimOdometryIO.java - Odometry when there is no hardware
+package frc.robot;
+
+/**
+ * The odometry thread needs the TalonFX position signals, so without them it never runs and
+ * RobotState measures motion from the drive encoders each loop instead.
+ */
+public class SimOdometryIO implements OdometryIO {
+    public void start() {
+    }
+
+    public boolean isRunning() {
+        return false;
+    }
+
+    public long getCycleCount() {
+        return 0;
+    }
+
+    public long getErrorCount() {
+        return 0;
+    }
+
+    public void resetPosition(double x, double y) {
+    }
+
+    public boolean getLatest(OdometrySample sample) {
+        return false;
+    }
+}
@@ -58,18 +58,18 @@ public class SimulationRobot {
         simulationField.setRobotPose(robotPose);
         SmartDashboard.putData("Field", simulationField);
         
-        // Cameras
+        // Cameras. WPILib simulation uses RealIOFactory, so these are PhotonVision cameras.
         visionSim = new VisionSystemSim("main"); 
         SimCameraProperties aprilTagCameraProp = new SimCameraProperties();
         aprilTagCameraProp.setFPS(20);
         aprilTagCameraProp.setAvgLatencyMs(35);
-        aprilTagCameraSim = new PhotonCameraSim(e.getMainAprilTagCamera().getPhotonCamera(),
+        aprilTagCameraSim = new PhotonCameraSim(((PhotonVisionCamera) e.getMainAprilTagCamera()).getPhotonCamera(),
             aprilTagCameraProp, 1.0, 5);
         visionSim.addCamera(aprilTagCameraSim,new Transform3d());
         SimCameraProperties noteCameraProp = new SimCameraProperties();
         noteCameraProp.setFPS(20);
         noteCameraProp.setAvgLatencyMs(35);
-        noteCameraSim = new PhotonCameraSim(e.getGamePieceCamera().getPhotonCamera(),
+        noteCameraSim = new PhotonCameraSim(((PhotonVisionCamera) e.getGamePieceCamera()).getPhotonCamera(),
             noteCameraProp, 1.0, 5);
         visionSim.addCamera(noteCameraSim,new Transform3d());
         visionSim.update(robotPose);
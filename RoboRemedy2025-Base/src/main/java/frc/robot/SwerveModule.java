@@ -4,20 +4,24 @@ package frc.robot;
 import frc.robot.RobotMotor.*;
 
 public class SwerveModule {
-    private RobotMotor driveMotor;
-    private RobotMotor turnMotor;
+    private static final double TURN_MOTOR_FREE_SPEED = 95.0; // Revolutions per second, about the same for a NEO and a Kraken
+    private static final double MIN_TURN_RATE = 3.0; // Degrees per second, slower than this the module is treated as not turning
+
+    private MotorIO driveMotor;
+    private MotorIO turnMotor;
     private PWMInput pWMInput = null;
-    private RobotCANcoder turnEncoder = null;
+    private EncoderIO turnEncoder = null;
     private RoboLog rLog;
     private double lastTurnDifference;
     private RobotEncoderType turnEncoderType;
     private double offsetDegrees;
     private LinearMapper velocityMapper = new LinearMapper();
+    private double turnDegreesPerSecondAtFullPower;
 
     /** Meant for assigning initial turn encoder value*/
     private boolean isTurnEncoderSet = false;
 
-    SwerveModule(int driveID, int turnID,int absoluteEncoderID, double offsetDegrees, RoboLog rLog,
+    SwerveModule(IOFactory io, int driveID, int turnID,int absoluteEncoderID, double offsetDegrees, RoboLog rLog,
             RobotMotor.RobotMotorType driveMotorType, RobotMotor.RobotMotorType turnMotorType, 
             RobotEncoderType turnEncoderType, double driveWheelDiameter, double driveGearRatio, double turnEncoderRatio) {
         this.rLog = rLog;
@@ -47,22 +51,23 @@ public class SwerveModule {
             velocityMapper.add(207.0, 1.0);
         }
 
-        driveMotor = new RobotMotor(driveMotorType, driveID, false, false, rLog, (driveWheelDiameter * Math.PI) / driveGearRatio, 
+        driveMotor = io.createMotor(driveMotorType, driveID, false, false, rLog, (driveWheelDiameter * Math.PI) / driveGearRatio, 
                 40, 40, RobotEncoderType.Internal, 0, true);
         driveMotor.setPID(0, 0, 0, 0, false);
         driveMotor.setMaxOutput(1.0);
         driveMotor.setPercentVelocityLinearMapper(velocityMapper);
         driveMotor.burnFlash();
 
-        turnMotor = new RobotMotor(turnMotorType, turnID, true, false, rLog, turnEncoderRatio, 11, 40,
+        turnMotor = io.createMotor(turnMotorType, turnID, true, false, rLog, turnEncoderRatio, 11, 40,
             RobotEncoderType.Internal, 0, true);
         turnMotor.setPID(.1, 0.0001, 0, 3.0, true);
         turnMotor.setMaxOutput(0.8);
         turnMotor.burnFlash();
+        turnDegreesPerSecondAtFullPower = TURN_MOTOR_FREE_SPEED * turnEncoderRatio;
 
         this.turnEncoderType = turnEncoderType;
         if (turnEncoderType == RobotEncoderType.Cancoder) {
-            turnEncoder = new RobotCANcoder(absoluteEncoderID, true, rLog);
+            turnEncoder = io.createCANcoder(absoluteEncoderID, true, rLog);
         } else {
             pWMInput = new PWMInput(absoluteEncoderID, 1.0E-6, 1.0E-6, 1024);
         }
@@ -160,11 +165,11 @@ public class SwerveModule {
         return velocityMapper.getMaxInputValue();
     }
 
-    public RobotMotor getDriveMotor() {
+    public MotorIO getDriveMotor() {
         return driveMotor;
     }
 
-    public RobotMotor getTurnMotor() {
+    public MotorIO getTurnMotor() {
         return turnMotor;
     }
 
@@ -179,6 +184,16 @@ public class SwerveModule {
     }
 
     public void setTurnHeading(double angle) {
+        setTurnHeading(angle, 0);
+    }
+
+    /**
+     * Turn to a heading that is itself turning, with the turn rate fed forward so the module
+     * keeps up instead of only correcting once it is behind.
+     *
+     * @param turnDegreesPerSecond How fast angle is changing
+     */
+    public void setTurnHeading(double angle, double turnDegreesPerSecond) {
         double currentHeading = getTurnEncoderPosition();
         while (angle < (currentHeading - 180)) {
             angle = angle + 360;
@@ -188,15 +203,24 @@ public class SwerveModule {
         }
         double difference = (angle - currentHeading);
         if (((difference <= 0 && lastTurnDifference >= 0) || (difference >= 0 && lastTurnDifference <= 0))
-                && Math.abs(difference) < 0.55) {
+                && Math.abs(difference) < 0.55 && Math.abs(turnDegreesPerSecond) < MIN_TURN_RATE) {
             setTurnPower(0);
         } else {
             lastTurnDifference = difference;
-            turnMotor.setPosition(angle);
+            turnMotor.setPosition(angle, turnDegreesPerSecond / turnDegreesPerSecondAtFullPower);
         }
     }
 
     public void setSpeedAndHeading(double velocity, double angle) {
+        setSpeedAndHeading(velocity, angle, 0);
+    }
+
+    /**
+     * @param turnDegreesPerSecond How fast angle is changing, from SwerveState.getTurnDegreesPerSecond.
+     *                             When the module is already turning with the robot, a turn error
+     *                             is it catching up, so the drive is not stopped for it.
+     */
+    public void setSpeedAndHeading(double velocity, double angle, double turnDegreesPerSecond) {
         if (velocity < 0.01) {
             setDriveSpeed(0);
             setTurnPower(0);
@@ -215,12 +239,12 @@ public class SwerveModule {
                 velocity = -velocity;
                 angleDifference = 180.0 - angleDifference;
             }
-            if (angleDifference > 10.0 && currentVelocity < 20.0) {
+            if (angleDifference > 10.0 && currentVelocity < 20.0 && Math.abs(turnDegreesPerSecond) < MIN_TURN_RATE) {
                 setDriveSpeed(0);
             } else {
                 setDriveSpeed(velocity);
             }
-            setTurnHeading(angle);
+            setTurnHeading(angle, turnDegreesPerSecond);
         }
     }
 
@@ -0,0 +1,257 @@
+// SwerveOdometry.java - Calculates robot position from measured swerve module motion on its own thread
+package frc.robot;
+
+import com.ctre.phoenix6.*;
+import edu.wpi.first.units.measure.*;
+import edu.wpi.first.wpilibj.*;
+
+import java.lang.invoke.*;
+
+/**
+ * Runs at ODOMETRY_HZ on a separate thread. Each cycle waits for new drive and turn
+ * position frames from the swerve modules, reads the gyro and integrates the measured
+ * module motion into a field position. The main loop reads the latest position with
+ * getLatest, which never blocks the odometry thread. Needs TalonFX swerve motors, so
+ * RealIOFactory creates it.
+ */
+public class SwerveOdometry implements OdometryIO {
+    public static final double ODOMETRY_HZ = 200.0;
+    private static final double MAX_YAW_RATE = 1500.0; // Degrees per second, faster is the gyro being set
+    private static final int MAX_READ_TRIES = 1000; // Publishing a sample takes well under a microsecond
+
+    private RoboLog rLog;
+    private GyroIO gyro;
+    private SwerveState kinematics;
+    private int moduleCount;
+    private StatusSignal<Angle>[] drivePositions;
+    private StatusSignal<Angle>[] turnPositions;
+    private BaseStatusSignal[] allSignals;
+    private double[] lastDrivePositions;
+    private double[] moduleAngles;
+    private double[] moduleDistances;
+    private double lastYaw;
+    private double lastTimeStamp = 0;
+    private boolean isAvailable = true;
+    private volatile boolean isRunning = false;
+    private Thread thread;
+
+    // Values owned by the odometry thread
+    private double currentX = 0;
+    private double currentY = 0;
+    private double currentDistance = 0;
+    private long currentResetCount = 0;
+
+    // Reset requested by the main loop, applied by the odometry thread
+    private volatile boolean isResetRequested = false;
+    private volatile double resetX;
+    private volatile double resetY;
+
+    // Latest published values. Guarded by a sequence lock: the sequence is odd while they are being written.
+    private volatile long sequence = 0;
+    private double publishedX;
+    private double publishedY;
+    private double publishedYaw;
+    private double publishedTimeStamp;
+    private double publishedDistance;
+    private long publishedResetCount;
+
+    private volatile long cycleCount = 0;
+    private volatile long errorCount = 0;
+
+    /**
+     * @param modules    Swerve modules, in the same order as the kinematics module locations
+     * @param gyro       Gyro used for the robot heading
+     * @param kinematics Module locations relative to the center of the robot. Only used by this thread.
+     * @param rLog       Log
+     */
+    @SuppressWarnings("unchecked")
+    SwerveOdometry(SwerveModule[] modules, GyroIO gyro, SwerveState kinematics, RoboLog rLog) {
+        this.gyro = gyro;
+        this.kinematics = kinematics;
+        this.rLog = rLog;
+
+        if (this.rLog == null) {
+            System.out.println("Warning: SwerveOdometry.rLog is null");
+        }
+
+        moduleCount = modules.length;
+        drivePositions = new StatusSignal[moduleCount];
+        turnPositions = new StatusSignal[moduleCount];
+        allSignals = new BaseStatusSignal[moduleCount * 2];
+        lastDrivePositions = new double[moduleCount];
+        moduleAngles = new double[moduleCount];
+        moduleDistances = new double[moduleCount];
+        for (int i = 0; i < moduleCount; i++) {
+            MotorIO driveMotor = modules[i].getDriveMotor();
+            MotorIO turnMotor = modules[i].getTurnMotor();
+            if (!(driveMotor instanceof RobotMotor) || !(turnMotor instanceof RobotMotor)) {
+                isAvailable = false;
+                continue;
+            }
+            // Copies, so this thread never refreshes the signals the main loop is reading
+            drivePositions[i] = ((RobotMotor) driveMotor).getPositionSignalCopy();
+            turnPositions[i] = ((RobotMotor) turnMotor).getPositionSignalCopy();
+            if (drivePositions[i] == null || turnPositions[i] == null) {
+                isAvailable = false;
+            }
+            allSignals[i * 2] = drivePositions[i];
+            allSignals[(i * 2) + 1] = turnPositions[i];
+        }
+
+        if (!isAvailable) {
+            rLog.print("Swerve odometry thread not available: swerve modules are not all TalonFX motors");
+        } else if (kinematics.getModuleCount() != moduleCount) {
+            rLog.print("Swerve odometry thread not available: module count does not match module locations");
+            isAvailable = false;
+        } else if (!kinematics.isRotationMeasurable()) {
+            rLog.print("Swerve odometry thread not available: needs at least two swerve modules");
+            isAvailable = false;
+        }
+    }
+
+    public void start() {
+        if (!isAvailable || isRunning) {
+            return;
+        }
+        BaseStatusSignal.setUpdateFrequencyForAll(ODOMETRY_HZ, allSignals);
+        BaseStatusSignal.refreshAll(allSignals);
+        for (int i = 0; i < moduleCount; i++) {
+            lastDrivePositions[i] = drivePositions[i].getValueAsDouble();
+        }
+        lastYaw = gyro.getYaw();
+
+        isRunning = true;
+        thread = new Thread(this::run, "SwerveOdometry");
+        thread.setDaemon(true);
+        thread.start();
+        rLog.print("Swerve odometry thread started at " + ODOMETRY_HZ + " Hz");
+    }
+
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    public long getCycleCount() {
+        return cycleCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Move the odometry position, like when the robot position is set at the start of
+     * autonomous. The change is applied on the next odometry cycle, and shows in the
+     * sample's resetCount so the jump is not taken as the robot moving.
+     */
+    public void resetPosition(double x, double y) {
+        resetX = x;
+        resetY = y;
+        isResetRequested = true;
+    }
+
+    /**
+     * Copy the most recent odometry values into sample. Safe to call from any thread.
+     *
+     * @return false if the odometry thread is not running, or a consistent sample could not be
+     *         read in MAX_READ_TRIES tries, so the loop can not hang if the thread stops mid write
+     */
+    public boolean getLatest(OdometrySample sample) {
+        if (!isRunning) {
+            return false;
+        }
+        for (int tryCount = 0; tryCount < MAX_READ_TRIES; tryCount++) {
+            long startSequence = sequence;
+            if ((startSequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            sample.x = publishedX;
+            sample.y = publishedY;
+            sample.yaw = publishedYaw;
+            sample.timeStamp = publishedTimeStamp;
+            sample.distanceTraveled = publishedDistance;
+            sample.resetCount = publishedResetCount;
+            VarHandle.loadLoadFence();
+            if (sequence == startSequence) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void run() {
+        Threads.setCurrentThreadPriority(true, 1);
+        long sleepMillis = (long) (1000.0 / ODOMETRY_HZ);
+        while (isRunning) {
+            StatusCode status = BaseStatusSignal.waitForAll(2.0 / ODOMETRY_HZ, allSignals);
+            if (!status.isOK()) {
+                errorCount++;
+                try {
+                    // Avoid spinning when a device is missing
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                continue;
+            }
+            update();
+            cycleCount++;
+        }
+    }
+
+    private void update() {
+        if (isResetRequested) {
+            currentX = resetX;
+            currentY = resetY;
+            currentResetCount++;
+            isResetRequested = false;
+        }
+
+        // Chassis motion that best fits the measured module motion, in robot coordinates
+        for (int i = 0; i < moduleCount; i++) {
+            double drivePosition = drivePositions[i].getValueAsDouble();
+            moduleDistances[i] = drivePosition - lastDrivePositions[i];
+            lastDrivePositions[i] = drivePosition;
+            moduleAngles[i] = turnPositions[i].getValueAsDouble();
+        }
+        kinematics.calcChassisMotion(moduleAngles, moduleDistances);
+        double robotX = kinematics.getChassisX();
+        double robotY = kinematics.getChassisY();
+
+        // Rotate into field coordinates using the heading halfway through the motion
+        double timeStamp = Utils.currentTimeToFPGATime(drivePositions[0].getTimestamp().getTime());
+        double elapsedTime = Math.max(timeStamp - lastTimeStamp, 1.0 / ODOMETRY_HZ);
+        lastTimeStamp = timeStamp;
+        double yaw = gyro.getYaw();
+        double yawChange = Position.getAngleChange(lastYaw, yaw);
+        if (Math.abs(yawChange) > MAX_YAW_RATE * elapsedTime) {
+            // The gyro was set (like the driver resetting it), so the robot did not turn this far.
+            // This is checked here instead of being requested by setGyro, since the new yaw may
+            // not have arrived yet on the cycle right after.
+            yawChange = 0;
+            lastYaw = yaw;
+        }
+        double headingRadians = Math.toRadians(lastYaw + (yawChange / 2.0));
+        lastYaw = yaw;
+        double cos = Math.cos(headingRadians);
+        double sin = Math.sin(headingRadians);
+        currentX += (robotX * cos) + (robotY * sin);
+        currentY += (robotY * cos) - (robotX * sin);
+        currentDistance += Math.sqrt((robotX * robotX) + (robotY * robotY));
+
+        publish(currentX, currentY, yaw, timeStamp, currentDistance, currentResetCount);
+    }
+
+    private void publish(double x, double y, double yaw, double timeStamp, double distance, long resetCount) {
+        sequence = sequence + 1;
+        VarHandle.storeStoreFence();
+        publishedX = x;
+        publishedY = y;
+        publishedYaw = yaw;
+        publishedTimeStamp = timeStamp;
+        publishedDistance = distance;
+        publishedResetCount = resetCount;
+        sequence = sequence + 1;
+    }
+}
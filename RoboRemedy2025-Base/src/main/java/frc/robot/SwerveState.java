@@ -8,12 +8,26 @@ public class SwerveState {
     private class SwerveInstance {
         public double magnitude;
         public double angle;
+        public double turnDegreesPerSecond; // How fast angle is changing, from assignSwerveModulesSecondOrder
         public double xFromCenter;
         public double yFromCenter;
     }
 
     SwerveInstance[] instances;
 
+    // Inches per second. Slower modules have little angle to turn with, so their turn rate
+    // is tapered off toward 0 instead of growing without limit as they stop.
+    private static final double FULL_TURN_RATE_SPEED = 6.0;
+
+    // Least-squares solution of the module equations, used for forward kinematics.
+    // Row 0 gives chassis X velocity, row 1 chassis Y velocity, row 2 angular velocity (radians).
+    // Columns alternate module X and module Y components.
+    private double[][] pseudoInverse;
+    private boolean isRotationMeasurable;
+    private double chassisX;
+    private double chassisY;
+    private double chassisRadians;
+
     SwerveState(Point2D.Double[] locations) {
         instances = new SwerveInstance[locations.length];
         for (int i = 0; i < locations.length; i++) {
@@ -21,6 +35,7 @@ public class SwerveState {
             instances[i].xFromCenter = locations[i].getX();
             instances[i].yFromCenter = locations[i].getY();
         }
+        calcPseudoInverse();
     }
 
     SwerveState(double width, double height) {
@@ -36,6 +51,115 @@ public class SwerveState {
             instances[i].xFromCenter = origState.instances[i].xFromCenter - x;
             instances[i].yFromCenter = origState.instances[i].yFromCenter - y;
         }
+        calcPseudoInverse();
+    }
+
+    /**
+     * Each module gives two equations (see assignSwerveModules):
+     * moduleX = velX + (omega * yFromCenter) and moduleY = velY - (omega * xFromCenter).
+     * Precompute (At * A)^-1 * At for that system so calcChassisMotion is only multiply-adds.
+     * With fewer than two module locations (like the one module test robot) At * A can not be
+     * inverted, so the chassis motion is the average module motion with no rotation.
+     */
+    private void calcPseudoInverse() {
+        int count = instances.length;
+        double sumX = 0;
+        double sumY = 0;
+        double sumSquares = 0;
+        for (SwerveInstance i : instances) {
+            sumX += i.xFromCenter;
+            sumY += i.yFromCenter;
+            sumSquares += (i.xFromCenter * i.xFromCenter) + (i.yFromCenter * i.yFromCenter);
+        }
+
+        // At * A is symmetric: [[n, 0, sumY], [0, n, -sumX], [sumY, -sumX, sumSquares]]
+        double a = count, b = 0, c = sumY;
+        double d = count, f = -sumX;
+        double g = sumSquares;
+        double cofactor00 = (d * g) - (f * f);
+        double cofactor01 = -((b * g) - (f * c));
+        double cofactor02 = (b * f) - (d * c);
+        double cofactor11 = (a * g) - (c * c);
+        double cofactor12 = -((a * f) - (b * c));
+        double cofactor22 = (a * d) - (b * b);
+        double determinant = (a * cofactor00) + (b * cofactor01) + (c * cofactor02);
+        isRotationMeasurable = determinant > 1e-9 * count * count * Math.max(sumSquares, 1.0);
+        if (!isRotationMeasurable) {
+            pseudoInverse = new double[3][count * 2];
+            for (int i = 0; i < count; i++) {
+                pseudoInverse[0][i * 2] = 1.0 / count;
+                pseudoInverse[1][(i * 2) + 1] = 1.0 / count;
+            }
+            return;
+        }
+        double[][] inverse = {
+            { cofactor00 / determinant, cofactor01 / determinant, cofactor02 / determinant },
+            { cofactor01 / determinant, cofactor11 / determinant, cofactor12 / determinant },
+            { cofactor02 / determinant, cofactor12 / determinant, cofactor22 / determinant },
+        };
+
+        pseudoInverse = new double[3][count * 2];
+        for (int row = 0; row < 3; row++) {
+            for (int i = 0; i < count; i++) {
+                pseudoInverse[row][i * 2] = inverse[row][0] + (inverse[row][2] * instances[i].yFromCenter);
+                pseudoInverse[row][(i * 2) + 1] = inverse[row][1] - (inverse[row][2] * instances[i].xFromCenter);
+            }
+        }
+    }
+
+    /**
+     * Forward kinematics: find the chassis motion that best matches the measured module motion.
+     * Works for velocities or for distances moved since the last call.
+     * Results are read with getChassisX, getChassisY and getChassisDegrees.
+     *
+     * @param moduleAngles     Module angles relative to the robot, in degrees
+     * @param moduleMagnitudes Module speeds (or distances), in the same order as the module locations
+     */
+    public void calcChassisMotion(double[] moduleAngles, double[] moduleMagnitudes) {
+        double[] rowX = pseudoInverse[0];
+        double[] rowY = pseudoInverse[1];
+        double[] rowOmega = pseudoInverse[2];
+        double x = 0;
+        double y = 0;
+        double omega = 0;
+        for (int i = 0; i < instances.length; i++) {
+            double angle = Math.toRadians(moduleAngles[i]);
+            double moduleX = Math.sin(angle) * moduleMagnitudes[i];
+            double moduleY = Math.cos(angle) * moduleMagnitudes[i];
+            x += (rowX[i * 2] * moduleX) + (rowX[(i * 2) + 1] * moduleY);
+            y += (rowY[i * 2] * moduleX) + (rowY[(i * 2) + 1] * moduleY);
+            omega += (rowOmega[i * 2] * moduleX) + (rowOmega[(i * 2) + 1] * moduleY);
+        }
+        chassisX = x;
+        chassisY = y;
+        chassisRadians = omega;
+    }
+
+    /** Sideways (right is positive) chassis motion from the last calcChassisMotion */
+    public double getChassisX() {
+        return chassisX;
+    }
+
+    /** Forward chassis motion from the last calcChassisMotion */
+    public double getChassisY() {
+        return chassisY;
+    }
+
+    /** Chassis rotation (clockwise is positive) from the last calcChassisMotion, in degrees */
+    public double getChassisDegrees() {
+        return Math.toDegrees(chassisRadians);
+    }
+
+    /**
+     * Whether calcChassisMotion can tell rotation from the module motion. False with fewer than
+     * two module locations, where it reports the average module motion with no rotation.
+     */
+    public boolean isRotationMeasurable() {
+        return isRotationMeasurable;
+    }
+
+    public int getModuleCount() {
+        return instances.length;
     }
 
     private int getLength() {
@@ -56,8 +180,68 @@ public class SwerveState {
             double moduleY = velY - omegaY;
             i.magnitude = assignMagnitude(moduleX, moduleY);
             i.angle = assignAngle(moduleX, moduleY);
+            i.turnDegreesPerSecond = 0;
             maxAssignedMag = Math.max(maxAssignedMag, i.magnitude);
         }
+        limitMagnitudes(maxAssignedMag, maxMagnitude);
+    }
+
+    /**
+     * Like assignSwerveModules, but also uses how the chassis motion is changing:
+     * <ul>
+     * <li>Each module's turnDegreesPerSecond is how fast its angle has to turn to keep up, for
+     * the turn motor to use as a feedforward instead of always lagging behind.
+     * <li>The modules hold their angles for the whole loop while the robot rotates, which would
+     * curve the path toward the rotation. The travel angle is turned back by half the loop's
+     * rotation, and the speed raised from the chord to the arc, so the robot ends the loop where
+     * the command meant.
+     * </ul>
+     *
+     * @param travelAngle             Robot relative, in degrees
+     * @param travelSpeed             Inches per second
+     * @param degreesPerSecond        Chassis rotation, clockwise is positive
+     * @param accelerationAngle       Which way the chassis velocity is changing, robot relative, in degrees
+     * @param acceleration            Inches per second squared, as seen from the field
+     * @param degreesPerSecondSquared How fast degreesPerSecond is changing
+     * @param loopTime                Seconds until the next command
+     */
+    public void assignSwerveModulesSecondOrder(double travelAngle, double travelSpeed, double degreesPerSecond,
+            double accelerationAngle, double acceleration, double degreesPerSecondSquared, double loopTime,
+            double maxMagnitude) {
+        double angularVelocity = Math.toRadians(degreesPerSecond);
+        double angularAcceleration = Math.toRadians(degreesPerSecondSquared);
+
+        double halfLoopRadians = angularVelocity * loopTime / 2;
+        if (Math.abs(halfLoopRadians) > 1e-9) {
+            travelSpeed *= halfLoopRadians / Math.sin(halfLoopRadians);
+            travelAngle -= Math.toDegrees(halfLoopRadians);
+        }
+        double velX = travelSpeed * Math.sin(Math.toRadians(travelAngle));
+        double velY = travelSpeed * Math.cos(Math.toRadians(travelAngle));
+
+        // A velocity that is steady on the field turns the other way in the robot's frame as the
+        // robot rotates, so add that to the field acceleration
+        double accelX = (acceleration * Math.sin(Math.toRadians(accelerationAngle))) - (angularVelocity * velY);
+        double accelY = (acceleration * Math.cos(Math.toRadians(accelerationAngle))) + (angularVelocity * velX);
+
+        double maxAssignedMag = 0;
+        for (SwerveInstance i : instances) {
+            double moduleX = velX + (angularVelocity * i.yFromCenter);
+            double moduleY = velY - (angularVelocity * i.xFromCenter);
+            double moduleAccelX = accelX + (angularAcceleration * i.yFromCenter);
+            double moduleAccelY = accelY - (angularAcceleration * i.xFromCenter);
+            i.magnitude = assignMagnitude(moduleX, moduleY);
+            i.angle = assignAngle(moduleX, moduleY);
+            // Rate of change of atan2(moduleX, moduleY)
+            double squaredMagnitude = Math.max((moduleX * moduleX) + (moduleY * moduleY),
+                FULL_TURN_RATE_SPEED * FULL_TURN_RATE_SPEED);
+            i.turnDegreesPerSecond = Math.toDegrees(((moduleY * moduleAccelX) - (moduleX * moduleAccelY)) / squaredMagnitude);
+            maxAssignedMag = Math.max(maxAssignedMag, i.magnitude);
+        }
+        limitMagnitudes(maxAssignedMag, maxMagnitude);
+    }
+
+    private void limitMagnitudes(double maxAssignedMag, double maxMagnitude) {
         if (maxAssignedMag > maxMagnitude) {
             for (SwerveInstance i : instances) {
                 i.magnitude = i.magnitude / maxAssignedMag * maxMagnitude;
@@ -80,6 +264,14 @@ public class SwerveState {
         assignSwerveModules(adjTravelAngle, travelSpeed, degreesPerSecond, maxMagnitude);
     }
 
+    /** assignSwerveModulesSecondOrder with the travel and acceleration angles relative to the field */
+    public void assignSwerveModulesFieldSecondOrder(double travelAngle, double travelSpeed, double degreesPerSecond,
+            double accelerationAngle, double acceleration, double degreesPerSecondSquared, double loopTime,
+            double gyroValue, double maxMagnitude) {
+        assignSwerveModulesSecondOrder(travelAngle - gyroValue, travelSpeed, degreesPerSecond,
+            accelerationAngle - gyroValue, acceleration, degreesPerSecondSquared, loopTime, maxMagnitude);
+    }
+
     public void printValues() {
         System.out.println("FL: " + instances[0].angle + "," + instances[0].magnitude + "  FR: " + instances[1].angle
                 + "," + instances[1].magnitude + "  BL: " + instances[2].angle + "," + instances[2].magnitude + "  BR: "
@@ -102,6 +294,15 @@ public class SwerveState {
         }
     }
 
+    /** Degrees per second the module is turning, 0 unless assigned with assignSwerveModulesSecondOrder */
+    public double getTurnDegreesPerSecond(int index) {
+        if (index < 0 || index >= instances.length) {
+            return 0;
+        } else {
+            return instances[index].turnDegreesPerSecond;
+        }
+    }
+
     public void lockWheels() {
         double angle = 45;
         double mult = 1;
@@ -113,6 +314,7 @@ public class SwerveState {
             }
             i.angle = mult * angle;
             i.magnitude = 0;
+            i.turnDegreesPerSecond = 0;
         }
     }
 }
\ No newline at end of file
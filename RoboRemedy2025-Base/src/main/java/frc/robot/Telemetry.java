@@ -0,0 +1,209 @@
+// Telemetry.java - Publishes robot position, swerve modules and vision as typed NetworkTables structs
+package frc.robot;
+
+import java.nio.*;
+
+import edu.wpi.first.math.geometry.*;
+import edu.wpi.first.networktables.*;
+import edu.wpi.first.util.struct.*;
+import frc.robot.PhotonVisionCamera.*;
+
+/**
+ * One struct topic per group of values, under the "Telemetry" table, so AdvantageScope can plot
+ * them directly. Positions and module states use the same struct layout as the WPILib Pose2d and
+ * SwerveModuleState classes, but are packed straight from our own objects so nothing is allocated.
+ *
+ * <p>Our field coordinates are inches with X to the right, Y forward and clockwise angles.
+ * WPILib uses meters with X forward, Y to the left and counterclockwise angles, so values are
+ * converted when they are packed.
+ */
+public class Telemetry {
+    private static final double METERS_PER_INCH = 0.0254;
+    private static final int MODULE_COUNT = 4;
+
+    /** One swerve module speed and angle, in our units */
+    public static class ModuleState {
+        public double inchesPerSecond;
+        public double degrees;
+    }
+
+    /** Packs a Position the way WPILib packs a Pose2d */
+    public static class PositionStruct implements Struct<Position> {
+        public Class<Position> getTypeClass() {
+            return Position.class;
+        }
+
+        public String getTypeName() {
+            return "Pose2d";
+        }
+
+        public int getSize() {
+            return Translation2d.struct.getSize() + Rotation2d.struct.getSize();
+        }
+
+        public String getSchema() {
+            return "Translation2d translation;Rotation2d rotation";
+        }
+
+        public Struct<?>[] getNested() {
+            return new Struct<?>[] { Translation2d.struct, Rotation2d.struct };
+        }
+
+        public Position unpack(ByteBuffer bb) {
+            double forward = bb.getDouble() / METERS_PER_INCH;
+            double left = bb.getDouble() / METERS_PER_INCH;
+            double radians = bb.getDouble();
+            return new Position("telemetry", -left, forward, -Math.toDegrees(radians));
+        }
+
+        public void pack(ByteBuffer bb, Position value) {
+            bb.putDouble(value.getY() * METERS_PER_INCH);
+            bb.putDouble(-value.getX() * METERS_PER_INCH);
+            bb.putDouble(Math.toRadians(-value.getYaw()));
+        }
+    }
+
+    /** Packs a ModuleState the way WPILib packs a SwerveModuleState */
+    public static class ModuleStateStruct implements Struct<ModuleState> {
+        public Class<ModuleState> getTypeClass() {
+            return ModuleState.class;
+        }
+
+        public String getTypeName() {
+            return "SwerveModuleState";
+        }
+
+        public int getSize() {
+            return 8 + Rotation2d.struct.getSize();
+        }
+
+        public String getSchema() {
+            return "double speed;Rotation2d angle";
+        }
+
+        public Struct<?>[] getNested() {
+            return new Struct<?>[] { Rotation2d.struct };
+        }
+
+        public ModuleState unpack(ByteBuffer bb) {
+            ModuleState state = new ModuleState();
+            state.inchesPerSecond = bb.getDouble() / METERS_PER_INCH;
+            state.degrees = -Math.toDegrees(bb.getDouble());
+            return state;
+        }
+
+        public void pack(ByteBuffer bb, ModuleState value) {
+            bb.putDouble(value.inchesPerSecond * METERS_PER_INCH);
+            bb.putDouble(Math.toRadians(-value.degrees));
+        }
+    }
+
+    /**
+     * Packs the main camera's target. Angles stay in degrees, as the camera reports them.
+     * When no target is found the camera fills in Double.MAX_VALUE, which would squash every
+     * plot of these values, so zeros are sent instead.
+     */
+    public static class TargetStruct implements Struct<TargetInfo> {
+        public Class<TargetInfo> getTypeClass() {
+            return TargetInfo.class;
+        }
+
+        public String getTypeName() {
+            return "VisionTarget";
+        }
+
+        public int getSize() {
+            return 1 + 4 + (3 * 8);
+        }
+
+        public String getSchema() {
+            return "bool isFound;int32 id;double yaw;double pitch;double timeStamp";
+        }
+
+        public TargetInfo unpack(ByteBuffer bb) {
+            TargetInfo info = new TargetInfo();
+            info.isFound = bb.get() != 0;
+            info.id = bb.getInt();
+            info.yaw = bb.getDouble();
+            info.pitch = bb.getDouble();
+            info.timeStamp = bb.getDouble();
+            return info;
+        }
+
+        public void pack(ByteBuffer bb, TargetInfo value) {
+            bb.put((byte) (value.isFound ? 1 : 0));
+            bb.putInt(value.id);
+            bb.putDouble(value.isFound ? value.yaw : 0);
+            bb.putDouble(value.isFound ? value.pitch : 0);
+            bb.putDouble(value.isFound ? value.timeStamp : 0);
+        }
+    }
+
+    public static final PositionStruct POSITION_STRUCT = new PositionStruct();
+    public static final ModuleStateStruct MODULE_STATE_STRUCT = new ModuleStateStruct();
+    public static final TargetStruct TARGET_STRUCT = new TargetStruct();
+
+    private Electronics e;
+    private RobotState robotState;
+    private RoboLog rLog;
+
+    private StructPublisher<Position> robotPosePublisher;
+    private StructPublisher<Position> deadReckoningPosePublisher;
+    private StructPublisher<Position> odometryPosePublisher;
+    private StructArrayPublisher<ModuleState> measuredModulesPublisher;
+    private StructArrayPublisher<ModuleState> commandedModulesPublisher;
+    private StructPublisher<TargetInfo> mainTargetPublisher;
+    private DoublePublisher lidarDistancePublisher;
+
+    private ModuleState[] measuredModules = new ModuleState[MODULE_COUNT];
+    private ModuleState[] commandedModules = new ModuleState[MODULE_COUNT];
+
+    Telemetry(Electronics e, RobotState robotState, RoboLog rLog) {
+        this.e = e;
+        this.robotState = robotState;
+        this.rLog = rLog;
+
+        if (this.rLog == null) {
+            System.out.println("Warning: Telemetry.rLog is null");
+        }
+
+        for (int i = 0; i < MODULE_COUNT; i++) {
+            measuredModules[i] = new ModuleState();
+            commandedModules[i] = new ModuleState();
+        }
+
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("Telemetry");
+        robotPosePublisher = table.getStructTopic("RobotPose", POSITION_STRUCT).publish();
+        deadReckoningPosePublisher = table.getStructTopic("DeadReckoningPose", POSITION_STRUCT).publish();
+        odometryPosePublisher = table.getStructTopic("OdometryPose", POSITION_STRUCT).publish();
+        measuredModulesPublisher = table.getStructArrayTopic("MeasuredModuleStates", MODULE_STATE_STRUCT).publish();
+        commandedModulesPublisher = table.getStructArrayTopic("CommandedModuleStates", MODULE_STATE_STRUCT).publish();
+        mainTargetPublisher = table.getStructTopic("MainTarget", TARGET_STRUCT).publish();
+        lidarDistancePublisher = table.getDoubleTopic("LidarDistance").publish();
+    }
+
+    /** Send this loop's values. Module states are in the same order as the modules in Electronics. */
+    public void publish() {
+        robotPosePublisher.set(robotState.robotPosition);
+        deadReckoningPosePublisher.set(robotState.deadReckoningPosition);
+        if (robotState.isOdometryRunning) {
+            odometryPosePublisher.set(robotState.odometryPosition);
+        }
+
+        SwerveState commanded = e.getCommandedSwerveState();
+        int moduleCount = Math.min(e.getSwerveModuleCount(), MODULE_COUNT);
+        for (int i = 0; i < moduleCount; i++) {
+            measuredModules[i].inchesPerSecond = robotState.moduleVelocities[i];
+            measuredModules[i].degrees = robotState.moduleTurnAngles[i];
+            commandedModules[i].inchesPerSecond = commanded.getMagnitude(i);
+            commandedModules[i].degrees = commanded.getAngle(i);
+        }
+        measuredModulesPublisher.set(measuredModules);
+        commandedModulesPublisher.set(commandedModules);
+
+        mainTargetPublisher.set(robotState.mainTargetResult);
+        if (e.isLidarCameraConnected()) {
+            lidarDistancePublisher.set(e.getLidarDistance());
+        }
+    }
+}
@@ -189,8 +189,8 @@ public class TestRobot {
         }
 
         if (isButtonPressed) {
-            RobotMotor motor1 = e.getSwerveDriveMotor(1);
-            RobotMotor motor3 = e.getSwerveDriveMotor(3);
+            MotorIO motor1 = e.getSwerveDriveMotor(1);
+            MotorIO motor3 = e.getSwerveDriveMotor(3);
             rLog.print("Speed1 = " + RobotMath.round2(motor1.getEncoderVelocity()) +
                     "Speed3 = " + RobotMath.round2(motor3.getEncoderVelocity()));
         }
@@ -270,7 +270,7 @@ public class TestRobot {
     public void testTuneMotor() {
         double joystickValue = -oi.getJoystickAxis(0, 1);
         int joystickPOV = oi.getPOV(0);
-        RobotMotor motor = e.getSwerveDriveMotor(1);
+        MotorIO motor = e.getSwerveDriveMotor(1);
         double maxVelocity = motor.getPercentVelocityLinearMapper().getMaxInputValue();
         double maxPercentPerSecond = 0.5;
         double maxVelocityPerSecond = maxVelocity / 2;
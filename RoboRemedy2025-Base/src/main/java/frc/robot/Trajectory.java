@@ -0,0 +1,120 @@
+// Trajectory.java - A path through the field with the speed and facing to have at each moment
+package frc.robot;
+
+/**
+ * A time parameterized path made by TrajectoryGenerator, stored as parallel arrays of samples
+ * a fraction of an inch apart. Positions are inches and angles are degrees, in the same field
+ * coordinates as the robot position (X to the right, Y forward, angles clockwise from forward).
+ * Looking up a moment interpolates between the samples on either side of it and does not allocate.
+ */
+public class Trajectory {
+    /** Where the robot should be at one moment of a trajectory */
+    public static class Sample {
+        public double time; // Seconds from the start of the trajectory
+        public double x;
+        public double y;
+        public double distance; // Inches along the path
+        public double velocity; // Inches per second along the path
+        public double acceleration; // Inches per second squared along the path
+        public double travelAngle; // Which way the path goes
+        public double facingAngle; // Which way the robot faces
+        public double facingRate; // Degrees per second the facing angle changes
+    }
+
+    public final String name;
+    public final double[] times;
+    public final double[] xs;
+    public final double[] ys;
+    public final double[] distances;
+    public final double[] velocities;
+    public final double[] accelerations;
+    public final double[] travelAngles; // Angles are not wrapped, so they change smoothly
+    public final double[] facingAngles;
+    public final double[] facingRates;
+
+    Trajectory(String name, int sampleCount) {
+        this.name = name;
+        times = new double[sampleCount];
+        xs = new double[sampleCount];
+        ys = new double[sampleCount];
+        distances = new double[sampleCount];
+        velocities = new double[sampleCount];
+        accelerations = new double[sampleCount];
+        travelAngles = new double[sampleCount];
+        facingAngles = new double[sampleCount];
+        facingRates = new double[sampleCount];
+    }
+
+    public int getSampleCount() {
+        return times.length;
+    }
+
+    /** Seconds from the start to the end */
+    public double getTotalTime() {
+        return times[times.length - 1];
+    }
+
+    /** Inches along the path from the start to the end */
+    public double getTotalDistance() {
+        return distances[distances.length - 1];
+    }
+
+    /**
+     * Find where the robot should be at a time. Times before the start or after the end use
+     * the first or last sample.
+     *
+     * @param time   Seconds from the start of the trajectory
+     * @param result Filled in with the sample at that time
+     */
+    public void sample(double time, Sample result) {
+        int last = times.length - 1;
+        if (time <= times[0]) {
+            copySample(0, result);
+            return;
+        }
+        if (time >= times[last]) {
+            copySample(last, result);
+            return;
+        }
+
+        // Binary search for the first sample after time
+        int low = 1;
+        int high = last;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] > time) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        int before = low - 1;
+        double fraction = (time - times[before]) / (times[low] - times[before]);
+
+        result.time = time;
+        result.x = interpolate(xs, before, fraction);
+        result.y = interpolate(ys, before, fraction);
+        result.distance = interpolate(distances, before, fraction);
+        result.velocity = interpolate(velocities, before, fraction);
+        result.acceleration = accelerations[low]; // Constant between samples
+        result.travelAngle = interpolate(travelAngles, before, fraction);
+        result.facingAngle = interpolate(facingAngles, before, fraction);
+        result.facingRate = interpolate(facingRates, before, fraction);
+    }
+
+    private void copySample(int index, Sample result) {
+        result.time = times[index];
+        result.x = xs[index];
+        result.y = ys[index];
+        result.distance = distances[index];
+        result.velocity = velocities[index];
+        result.acceleration = accelerations[index];
+        result.travelAngle = travelAngles[index];
+        result.facingAngle = facingAngles[index];
+        result.facingRate = facingRates[index];
+    }
+
+    private static double interpolate(double[] values, int before, double fraction) {
+        return values[before] + ((values[before + 1] - values[before]) * fraction);
+    }
+}
@@ -0,0 +1,224 @@
+// TrajectoryCache.java - Autonomous trajectories generated ahead of time and loaded from a file
+package frc.robot;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+import frc.robot.RobotEnums.*;
+
+/**
+ * Holds the trajectory from AutoPaths for every autonomous program, start position and alliance,
+ * in a table so looking one up when autonomous starts is a single array read. Combinations with
+ * the same trajectory share one copy.
+ *
+ * <p>File layout (big endian):
+ * <pre>
+ * int   MAGIC
+ * short VERSION
+ * short trajectory count
+ * trajectory count times: short name length, UTF-8 name bytes, int sample count
+ * short entry count
+ * entry count times: short program name length, UTF-8 program name, short start position name
+ *                    length, UTF-8 start position name, byte 1 for red alliance, short trajectory index
+ * for each trajectory, for each of the FIELD_COUNT arrays in Trajectory order: float per sample
+ * </pre>
+ * Programs and start positions are stored by name, so reordering the enums does not break the file.
+ */
+public class TrajectoryCache {
+    public static final int MAGIC = 0x52525450; // "RRTP"
+    public static final short VERSION = 1;
+    public static final String FILE_NAME = "autopaths.rrtp";
+    private static final int FIELD_COUNT = 9;
+
+    private static final AutoProgram[] PROGRAMS = AutoProgram.values();
+    private static final AutoStartPosition[] POSITIONS = AutoStartPosition.values();
+
+    private Trajectory[] table = new Trajectory[PROGRAMS.length * POSITIONS.length * 2];
+    private ArrayList<Trajectory> trajectories = new ArrayList<>();
+
+    private TrajectoryCache() {
+    }
+
+    /** The trajectory for a program, or null if it does not drive one */
+    public Trajectory get(AutoProgram program, AutoStartPosition position, boolean isRedAlliance) {
+        if (program == null || position == null) {
+            return null;
+        }
+        return table[getTableIndex(program, position, isRedAlliance)];
+    }
+
+    /** Number of different trajectories */
+    public int getTrajectoryCount() {
+        return trajectories.size();
+    }
+
+    /** Generate every trajectory now, on the desktop or when there is no cache file */
+    public static TrajectoryCache generate() {
+        TrajectoryCache cache = new TrajectoryCache();
+        for (AutoProgram program : PROGRAMS) {
+            for (AutoStartPosition position : POSITIONS) {
+                for (int alliance = 0; alliance < 2; alliance++) {
+                    Trajectory trajectory = AutoPaths.generate(program, position, alliance == 1);
+                    if (trajectory != null) {
+                        cache.table[getTableIndex(program, position, alliance == 1)] = cache.addUnique(trajectory);
+                    }
+                }
+            }
+        }
+        return cache;
+    }
+
+    /** Save a cache in the layout load reads */
+    public static void write(File file, TrajectoryCache cache) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(cache.trajectories.size());
+            for (Trajectory trajectory : cache.trajectories) {
+                writeName(out, trajectory.name);
+                out.writeInt(trajectory.getSampleCount());
+            }
+
+            int entryCount = 0;
+            for (Trajectory trajectory : cache.table) {
+                if (trajectory != null) {
+                    entryCount++;
+                }
+            }
+            out.writeShort(entryCount);
+            for (AutoProgram program : PROGRAMS) {
+                for (AutoStartPosition position : POSITIONS) {
+                    for (int alliance = 0; alliance < 2; alliance++) {
+                        Trajectory trajectory = cache.table[getTableIndex(program, position, alliance == 1)];
+                        if (trajectory != null) {
+                            writeName(out, program.name());
+                            writeName(out, position.name());
+                            out.writeByte(alliance);
+                            out.writeShort(cache.trajectories.indexOf(trajectory));
+                        }
+                    }
+                }
+            }
+
+            for (Trajectory trajectory : cache.trajectories) {
+                for (double[] values : getFields(trajectory)) {
+                    for (double value : values) {
+                        out.writeFloat((float) value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Memory map a cache file and copy its trajectories into arrays. Entries for programs or
+     * start positions that no longer exist are skipped.
+     */
+    public static TrajectoryCache load(File file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a trajectory cache file");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported trajectory cache version " + version);
+            }
+
+            TrajectoryCache cache = new TrajectoryCache();
+            int trajectoryCount = buffer.getShort();
+            for (int i = 0; i < trajectoryCount; i++) {
+                String name = readName(buffer);
+                cache.trajectories.add(new Trajectory(name, buffer.getInt()));
+            }
+
+            int entryCount = buffer.getShort();
+            for (int i = 0; i < entryCount; i++) {
+                String programName = readName(buffer);
+                String positionName = readName(buffer);
+                boolean isRedAlliance = buffer.get() == 1;
+                int trajectoryIndex = buffer.getShort();
+                AutoProgram program = findByName(PROGRAMS, programName);
+                AutoStartPosition position = findByName(POSITIONS, positionName);
+                if (program != null && position != null) {
+                    cache.table[getTableIndex(program, position, isRedAlliance)] = cache.trajectories.get(trajectoryIndex);
+                }
+            }
+
+            for (Trajectory trajectory : cache.trajectories) {
+                for (double[] values : getFields(trajectory)) {
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = buffer.getFloat();
+                    }
+                }
+            }
+            return cache;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+            throw new IOException("Trajectory cache file is cut short or damaged");
+        }
+    }
+
+    // An equal trajectory already in the cache, or this one after adding it
+    private Trajectory addUnique(Trajectory trajectory) {
+        for (Trajectory existing : trajectories) {
+            if (isSame(existing, trajectory)) {
+                return existing;
+            }
+        }
+        trajectories.add(trajectory);
+        return trajectory;
+    }
+
+    private static boolean isSame(Trajectory a, Trajectory b) {
+        if (!a.name.equals(b.name)) {
+            return false;
+        }
+        double[][] aFields = getFields(a);
+        double[][] bFields = getFields(b);
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (!Arrays.equals(aFields[i], bFields[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double[][] getFields(Trajectory trajectory) {
+        return new double[][] {
+            trajectory.times, trajectory.xs, trajectory.ys, trajectory.distances, trajectory.velocities,
+            trajectory.accelerations, trajectory.travelAngles, trajectory.facingAngles, trajectory.facingRates };
+    }
+
+    private static int getTableIndex(AutoProgram program, AutoStartPosition position, boolean isRedAlliance) {
+        return (((program.ordinal() * POSITIONS.length) + position.ordinal()) * 2) + (isRedAlliance ? 1 : 0);
+    }
+
+    private static <T extends Enum<T>> T findByName(T[] values, String name) {
+        for (T value : values) {
+            if (value.name().equals(name)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static void writeName(DataOutputStream out, String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readName(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
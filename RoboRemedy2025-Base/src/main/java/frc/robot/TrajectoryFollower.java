@@ -0,0 +1,115 @@
+// TrajectoryFollower.java - Works out the robot motion that keeps it on a trajectory
+package frc.robot;
+
+import frc.robot.Trajectory.*;
+
+/**
+ * Each loop, looks up where the trajectory says the robot should be and drives with the
+ * trajectory's own velocity (feedforward), plus a correction toward that point in proportion
+ * to how far off the robot is (feedback). The facing angle and the trajectory's turn rate go
+ * to a HeadingController, like assignRobotMotionAndHeadingField. The trajectory starts
+ * where the robot is when start is called, so it can be made relative to any starting point.
+ * Pass a position that only moves with the wheels (not one corrected by vision), or a
+ * correction partway along moves the whole path.
+ */
+public class TrajectoryFollower {
+    private static final double POSITION_GAIN = 2.0; // Inches per second of correction per inch off the path
+    private static final double MAX_CORRECTION = 24.0; // Inches per second
+    private static final double MAX_EXTRA_TIME = 1.0; // Seconds after the end to keep trying to reach the last point
+
+    // The motion to drive, in field coordinates, from the last update
+    public double travelAngle = 0;
+    public double travelInchesPerSecond = 0;
+    public double degreesPerSecond = 0;
+    public double positionError = 0; // Inches from where the robot should be
+    public Sample target = new Sample();
+    public HeadingController headingController;
+
+    private Trajectory trajectory;
+    private double startTime = 0;
+    private double xOffset = 0;
+    private double yOffset = 0;
+
+    /**
+     * @param headingController Turns the robot to the trajectory's facing angle. Pass the one from
+     *                          Electronics, so the gains tuned on the dashboard are used here too.
+     */
+    TrajectoryFollower(HeadingController headingController) {
+        this.headingController = headingController;
+    }
+
+    /**
+     * Start following a trajectory from where the robot is now.
+     *
+     * @param time Current time, in seconds
+     * @param x    Robot X position, in inches
+     * @param y    Robot Y position, in inches
+     */
+    public void start(Trajectory trajectory, double time, double x, double y) {
+        this.trajectory = trajectory;
+        startTime = time;
+        xOffset = x - trajectory.xs[0];
+        yOffset = y - trajectory.ys[0];
+        travelAngle = trajectory.travelAngles[0];
+        travelInchesPerSecond = 0;
+        degreesPerSecond = 0;
+        positionError = 0;
+        headingController.reset();
+    }
+
+    public Trajectory getTrajectory() {
+        return trajectory;
+    }
+
+    /** Seconds since start */
+    public double getElapsedTime(double time) {
+        return time - startTime;
+    }
+
+    /**
+     * Work out the motion for this loop, in travelAngle, travelInchesPerSecond and degreesPerSecond.
+     *
+     * @param time    Current time, in seconds
+     * @param x       Robot X position, in inches
+     * @param y       Robot Y position, in inches
+     * @param heading Robot gyro angle, in degrees
+     */
+    public void update(double time, double x, double y, double heading) {
+        trajectory.sample(time - startTime, target);
+        double targetX = target.x + xOffset;
+        double targetY = target.y + yOffset;
+
+        double travelRadians = Math.toRadians(target.travelAngle);
+        double xError = targetX - x;
+        double yError = targetY - y;
+        positionError = Math.sqrt((xError * xError) + (yError * yError));
+        double correctionScale = POSITION_GAIN;
+        if (positionError * POSITION_GAIN > MAX_CORRECTION) {
+            correctionScale = MAX_CORRECTION / positionError;
+        }
+        double xVelocity = (target.velocity * Math.sin(travelRadians)) + (xError * correctionScale);
+        double yVelocity = (target.velocity * Math.cos(travelRadians)) + (yError * correctionScale);
+        travelInchesPerSecond = Math.sqrt((xVelocity * xVelocity) + (yVelocity * yVelocity));
+        if (travelInchesPerSecond > 0) {
+            travelAngle = Math.toDegrees(Math.atan2(xVelocity, yVelocity));
+        }
+
+        degreesPerSecond = headingController.calculate(time, heading, degreesPerSecond, target.facingAngle,
+            target.facingRate);
+    }
+
+    /**
+     * Whether the trajectory is done: its time is up and the robot is close enough to the end,
+     * or it has had MAX_EXTRA_TIME more to get there.
+     *
+     * @param time          Current time, in seconds
+     * @param positionRange How close to the last point is close enough, in inches
+     */
+    public boolean isFinished(double time, double positionRange) {
+        double elapsedTime = time - startTime;
+        if (elapsedTime < trajectory.getTotalTime()) {
+            return false;
+        }
+        return positionError < positionRange || elapsedTime > trajectory.getTotalTime() + MAX_EXTRA_TIME;
+    }
+}
@@ -0,0 +1,209 @@
+// TrajectoryGenerator.java - Builds smooth trajectories through waypoints
+package frc.robot;
+
+import java.util.*;
+
+/**
+ * Joins the waypoints with a cubic spline that passes through each one without stopping, then
+ * picks the fastest speed at every point along it that stays within the limits: top speed,
+ * acceleration, sideways (centripetal) acceleration in curves, and how fast the robot can turn
+ * to the facing angle of the next waypoint. The facing angle changes evenly with distance between
+ * waypoints.
+ *
+ * <p>Generating allocates, so do it before the robot needs the trajectory, not in a loop.
+ */
+public class TrajectoryGenerator {
+    private static final double SAMPLE_SPACING = 0.5; // Inches between samples, about
+    private static final int MIN_SEGMENT_SAMPLES = 8;
+
+    public double maxVelocity; // Inches per second
+    public double maxAcceleration; // Inches per second squared, speeding up and slowing down
+    public double maxCentripetalAcceleration; // Inches per second squared, sideways in curves
+    public double maxRotationRate; // Degrees per second
+
+    private ArrayList<double[]> waypoints = new ArrayList<>(); // x, y, facing angle
+
+    /**
+     * @param maxVelocity                Inches per second
+     * @param maxAcceleration            Inches per second squared
+     * @param maxCentripetalAcceleration Inches per second squared, sideways in curves
+     * @param maxRotationRate            Degrees per second
+     */
+    TrajectoryGenerator(double maxVelocity, double maxAcceleration, double maxCentripetalAcceleration,
+            double maxRotationRate) {
+        this.maxVelocity = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+        this.maxCentripetalAcceleration = maxCentripetalAcceleration;
+        this.maxRotationRate = maxRotationRate;
+    }
+
+    /**
+     * Add the next point the path goes through.
+     *
+     * @param x           Inches to the right
+     * @param y           Inches forward
+     * @param facingAngle Which way the robot faces when it gets there
+     */
+    public void addWaypoint(double x, double y, double facingAngle) {
+        waypoints.add(new double[] { x, y, facingAngle });
+    }
+
+    public void clearWaypoints() {
+        waypoints.clear();
+    }
+
+    /**
+     * Build a trajectory through the waypoints added so far.
+     *
+     * @param name          For logging
+     * @param startVelocity Inches per second the robot is already moving along the path at the start
+     * @param endVelocity   Inches per second to be moving at the end, 0 to stop there
+     */
+    public Trajectory generate(String name, double startVelocity, double endVelocity) {
+        int waypointCount = waypoints.size();
+        if (waypointCount < 2) {
+            throw new IllegalArgumentException("Trajectory " + name + " needs at least 2 waypoints");
+        }
+
+        // Which way the path goes through each waypoint. Inside the path it is parallel to the
+        // line between the waypoints on either side, which keeps the curve smooth.
+        double[] directionX = new double[waypointCount];
+        double[] directionY = new double[waypointCount];
+        double[] segmentLengths = new double[waypointCount - 1];
+        int sampleCount = 1;
+        for (int i = 0; i < waypointCount; i++) {
+            double[] before = waypoints.get(Math.max(i - 1, 0));
+            double[] after = waypoints.get(Math.min(i + 1, waypointCount - 1));
+            double dx = after[0] - before[0];
+            double dy = after[1] - before[1];
+            double length = Math.sqrt((dx * dx) + (dy * dy));
+            if (length == 0) {
+                throw new IllegalArgumentException("Trajectory " + name + " has waypoints in the same place");
+            }
+            directionX[i] = dx / length;
+            directionY[i] = dy / length;
+            if (i < waypointCount - 1) {
+                double[] next = waypoints.get(i + 1);
+                segmentLengths[i] = Math.hypot(next[0] - waypoints.get(i)[0], next[1] - waypoints.get(i)[1]);
+                if (segmentLengths[i] == 0) {
+                    throw new IllegalArgumentException("Trajectory " + name + " has waypoints in the same place");
+                }
+                sampleCount += getSegmentSampleCount(segmentLengths[i]);
+            }
+        }
+
+        Trajectory trajectory = new Trajectory(name, sampleCount);
+        double[] curvatures = new double[sampleCount];
+        double[] facingPerInch = new double[sampleCount];
+
+        // Positions, distances and curvature along each cubic Hermite segment
+        int index = 0;
+        double facingAngle = waypoints.get(0)[2];
+        for (int segment = 0; segment < waypointCount - 1; segment++) {
+            double[] start = waypoints.get(segment);
+            double[] end = waypoints.get(segment + 1);
+            double length = segmentLengths[segment];
+            double startTangentX = directionX[segment] * length;
+            double startTangentY = directionY[segment] * length;
+            double endTangentX = directionX[segment + 1] * length;
+            double endTangentY = directionY[segment + 1] * length;
+            int steps = getSegmentSampleCount(length);
+            int segmentStart = segment == 0 ? 0 : index - 1; // The waypoint shared with the segment before
+            for (int step = (segment == 0 ? 0 : 1); step <= steps; step++) {
+                double u = (double) step / steps;
+                double u2 = u * u;
+                double u3 = u2 * u;
+                double h00 = (2 * u3) - (3 * u2) + 1;
+                double h10 = u3 - (2 * u2) + u;
+                double h01 = (-2 * u3) + (3 * u2);
+                double h11 = u3 - u2;
+                double x = (h00 * start[0]) + (h10 * startTangentX) + (h01 * end[0]) + (h11 * endTangentX);
+                double y = (h00 * start[1]) + (h10 * startTangentY) + (h01 * end[1]) + (h11 * endTangentY);
+                double dx = ((6 * u2) - (6 * u)) * start[0] + ((3 * u2) - (4 * u) + 1) * startTangentX
+                    + ((-6 * u2) + (6 * u)) * end[0] + ((3 * u2) - (2 * u)) * endTangentX;
+                double dy = ((6 * u2) - (6 * u)) * start[1] + ((3 * u2) - (4 * u) + 1) * startTangentY
+                    + ((-6 * u2) + (6 * u)) * end[1] + ((3 * u2) - (2 * u)) * endTangentY;
+                double ddx = ((12 * u) - 6) * start[0] + ((6 * u) - 4) * startTangentX
+                    + ((-12 * u) + 6) * end[0] + ((6 * u) - 2) * endTangentX;
+                double ddy = ((12 * u) - 6) * start[1] + ((6 * u) - 4) * startTangentY
+                    + ((-12 * u) + 6) * end[1] + ((6 * u) - 2) * endTangentY;
+                double speed = Math.sqrt((dx * dx) + (dy * dy));
+
+                trajectory.xs[index] = x;
+                trajectory.ys[index] = y;
+                if (index > 0) {
+                    trajectory.distances[index] = trajectory.distances[index - 1]
+                        + Math.hypot(x - trajectory.xs[index - 1], y - trajectory.ys[index - 1]);
+                }
+                double travelAngle = Math.toDegrees(Math.atan2(dx, dy));
+                if (index > 0) {
+                    travelAngle = trajectory.travelAngles[index - 1]
+                        + Position.getAngleChange(trajectory.travelAngles[index - 1], travelAngle);
+                }
+                trajectory.travelAngles[index] = travelAngle;
+                curvatures[index] = speed > 0 ? ((dx * ddy) - (dy * ddx)) / (speed * speed * speed) : 0;
+                index++;
+            }
+
+            // The facing angle turns the short way, evenly along the segment. A waypoint shared
+            // with the segment before keeps the faster turn of the two.
+            double facingChange = Position.getAngleChange(facingAngle, end[2]);
+            double segmentDistance = trajectory.distances[index - 1] - trajectory.distances[segmentStart];
+            double segmentFacingPerInch = facingChange / segmentDistance;
+            for (int i = segmentStart; i < index; i++) {
+                double fraction = (trajectory.distances[i] - trajectory.distances[segmentStart]) / segmentDistance;
+                trajectory.facingAngles[i] = facingAngle + (facingChange * fraction);
+                if (Math.abs(segmentFacingPerInch) > Math.abs(facingPerInch[i])) {
+                    facingPerInch[i] = segmentFacingPerInch;
+                }
+            }
+            facingAngle += facingChange;
+        }
+
+        // Fastest allowed speed at each point on its own
+        double[] velocities = trajectory.velocities;
+        for (int i = 0; i < sampleCount; i++) {
+            double velocity = maxVelocity;
+            if (curvatures[i] != 0) {
+                velocity = Math.min(velocity, Math.sqrt(maxCentripetalAcceleration / Math.abs(curvatures[i])));
+            }
+            if (facingPerInch[i] != 0) {
+                velocity = Math.min(velocity, maxRotationRate / Math.abs(facingPerInch[i]));
+            }
+            velocities[i] = velocity;
+        }
+
+        // Limit speeding up going forward and slowing down going backward
+        velocities[0] = Math.min(velocities[0], startVelocity);
+        for (int i = 1; i < sampleCount; i++) {
+            double distance = trajectory.distances[i] - trajectory.distances[i - 1];
+            velocities[i] = Math.min(velocities[i],
+                Math.sqrt((velocities[i - 1] * velocities[i - 1]) + (2 * maxAcceleration * distance)));
+        }
+        velocities[sampleCount - 1] = Math.min(velocities[sampleCount - 1], endVelocity);
+        for (int i = sampleCount - 2; i >= 0; i--) {
+            double distance = trajectory.distances[i + 1] - trajectory.distances[i];
+            velocities[i] = Math.min(velocities[i],
+                Math.sqrt((velocities[i + 1] * velocities[i + 1]) + (2 * maxAcceleration * distance)));
+        }
+
+        // Time to each sample, with constant acceleration between samples
+        for (int i = 0; i < sampleCount; i++) {
+            if (i > 0) {
+                double distance = trajectory.distances[i] - trajectory.distances[i - 1];
+                double averageVelocity = (velocities[i - 1] + velocities[i]) / 2;
+                double elapsedTime = averageVelocity > 0 ? distance / averageVelocity : 0;
+                trajectory.times[i] = trajectory.times[i - 1] + elapsedTime;
+                trajectory.accelerations[i] = distance > 0
+                    ? ((velocities[i] * velocities[i]) - (velocities[i - 1] * velocities[i - 1])) / (2 * distance)
+                    : 0;
+            }
+            trajectory.facingRates[i] = facingPerInch[i] * velocities[i];
+        }
+        return trajectory;
+    }
+
+    private static int getSegmentSampleCount(double length) {
+        return Math.max(MIN_SEGMENT_SAMPLES, (int) Math.ceil(length / SAMPLE_SPACING));
+    }
+}
@@ -0,0 +1,154 @@
+// VelocityProfiler.java - Jerk limited (S-curve) speed for driving a distance
+package frc.robot;
+
+/**
+ * Works out the speed to command each loop so the robot speeds up, cruises and slows down to
+ * stop at the end of a distance, with the acceleration ramping in and out at no more than
+ * maxJerk instead of jumping straight to full. That keeps the wheels from slipping when a
+ * move starts and stops. It brakes at about the last moment it can still reach the ending
+ * speed with the jerk and deceleration limits, so segments are as fast as the limits allow.
+ *
+ * <p>Keeps the acceleration from the last loop, so use one profiler for one thing being
+ * driven. If the speed was changed by something else since the last loop, the profile starts
+ * again from that speed. Does not allocate, so it is cheap to call every loop.
+ */
+public class VelocityProfiler {
+    private static final double MAX_ELAPSED_TIME = 0.1; // Seconds, longer gaps (like the first loop) count as this
+    private static final double VELOCITY_TOLERANCE = 0.001; // Inches per second
+    private static final int SEARCH_STEPS = 12; // Halvings of the acceleration range to find the most allowed
+    // Braking is planned at this part of maxDeceleration. Loops only change the acceleration at
+    // their ends, so following the plan can fall a little behind, and the rest is used to catch up.
+    private static final double BRAKING_MARGIN = 0.9;
+
+    public double maxAcceleration = 140.0; // Inches per second squared, speeding up
+    public double maxDeceleration = 140.0; // Inches per second squared, slowing down
+    public double maxJerk = 1400.0; // Inches per second cubed
+    public double minVelocity = 0; // Inches per second, never commands less than this
+
+    // From the last calculate
+    public double velocity = 0; // Inches per second
+    public double acceleration = 0; // Inches per second squared
+
+    /** Start again from the speed given, with no acceleration */
+    public void reset(double velocity) {
+        this.velocity = velocity;
+        acceleration = 0;
+    }
+
+    /**
+     * Speed for this loop.
+     *
+     * @param currentVelocity Speed commanded last loop, in inches per second
+     * @param maxVelocity     Speed to cruise at, in inches per second
+     * @param distanceToGo    Inches left, or Double.POSITIVE_INFINITY to just reach maxVelocity
+     * @param endVelocity     Speed to be at when distanceToGo reaches 0, in inches per second
+     * @param elapsedTime     Time since last loop, in seconds
+     * @return The speed to command, also in velocity
+     */
+    public double calculate(double currentVelocity, double maxVelocity, double distanceToGo, double endVelocity,
+            double elapsedTime) {
+        if (Math.abs(currentVelocity - velocity) > VELOCITY_TOLERANCE) {
+            acceleration = 0;
+        }
+        double dt = Math.max(0, Math.min(elapsedTime, MAX_ELAPSED_TIME));
+        double jerkStep = maxJerk * dt;
+        double lowAcceleration = Math.max(-maxDeceleration, acceleration - jerkStep);
+        double highAcceleration = Math.min(maxAcceleration, acceleration + jerkStep);
+        if (lowAcceleration > highAcceleration) { // Limits were lowered since last loop
+            lowAcceleration = highAcceleration;
+        }
+
+        // The most acceleration this loop that can still ramp back in time to not pass
+        // maxVelocity and to slow to endVelocity by the end. Less acceleration never makes
+        // either harder, so search between the most and least the jerk limit allows.
+        double newAcceleration = lowAcceleration;
+        if (isReachable(highAcceleration, currentVelocity, maxVelocity, distanceToGo, endVelocity, dt)) {
+            newAcceleration = highAcceleration;
+        } else if (isReachable(lowAcceleration, currentVelocity, maxVelocity, distanceToGo, endVelocity, dt)) {
+            for (int i = 0; i < SEARCH_STEPS; i++) {
+                double middle = (lowAcceleration + highAcceleration) / 2;
+                if (isReachable(middle, currentVelocity, maxVelocity, distanceToGo, endVelocity, dt)) {
+                    lowAcceleration = middle;
+                } else {
+                    highAcceleration = middle;
+                }
+            }
+            newAcceleration = lowAcceleration;
+        }
+        double v = Math.max(0, currentVelocity + ((acceleration + newAcceleration) / 2 * dt));
+
+        // Never faster than braking at maxDeceleration with no jerk limit allows, in case the
+        // distance suddenly got shorter (like a vision target jumping closer)
+        if (distanceToGo != Double.POSITIVE_INFINITY) {
+            double deceleration = Math.max(0, distanceToGo) * 2 * maxDeceleration;
+            v = Math.min(v, Math.sqrt((endVelocity * endVelocity) + deceleration));
+        }
+        if (v < minVelocity || v == 0) {
+            v = Math.max(v, minVelocity);
+            newAcceleration = 0;
+        }
+        velocity = v;
+        acceleration = newAcceleration;
+        return v;
+    }
+
+    // Whether after a loop at newAcceleration the robot can still stay under maxVelocity and
+    // slow down to endVelocity within distanceToGo
+    private boolean isReachable(double newAcceleration, double currentVelocity, double maxVelocity,
+            double distanceToGo, double endVelocity, double dt) {
+        double deceleration = maxDeceleration * BRAKING_MARGIN;
+        double v = currentVelocity + ((acceleration + newAcceleration) / 2 * dt);
+        double a = newAcceleration;
+        // Speed once the acceleration is ramped back to 0
+        double rampTime = Math.abs(a) / maxJerk;
+        double rampVelocity = v + (a * rampTime / 2);
+        if (rampVelocity > maxVelocity) {
+            return false;
+        }
+        if (distanceToGo == Double.POSITIVE_INFINITY) {
+            return true;
+        }
+        // Averaging each loop's speeds counts a little extra distance while the deceleration
+        // ramps out, so leave that much to spare and not pass the end
+        double distanceLeft = distanceToGo - ((currentVelocity + v) / 2 * dt) - (deceleration * dt * dt / 4);
+        if (a >= 0) {
+            // Ramp the acceleration down to 0 first, then brake
+            double rampDistance = (v * rampTime) + (a * rampTime * rampTime / 2)
+                - (maxJerk * rampTime * rampTime * rampTime / 6);
+            return calcBrakingDistance(rampVelocity, endVelocity, deceleration) <= distanceLeft - rampDistance;
+        }
+        if (-a > deceleration) {
+            // Catching up, braking harder than planned: keep this deceleration until it is time
+            // to ramp it out to reach endVelocity. If that is already past, it is slowing more
+            // than it needs to.
+            double rampOutVelocity = endVelocity + (a * a / (2 * maxJerk));
+            if (v <= rampOutVelocity) {
+                return true;
+            }
+            double rampOutDistance = (rampOutVelocity * rampTime) + (a * rampTime * rampTime / 2)
+                + (maxJerk * rampTime * rampTime * rampTime / 6);
+            return ((v * v) - (rampOutVelocity * rampOutVelocity)) / (-2 * a) + rampOutDistance <= distanceLeft;
+        }
+        // Already slowing down, so part way into braking that started at rampVelocity with no
+        // acceleration. If that braking never gets this hard, it is slowing more than it needs to.
+        double startVelocity = v + (a * a / (2 * maxJerk));
+        if (startVelocity - endVelocity < a * a / maxJerk) {
+            return true;
+        }
+        double distanceSoFar = (startVelocity * rampTime) - (maxJerk * rampTime * rampTime * rampTime / 6);
+        return calcBrakingDistance(startVelocity, endVelocity, deceleration) - distanceSoFar <= distanceLeft;
+    }
+
+    // Distance to slow from velocity to endVelocity, starting with no acceleration and ramping
+    // the deceleration in and out at maxJerk
+    private double calcBrakingDistance(double velocity, double endVelocity, double deceleration) {
+        double velocityChange = velocity - endVelocity;
+        if (velocityChange <= 0) {
+            return 0;
+        }
+        if (velocityChange >= (deceleration * deceleration) / maxJerk) {
+            return (velocity + endVelocity) / 2 * ((velocityChange / deceleration) + (deceleration / maxJerk));
+        }
+        return (velocity + endVelocity) * Math.sqrt(velocityChange / maxJerk);
+    }
+}
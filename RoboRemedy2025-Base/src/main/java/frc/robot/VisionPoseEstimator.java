@@ -0,0 +1,144 @@
+// VisionPoseEstimator.java - Field position of the robot from every AprilTag any camera can see
+package frc.robot;
+
+import java.util.*;
+
+import frc.robot.ReplayInputs.*;
+
+/**
+ * Each camera result is turned into one robot field position. Every known tag in the result
+ * gives its own position, from the tag's place in AprilTagLayout, the distance and angle to it,
+ * the robot heading when the image was taken and where the camera is mounted on the robot.
+ * The positions are averaged, weighted by how certain each one is, and passed to the
+ * PoseEstimator with the time stamp of the image.
+ *
+ * <p>A tag is less certain the farther away it is and the higher its pose ambiguity, so close,
+ * square-on tags count the most, and seeing more tags makes the position more certain.
+ */
+public class VisionPoseEstimator {
+    private static final double TAG_STD_DEV = 2.0; // Inches
+    private static final double TAG_STD_DEV_PER_INCH = 0.03; // Grows with distance to the tag
+    private static final double AMBIGUITY_STD_DEV_SCALE = 5.0; // An ambiguity of 0.2 doubles the standard deviation
+    private static final double MAX_AMBIGUITY = 0.2;
+    private static final double MAX_TAG_DISTANCE = 200.0; // Inches
+
+    /** A camera and where it is on the robot */
+    private static class CameraMount {
+        CameraIO camera;
+        double rightOffset;
+        double forwardOffset;
+        double yawOffset;
+        CameraInputs targets = new CameraInputs();
+        double lastTimeStamp = 0;
+    }
+
+    // The most recent position measurement
+    public double lastTimeStamp = 0;
+    public double lastX = 0;
+    public double lastY = 0;
+    public double lastStdDev = 0;
+    public int lastTagCount = 0;
+    public int measurementCount = 0;
+
+    private PoseEstimator poseEstimator;
+    private RoboLog rLog;
+    private ArrayList<CameraMount> cameras = new ArrayList<>();
+    private Position historyPosition = new Position("vision history position", 0, 0, 0);
+
+    VisionPoseEstimator(PoseEstimator poseEstimator, RoboLog rLog) {
+        this.poseEstimator = poseEstimator;
+        this.rLog = rLog;
+
+        if (this.rLog == null) {
+            System.out.println("Warning: VisionPoseEstimator.rLog is null");
+        }
+    }
+
+    /**
+     * Use the AprilTags seen by a camera.
+     *
+     * @param camera        The camera
+     * @param rightOffset   Inches the camera is to the right of the center of the robot
+     * @param forwardOffset Inches the camera is in front of the center of the robot
+     * @param yawOffset     Degrees clockwise the camera is turned from the front of the robot
+     */
+    public void addCamera(CameraIO camera, double rightOffset, double forwardOffset, double yawOffset) {
+        CameraMount mount = new CameraMount();
+        mount.camera = camera;
+        mount.rightOffset = rightOffset;
+        mount.forwardOffset = forwardOffset;
+        mount.yawOffset = yawOffset;
+        cameras.add(mount);
+    }
+
+    /**
+     * Measure the robot position from every camera result received since the last call.
+     * Call after the PoseEstimator has the measured motion for this loop.
+     *
+     * @param isRedAlliance Which alliance wall the field coordinates start from
+     * @return Number of position measurements passed to the PoseEstimator
+     */
+    public int update(boolean isRedAlliance) {
+        int count = 0;
+        for (int i = 0; i < cameras.size(); i++) {
+            CameraMount mount = cameras.get(i);
+            while (mount.camera.getNextTargets(mount.lastTimeStamp, mount.targets)) {
+                mount.lastTimeStamp = mount.targets.timeStamp;
+                if (measure(mount, isRedAlliance)) {
+                    poseEstimator.addVisionPosition(lastTimeStamp, lastX, lastY, lastStdDev);
+                    count++;
+                }
+            }
+        }
+        measurementCount += count;
+        return count;
+    }
+
+    // Combine the tags in one result into lastX, lastY and lastStdDev
+    private boolean measure(CameraMount mount, boolean isRedAlliance) {
+        CameraInputs targets = mount.targets;
+        if (!poseEstimator.poseHistory.getPosition(targets.timeStamp, historyPosition)) {
+            return false; // Image is older than the position history
+        }
+        double heading = historyPosition.getYaw();
+        double headingRadians = Math.toRadians(heading);
+        double sin = Math.sin(headingRadians);
+        double cos = Math.cos(headingRadians);
+        double cameraX = (mount.rightOffset * cos) + (mount.forwardOffset * sin);
+        double cameraY = (mount.forwardOffset * cos) - (mount.rightOffset * sin);
+
+        double weightSum = 0;
+        double weightedX = 0;
+        double weightedY = 0;
+        int tagCount = 0;
+        for (int i = 0; i < targets.targetCount; i++) {
+            int id = targets.ids[i];
+            double distance = targets.distances[i];
+            double ambiguity = targets.ambiguities[i];
+            if (!AprilTagLayout.isKnownTag(id) || distance <= 0 || distance > MAX_TAG_DISTANCE
+                    || ambiguity < 0 || ambiguity > MAX_AMBIGUITY) {
+                continue;
+            }
+            double targetAngle = Math.toRadians(heading + mount.yawOffset + targets.yaws[i]);
+            double x = AprilTagLayout.getTagX(id, isRedAlliance) - (distance * Math.sin(targetAngle)) - cameraX;
+            double y = AprilTagLayout.getTagY(id, isRedAlliance) - (distance * Math.cos(targetAngle)) - cameraY;
+            double stdDev = (TAG_STD_DEV + (TAG_STD_DEV_PER_INCH * distance))
+                * (1 + (AMBIGUITY_STD_DEV_SCALE * ambiguity));
+            double weight = 1 / (stdDev * stdDev);
+            weightedX += weight * x;
+            weightedY += weight * y;
+            weightSum += weight;
+            tagCount++;
+        }
+        if (tagCount == 0) {
+            return false;
+        }
+
+        lastTimeStamp = targets.timeStamp;
+        lastX = weightedX / weightSum;
+        lastY = weightedY / weightSum;
+        lastStdDev = 1 / Math.sqrt(weightSum);
+        lastTagCount = tagCount;
+        return true;
+    }
+}
@@ -0,0 +1,76 @@
+// VelocityProfilerTest.java - Checks the S-curve speed profile on a simulated drive
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+
+class VelocityProfilerTest {
+    private static final double LOOP_SECONDS = 0.02;
+    private static final double MAX_ACCEL = 140.0; // Same as AutoRobot
+    private static final double MAX_DECEL = 55.0; // Same as RobotState.MAX_ROBOT_DECELERATION
+    private static final double RAMP_TIME = 0.1; // Same as Action.ACCELERATION_RAMP_TIME
+
+    private VelocityProfiler profiler = new VelocityProfiler();
+    private double distanceTraveled;
+    private double maxJerkSeen;
+
+    @BeforeEach
+    void setLimits() {
+        // The limits Action sets for driveStraightWithFacing
+        profiler.maxAcceleration = MAX_ACCEL;
+        profiler.maxDeceleration = MAX_DECEL;
+        profiler.maxJerk = MAX_ACCEL / RAMP_TIME;
+        profiler.minVelocity = 0;
+        profiler.reset(0);
+    }
+
+    // Drive with the profile until it stops or maxSeconds pass, moving at the average of each
+    // loop's starting and ending speed like the profiler assumes
+    private double drive(double maxVelocity, double distance, double maxSeconds) {
+        double velocity = 0;
+        double lastAcceleration = 0;
+        distanceTraveled = 0;
+        maxJerkSeen = 0;
+        for (double time = 0; time < maxSeconds; time += LOOP_SECONDS) {
+            double newVelocity = profiler.calculate(velocity, maxVelocity, distance - distanceTraveled, 0,
+                LOOP_SECONDS);
+            distanceTraveled += (velocity + newVelocity) / 2 * LOOP_SECONDS;
+            maxJerkSeen = Math.max(maxJerkSeen, Math.abs(profiler.acceleration - lastAcceleration) / LOOP_SECONDS);
+            lastAcceleration = profiler.acceleration;
+            velocity = newVelocity;
+            if (velocity == 0 && time > 0) {
+                break;
+            }
+        }
+        return velocity;
+    }
+
+    @Test
+    void stopsAtTheEndOfTheDistance() {
+        for (double distance : new double[] { 10, 36, 100, 200 }) {
+            double endVelocity = drive(60, distance, 20);
+            assertEquals(0, endVelocity, 0.001, "Still moving after " + distance + " inches");
+            assertEquals(distance, distanceTraveled, 0.5, "Stopping point for " + distance + " inches");
+        }
+    }
+
+    @Test
+    void jerkStaysUnderTheLimit() {
+        drive(120, 100, 20);
+        assertTrue(maxJerkSeen <= profiler.maxJerk + 0.001, "Jerk " + maxJerkSeen + " is over " + profiler.maxJerk);
+    }
+
+    @Test
+    void cruisesAtMaxVelocityWithoutPassingIt() {
+        double velocity = 0;
+        double fastest = 0;
+        for (int i = 0; i < 200; i++) {
+            velocity = profiler.calculate(velocity, 60, Double.POSITIVE_INFINITY, 0, LOOP_SECONDS);
+            fastest = Math.max(fastest, velocity);
+        }
+        assertEquals(60, velocity, 0.01);
+        // The acceleration search stops within a small step of the limit
+        assertTrue(fastest <= 60.05, "Went " + fastest + " with a max of 60");
+    }
+}